@@ -0,0 +1,133 @@
+package cn.darkjrong.email;
+
+import cn.darkjrong.email.domain.EmailTo;
+import cn.hutool.core.map.FixedLinkedHashMap;
+import cn.hutool.core.util.StrUtil;
+import org.apache.commons.mail.EmailException;
+import org.apache.commons.mail.util.IDNEmailAddressConverter;
+
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+
+/**
+ * 收件人地址缓存
+ * <p>
+ * 以(邮箱, 名称, 字符集)为键缓存已校验的 {@link InternetAddress}, 名称的 MIME 编码结果随地址一起缓存;
+ * 名称为可打印 ASCII 时无需编码, 字符集不参与缓存键. 国际化域名与 commons-email 一致转换为 ASCII(Punycode).
+ * 超出容量时淘汰最久未使用的地址; {@link InternetAddress} 可修改, 每次返回缓存地址的副本
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 19:40:52
+ */
+class AddressCache {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final IDNEmailAddressConverter IDN_CONVERTER = new IDNEmailAddressConverter();
+
+    private final Map<String, InternetAddress> addresses;
+
+    /**
+     * @param capacity 最大缓存数
+     */
+    AddressCache(int capacity) {
+        this.addresses = new FixedLinkedHashMap<>(capacity);
+    }
+
+    /**
+     * 获取地址
+     *
+     * @param emailTo 收件人
+     * @return {@link InternetAddress} 已校验地址的副本
+     * @throws EmailException 地址无效
+     */
+    InternetAddress get(EmailTo emailTo) throws EmailException {
+
+        String key = key(emailTo);
+        InternetAddress address;
+        synchronized (addresses) {
+            address = addresses.get(key);
+        }
+
+        if (address == null) {
+            address = create(emailTo.getMail(), emailTo.getName(), isAscii(emailTo.getName()) ? null : emailTo.getCharset());
+            synchronized (addresses) {
+                addresses.put(key, address);
+            }
+        }
+        return (InternetAddress) address.clone();
+    }
+
+    /**
+     * 是否已缓存
+     *
+     * @param emailTo 收件人
+     * @return boolean 是否已缓存
+     */
+    boolean contains(EmailTo emailTo) {
+        synchronized (addresses) {
+            return addresses.containsKey(key(emailTo));
+        }
+    }
+
+    private static String key(EmailTo emailTo) {
+        String mail = emailTo.getMail();
+        String name = emailTo.getName();
+        return isAscii(name) ? mail + SEPARATOR + StrUtil.nullToEmpty(name)
+                : mail + SEPARATOR + name + SEPARATOR + emailTo.getCharset();
+    }
+
+    /**
+     * 解析并校验地址, 预先生成编码后的名称
+     *
+     * @param mail    邮箱
+     * @param name    名称
+     * @param charset 字符集, 名称无需编码时为 null
+     * @return {@link InternetAddress} 地址
+     * @throws EmailException 地址无效
+     */
+    private static InternetAddress create(String mail, String name, String charset) throws EmailException {
+        try {
+            InternetAddress address = new InternetAddress(IDN_CONVERTER.toASCII(mail));
+            if (StrUtil.isNotEmpty(name)) {
+                if (charset == null) {
+                    address.setPersonal(name);
+                } else {
+                    address.setPersonal(name, charset);
+                }
+            }
+            address.validate();
+            address.toString();
+            return address;
+        } catch (AddressException | UnsupportedEncodingException e) {
+            throw new EmailException(e);
+        }
+    }
+
+    /**
+     * 是否为可打印 ASCII, 空名称视为 ASCII
+     *
+     * @param name 名称
+     * @return boolean 是否为可打印 ASCII
+     */
+    private static boolean isAscii(String name) {
+        if (name == null) {
+            return Boolean.TRUE;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < ' ' || c > '~') {
+                return Boolean.FALSE;
+            }
+        }
+        return Boolean.TRUE;
+    }
+
+    int size() {
+        synchronized (addresses) {
+            return addresses.size();
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package cn.darkjrong.email;
+
+import cn.darkjrong.email.attachment.AttachmentCompressor;
+import cn.darkjrong.email.dkim.DkimSigner;
+import cn.darkjrong.email.transport.AimdLimit;
+import cn.darkjrong.email.transport.DirectDelivery;
+import cn.darkjrong.email.transport.DomainBulkhead;
+import cn.darkjrong.email.transport.PriorityLanes;
+import cn.darkjrong.email.transport.SmtpConnectionPool;
+import cn.darkjrong.email.transport.SmtpConnector;
+import cn.darkjrong.email.validation.RecipientValidator;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 发送运行时
+ * <p>
+ * 由一份 {@link EmailProperties} 创建的连接池、并发控制与邮件处理组件, 刷新配置时整体替换.
+ * 每次发送开始时持有当前运行时直到结束; 被替换的运行时在持有的发送全部结束后关闭
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 03:40:18
+ */
+final class EmailRuntime {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailRuntime.class);
+
+    /**
+     * 电子邮件属性
+     */
+    final EmailProperties emailProperties;
+
+    /**
+     * 发送配置, 包含相同账号配置共用的邮件会话
+     */
+    final SendProfile sendProfile;
+
+    /**
+     * SMTP 连接池
+     */
+    final SmtpConnectionPool connectionPool;
+
+    /**
+     * 优先级通道
+     */
+    final PriorityLanes priorityLanes;
+
+    /**
+     * 收件域名隔离, 未开启时为 null
+     */
+    final DomainBulkhead domainBulkhead;
+
+    /**
+     * 直投 MX, 未开启时为 null
+     */
+    final DirectDelivery directDelivery;
+
+    /**
+     * 附件压缩
+     */
+    final AttachmentCompressor attachmentCompressor;
+
+    /**
+     * DKIM 签名, 未开启时为 null
+     */
+    final DkimSigner dkimSigner;
+
+    /**
+     * 收件人校验, 未开启时为 null
+     */
+    final RecipientValidator recipientValidator;
+
+    /**
+     * 持有该运行时的发送数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean retired = Boolean.FALSE;
+
+    EmailRuntime(EmailProperties emailProperties) {
+        this.emailProperties = emailProperties;
+        SmtpConnector connector = new SmtpConnector(emailProperties);
+        this.sendProfile = SendProfile.compile(emailProperties, connector.getSession());
+        this.connectionPool = new SmtpConnectionPool(connector, emailProperties.getPool());
+        EmailProperties.Adaptive adaptive = emailProperties.getAdaptive();
+        this.priorityLanes = new PriorityLanes(emailProperties.getPool().getMaxTotal(), emailProperties.getLanes(),
+                emailProperties.getPool().getMaxWait(), adaptive.getEnabled() ? new AimdLimit(adaptive, emailProperties.getPool().getMaxTotal()) : null);
+        // 中继发送时限流响应来自中继服务器而非收件域名, 仅直投时按域名自适应
+        this.domainBulkhead = emailProperties.getBulkhead().getEnabled() ? new DomainBulkhead(emailProperties.getBulkhead(),
+                adaptive.getEnabled() && emailProperties.getDirect().getEnabled() ? adaptive : null) : null;
+        this.directDelivery = emailProperties.getDirect().getEnabled() ? new DirectDelivery(emailProperties) : null;
+        this.attachmentCompressor = new AttachmentCompressor(emailProperties.getCompression());
+        this.dkimSigner = emailProperties.getDkim().getEnabled() ? new DkimSigner(emailProperties.getDkim()) : null;
+        this.recipientValidator = emailProperties.getValidation().getEnabled() ? new RecipientValidator(emailProperties.getValidation()) : null;
+    }
+
+    /**
+     * 持有运行时
+     *
+     * @return boolean 是否持有成功, 已被替换时返回 false, 应改为持有当前运行时
+     */
+    boolean retain() {
+        inFlight.incrementAndGet();
+        if (retired) {
+            release();
+            return Boolean.FALSE;
+        }
+        return Boolean.TRUE;
+    }
+
+    /**
+     * 释放运行时, 已被替换且没有发送持有时关闭
+     */
+    void release() {
+        if (inFlight.decrementAndGet() == 0 && retired) {
+            close();
+        }
+    }
+
+    /**
+     * 标记为已替换, 没有发送持有时立即关闭, 否则由最后一个发送关闭
+     */
+    void retire() {
+        retired = Boolean.TRUE;
+        int count = inFlight.get();
+        if (count == 0) {
+            close();
+        } else {
+            logger.info("retire draining {} sends", count);
+        }
+    }
+
+    /**
+     * 持有该运行时的发送数
+     *
+     * @return int 发送数
+     */
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 关闭连接池, 仅执行一次
+     */
+    void close() {
+        if (closed.compareAndSet(Boolean.FALSE, Boolean.TRUE)) {
+            connectionPool.close();
+            if (directDelivery != null) {
+                directDelivery.close();
+            }
+        }
+    }
+
+}
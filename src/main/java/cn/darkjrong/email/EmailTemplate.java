@@ -1,21 +1,63 @@
 package cn.darkjrong.email;
 
 import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.MailType;
+import cn.darkjrong.email.domain.SendResult;
+import cn.darkjrong.email.event.EmailEvent;
+import cn.darkjrong.email.event.EmailEventDispatcher;
+import cn.darkjrong.email.event.EmailEventType;
+import cn.darkjrong.email.event.EmailListener;
 import cn.darkjrong.email.exception.MailException;
 import cn.darkjrong.email.exception.ExceptionEnum;
+import cn.darkjrong.email.idempotent.IdempotencyStore;
+import cn.darkjrong.email.idempotent.MemoryIdempotencyStore;
+import cn.darkjrong.email.mx.MxResolver;
+import cn.darkjrong.email.processor.MessageProcessor;
+import cn.darkjrong.email.suppression.SuppressionList;
+import cn.darkjrong.email.trace.SendPhase;
+import cn.darkjrong.email.trace.SendSpan;
+import cn.darkjrong.email.trace.SendTracer;
+import cn.darkjrong.email.transport.DomainBulkhead;
+import cn.darkjrong.email.transport.EightBitMime;
+import cn.darkjrong.email.transport.PooledConnection;
+import cn.darkjrong.email.transport.PriorityLanes;
+import cn.darkjrong.email.transport.SmtpConnectException;
+import cn.darkjrong.email.transport.SmtpConnectionPool;
+import cn.darkjrong.email.validation.RecipientValidator;
 import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.lang.Assert;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.StrUtil;
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPMessage;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import com.sun.mail.smtp.SMTPSenderFailedException;
+import com.sun.mail.util.MailConnectException;
 import org.apache.commons.mail.*;
 import org.apache.commons.mail.resolver.DataSourceCompositeResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.activation.DataSource;
+import javax.mail.AuthenticationFailedException;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
 import java.io.File;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 电子邮件操作类
@@ -28,12 +70,62 @@ public class EmailTemplate {
     private static final Logger logger = LoggerFactory.getLogger(EmailTemplate.class);
 
     /**
-     * 电子邮件属性
+     * 限流响应: 421 连接数过多, 451 发送频率超限
      */
-    private final EmailProperties emailProperties;
+    private static final Set<Integer> THROTTLING_CODES = CollectionUtil.newHashSet(421, 451);
+
+    /**
+     * 发送运行时, 刷新配置时整体替换
+     */
+    private volatile EmailRuntime runtime;
+
+    /**
+     * 替换运行时与设置 MX 记录解析器的锁, 不在锁内建立连接
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * 幂等键存储, 首次使用幂等键时创建默认的内存存储
+     */
+    private volatile IdempotencyStore idempotencyStore;
+
+    /**
+     * 邮件处理器, 构建邮件之后、发送之前按顺序执行
+     */
+    private final List<MessageProcessor> messageProcessors = new CopyOnWriteArrayList<>();
+
+    /**
+     * MX 记录解析器, 刷新配置时设置到新的运行时
+     */
+    private volatile MxResolver mxResolver;
+
+    /**
+     * 抑制列表, 未设置时不过滤收件人
+     */
+    private volatile SuppressionList suppressionList;
+
+    /**
+     * 事件分发, 添加首个监听器时创建
+     */
+    private volatile EmailEventDispatcher eventDispatcher;
+
+    /**
+     * 发送追踪
+     */
+    private volatile SendTracer sendTracer;
+
+    /**
+     * 最后一次发送成功时间
+     */
+    private volatile long lastSuccessTime;
+
+    /**
+     * 最后一次发送失败时间
+     */
+    private volatile long lastFailureTime;
 
     public EmailTemplate(EmailProperties emailProperties) {
-        this.emailProperties = emailProperties;
+        this.runtime = new EmailRuntime(emailProperties);
     }
 
     /**
@@ -517,16 +609,8 @@ public class EmailTemplate {
                            List<EmailTo> bccEmails,
                            List<EmailTo> replyEmails, Date date) throws MailException {
 
-        try {
-
-            Email email = new SimpleEmail();
-            register(email, subject, message, toEmails, ccEmails, bccEmails, replyEmails, date);
-
-            return email.send();
-        }catch (Exception e) {
-            logger.error("sendText {}", e.getMessage());
-            throw new MailException(e.getMessage());
-        }
+        return this.send(new MailRequest(MailType.TEXT, subject, message, null,
+                toEmails, ccEmails, bccEmails, replyEmails, date)).getMessageId();
     }
 
     /**
@@ -665,33 +749,8 @@ public class EmailTemplate {
                            List<EmailTo> bccEmails,
                            List<EmailTo> replyEmails, Date date) throws MailException {
 
-        Assert.isTrue(EmailUtil.checkFileExists(attachment), ExceptionEnum.ATTACHMENT_DOES_NOT_EXIST.getValue());
-
-        EmailAttachment emailAttachment = new EmailAttachment();
-
-        try {
-
-            if (EmailUtil.checkOnlineFile(attachment)) {
-                emailAttachment.setURL(new URL(attachment));
-            }else {
-                emailAttachment.setPath(attachment);
-            }
-
-            emailAttachment.setName(FileUtil.getName(attachment));
-            emailAttachment.setDescription(FileUtil.getName(attachment));
-            emailAttachment.setDisposition(EmailAttachment.ATTACHMENT);
-
-            MultiPartEmail email = new MultiPartEmail();
-            email.setBoolHasAttachments(Boolean.TRUE);
-
-            register(email, subject, message, toEmails, ccEmails, bccEmails, replyEmails, date);
-            email.attach(emailAttachment);
-
-            return email.send();
-        }catch (Exception e) {
-            logger.error("sendFile {}", e.getMessage());
-            throw new MailException(e.getMessage());
-        }
+        return this.send(new MailRequest(MailType.FILE, subject, message, attachment,
+                toEmails, ccEmails, bccEmails, replyEmails, date)).getMessageId();
     }
 
     /**
@@ -832,20 +891,8 @@ public class EmailTemplate {
                            List<EmailTo> bccEmails,
                            List<EmailTo> replyEmails, Date date) throws MailException {
 
-        Assert.notBlank(html, ExceptionEnum.THE_MESSAGE_CANNOT_BE_EMPTY.getValue());
-
-        ImageHtmlEmail email = new ImageHtmlEmail();
-        try {
-            email.setDataSourceResolver(new DataSourceCompositeResolver(EmailUtil.getDataSourceResolvers()));
-            register(email, subject, html, toEmails, ccEmails, bccEmails, replyEmails, date);
-            email.setHtmlMsg(html);
-            email.setTextMsg(ExceptionEnum.YOUR_EMAIL_CLIENT_DOES_NOT_SUPPORT_HTML_MESSAGES.getValue());
-
-            return email.send();
-        }catch (Exception e) {
-            logger.error("sendHtml {}", e.getMessage());
-            throw new MailException(e.getMessage());
-        }
+        return this.send(new MailRequest(MailType.HTML, subject, html, null,
+                toEmails, ccEmails, bccEmails, replyEmails, date)).getMessageId();
     }
 
     /**
@@ -918,6 +965,671 @@ public class EmailTemplate {
 
 
 
+
+    /**
+     * 发送邮件
+     *
+     * @param request 发送请求
+     * @return {@link SendResult} 发送结果
+     * @throws MailException 电子邮件异常
+     */
+    public SendResult send(MailRequest request) throws MailException {
+
+        Assert.notNull(request, ExceptionEnum.THE_REQUEST_CANNOT_BE_EMPTY.getValue());
+
+        SendTracer tracer = sendTracer;
+        SendSpan span = tracer == null ? SendSpan.NOOP : tracer.start(request);
+        try {
+            return this.send(request, span);
+        } catch (IllegalArgumentException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * 发送邮件
+     *
+     * @param request 发送请求
+     * @param span    发送追踪
+     * @return {@link SendResult} 发送结果
+     * @throws MailException 电子邮件异常
+     */
+    private SendResult send(MailRequest request, SendSpan span) throws MailException {
+
+        if (MailType.FILE.equals(request.getType())) {
+            span.phase(SendPhase.ATTACHMENT);
+            Assert.isTrue(EmailUtil.checkFileExists(request.getAttachment()), ExceptionEnum.ATTACHMENT_DOES_NOT_EXIST.getValue());
+        } else if (MailType.HTML.equals(request.getType())) {
+            Assert.notBlank(request.getMessage(), ExceptionEnum.THE_MESSAGE_CANNOT_BE_EMPTY.getValue());
+        }
+
+        String idempotencyKey = request.getIdempotencyKey();
+        if (StrUtil.isNotBlank(idempotencyKey)) {
+            String messageId = getIdempotencyStore().get(idempotencyKey);
+            if (messageId != null) {
+                logger.info("send duplicate idempotency key {}, message {}", idempotencyKey, messageId);
+                span.setAttribute("email.duplicate", messageId);
+                return SendResult.duplicate(request, messageId);
+            }
+        }
+
+        EmailRuntime runtime = this.retainRuntime();
+        DomainBulkhead.Permit domainPermit = null;
+        PriorityLanes.Permit permit = null;
+        String messageId = null;
+        List<String> invalid = new ArrayList<>();
+        try {
+            span.phase(SendPhase.WAIT);
+            if (runtime.domainBulkhead != null) {
+                domainPermit = runtime.domainBulkhead.acquire(DomainBulkhead.domains(request));
+            }
+            permit = runtime.priorityLanes.acquire(request.getPriority());
+            publish(EmailEvent.of(EmailEventType.SENDING, request));
+
+            span.phase(SendPhase.VALIDATE);
+            MailRequest filtered = this.filterReceivers(runtime, request, invalid);
+
+            span.phase(SendPhase.BUILD);
+            MimeMessage mimeMessage = this.prepare(runtime, this.createEmail(runtime, filtered));
+            for (MessageProcessor messageProcessor : messageProcessors) {
+                messageProcessor.process(mimeMessage);
+            }
+            if (runtime.dkimSigner != null) {
+                span.phase(SendPhase.SIGN);
+                runtime.dkimSigner.sign(mimeMessage);
+            }
+            messageId = mimeMessage.getMessageID();
+            span.setAttribute("email.message_id", messageId);
+            if (StrUtil.isNotBlank(idempotencyKey)) {
+                String existing = getIdempotencyStore().putIfAbsent(idempotencyKey, messageId);
+                if (existing != null) {
+                    logger.info("send duplicate idempotency key {}, message {}", idempotencyKey, existing);
+                    span.setAttribute("email.duplicate", existing);
+                    return SendResult.duplicate(request, existing);
+                }
+            }
+
+            long startTime = System.currentTimeMillis();
+            this.send(runtime, mimeMessage, idempotencyKey, span);
+            onSuccess(runtime, permit, domainPermit, System.currentTimeMillis() - startTime);
+            publish(EmailEvent.sent(request, messageId));
+            SendResult result = SendResult.success(request, messageId);
+            result.setInvalidReceivers(invalid);
+            return result;
+        } catch (Exception e) {
+            logger.error("send {} {}", request.getType(), e.getMessage());
+            span.error(e);
+            if (THROTTLING_CODES.contains(returnCode(e))) {
+                onThrottled(runtime, permit, domainPermit);
+            }
+            publish(EmailEvent.failed(failureType(e), request, messageId, e));
+            throw new MailException(e.getMessage());
+        } finally {
+            if (permit != null) {
+                runtime.priorityLanes.release(permit);
+            }
+            if (domainPermit != null) {
+                runtime.domainBulkhead.release(domainPermit);
+            }
+            runtime.release();
+        }
+    }
+
+    /**
+     * 持有当前运行时, 与刷新配置并发时持有替换后的运行时
+     *
+     * @return {@link EmailRuntime} 运行时
+     */
+    private EmailRuntime retainRuntime() {
+        EmailRuntime current;
+        do {
+            current = runtime;
+        } while (!current.retain());
+        return current;
+    }
+
+    /**
+     * 过滤收件人, 不修改原请求: 去掉地址无效的收件人、抄送人、密送人、回复人, 以及已抑制的收件人、抄送人、密送人
+     *
+     * @param runtime 运行时
+     * @param request 发送请求
+     * @param invalid 地址无效的收件人
+     * @return {@link MailRequest} 过滤后的请求, 没有需要去掉的收件人时返回原请求
+     * @throws MailException 没有剩余的收件人
+     */
+    private MailRequest filterReceivers(EmailRuntime runtime, MailRequest request, List<String> invalid) throws MailException {
+
+        SuppressionList suppression = suppressionList;
+        RecipientValidator recipientValidator = runtime.recipientValidator;
+        if (suppression == null && recipientValidator == null) {
+            return request;
+        }
+
+        List<String> suppressed = new ArrayList<>();
+        List<EmailTo> toEmails = filter(request.getToEmails(), recipientValidator, suppression, invalid, suppressed);
+        List<EmailTo> ccEmails = filter(request.getCcEmails(), recipientValidator, suppression, invalid, suppressed);
+        List<EmailTo> bccEmails = filter(request.getBccEmails(), recipientValidator, suppression, invalid, suppressed);
+        List<EmailTo> replyEmails = filter(request.getReplyEmails(), recipientValidator, null, invalid, suppressed);
+        if (suppressed.isEmpty() && invalid.isEmpty()) {
+            return request;
+        }
+
+        if (!invalid.isEmpty()) {
+            logger.warn("filterReceivers invalid {}", invalid);
+        }
+        if (!suppressed.isEmpty()) {
+            logger.info("filterReceivers suppressed {}", suppressed);
+        }
+        if (toEmails.isEmpty()) {
+            throw new MailException("No receiver left, invalid: {}, suppressed: {}", invalid, suppressed);
+        }
+
+        MailRequest filtered = BeanUtil.copyProperties(request, MailRequest.class);
+        filtered.setToEmails(toEmails);
+        filtered.setCcEmails(ccEmails);
+        filtered.setBccEmails(bccEmails);
+        filtered.setReplyEmails(replyEmails);
+        return filtered;
+    }
+
+    private List<EmailTo> filter(List<EmailTo> emails, RecipientValidator recipientValidator, SuppressionList suppression, List<String> invalid, List<String> suppressed) {
+        if (CollectionUtil.isEmpty(emails)) {
+            return emails;
+        }
+        List<EmailTo> retained = new ArrayList<>(emails.size());
+        for (EmailTo emailTo : emails) {
+            if (emailTo == null || StrUtil.isBlank(emailTo.getMail())) {
+                retained.add(emailTo);
+            } else if (recipientValidator != null && !recipientValidator.isValid(emailTo.getMail())) {
+                invalid.add(emailTo.getMail());
+            } else if (suppression != null && suppression.contains(emailTo.getMail())) {
+                suppressed.add(emailTo.getMail());
+            } else {
+                retained.add(emailTo);
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * 判断失败类型, 服务器返回 4xx 或连接失败为暂时失败
+     *
+     * @param throwable 异常
+     * @return {@link EmailEventType} DEFERRED 或 FAILED
+     */
+    private static EmailEventType failureType(Throwable throwable) {
+        int returnCode = returnCode(throwable);
+        if (returnCode > 0) {
+            return returnCode / 100 == 4 ? EmailEventType.DEFERRED : EmailEventType.FAILED;
+        }
+        return ExceptionUtil.isFromOrSuppressedThrowable(throwable, MailConnectException.class, Boolean.TRUE) ? EmailEventType.DEFERRED : EmailEventType.FAILED;
+    }
+
+    /**
+     * 获取服务器响应码
+     *
+     * @param throwable 异常
+     * @return int 响应码, 不是服务器响应时返回 0
+     */
+    private static int returnCode(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SMTPSendFailedException) {
+                return ((SMTPSendFailedException) cause).getReturnCode();
+            } else if (cause instanceof SMTPAddressFailedException) {
+                return ((SMTPAddressFailedException) cause).getReturnCode();
+            } else if (cause instanceof SMTPSenderFailedException) {
+                return ((SMTPSenderFailedException) cause).getReturnCode();
+            } else if (cause instanceof SmtpConnectException) {
+                return ((SmtpConnectException) cause).getReturnCode();
+            } else if (cause instanceof MailConnectException) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 发送成功, 调整自适应并发
+     *
+     * @param runtime      运行时
+     * @param permit       连接许可
+     * @param domainPermit 域名许可
+     * @param latency      发送耗时(毫秒)
+     */
+    private void onSuccess(EmailRuntime runtime, PriorityLanes.Permit permit, DomainBulkhead.Permit domainPermit, long latency) {
+        if (permit != null && runtime.priorityLanes.getLimit() != null) {
+            runtime.priorityLanes.getLimit().onSuccess(latency);
+        }
+        if (domainPermit != null) {
+            runtime.domainBulkhead.onSuccess(domainPermit, latency);
+        }
+    }
+
+    /**
+     * 服务器限流, 调整自适应并发
+     *
+     * @param runtime      运行时
+     * @param permit       连接许可
+     * @param domainPermit 域名许可
+     */
+    private void onThrottled(EmailRuntime runtime, PriorityLanes.Permit permit, DomainBulkhead.Permit domainPermit) {
+        if (permit != null && runtime.priorityLanes.getLimit() != null) {
+            runtime.priorityLanes.getLimit().onThrottled();
+        }
+        if (domainPermit != null) {
+            runtime.domainBulkhead.onThrottled(domainPermit);
+        }
+    }
+
+    /**
+     * 创建电子邮件, 邮件为 {@link SMTPMessage}, 发送时在 MAIL FROM 中声明 SIZE
+     *
+     * @param runtime 运行时
+     * @param request 发送请求
+     * @return {@link Email} 电子邮件
+     * @throws EmailException        构建异常
+     * @throws MalformedURLException URL 异常
+     */
+    private Email createEmail(EmailRuntime runtime, MailRequest request) throws EmailException, MalformedURLException {
+
+        switch (request.getType()) {
+            case HTML:
+                ImageHtmlEmail htmlEmail = new ImageHtmlEmail() {
+                    @Override
+                    protected MimeMessage createMimeMessage(Session session) {
+                        return new SMTPMessage(session);
+                    }
+                };
+                htmlEmail.setDataSourceResolver(new DataSourceCompositeResolver(EmailUtil.getDataSourceResolvers()));
+                register(htmlEmail, request, runtime.sendProfile);
+                htmlEmail.setHtmlMsg(request.getMessage());
+                htmlEmail.setTextMsg(ExceptionEnum.YOUR_EMAIL_CLIENT_DOES_NOT_SUPPORT_HTML_MESSAGES.getValue());
+                return htmlEmail;
+            case FILE:
+                String attachment = request.getAttachment();
+                boolean online = EmailUtil.checkOnlineFile(attachment);
+
+                MultiPartEmail multiPartEmail = new MultiPartEmail() {
+                    @Override
+                    protected MimeMessage createMimeMessage(Session session) {
+                        return new SMTPMessage(session);
+                    }
+                };
+                multiPartEmail.setBoolHasAttachments(Boolean.TRUE);
+
+                register(multiPartEmail, request, runtime.sendProfile);
+
+                DataSource compressed = online ? null : runtime.attachmentCompressor.compress(new File(attachment), request.getCompress());
+                if (compressed != null) {
+                    multiPartEmail.attach(compressed, compressed.getName(), FileUtil.getName(attachment), EmailAttachment.ATTACHMENT);
+                    return multiPartEmail;
+                }
+
+                EmailAttachment emailAttachment = new EmailAttachment();
+                if (online) {
+                    emailAttachment.setURL(new URL(attachment));
+                }else {
+                    emailAttachment.setPath(attachment);
+                }
+
+                emailAttachment.setName(FileUtil.getName(attachment));
+                emailAttachment.setDescription(FileUtil.getName(attachment));
+                emailAttachment.setDisposition(EmailAttachment.ATTACHMENT);
+
+                multiPartEmail.attach(emailAttachment);
+                return multiPartEmail;
+            default:
+                Email email = new SimpleEmail() {
+                    @Override
+                    protected MimeMessage createMimeMessage(Session session) {
+                        return new SMTPMessage(session);
+                    }
+                };
+                register(email, request, runtime.sendProfile);
+                return email;
+        }
+    }
+
+    /**
+     * 注册信息
+     *
+     * @param email       电子邮件
+     * @param request     发送请求
+     * @param sendProfile 发送配置
+     * @throws EmailException 电子邮件异常
+     */
+    private void register(Email email, MailRequest request, SendProfile sendProfile) throws EmailException {
+        sendProfile.apply(email);
+        register(email, request.getSubject(), request.getMessage(), request.getToEmails(), request.getCcEmails(),
+                request.getBccEmails(), request.getReplyEmails(), request.getDate());
+    }
+
+    /**
+     * 构建邮件, 开启 8BITMIME 时文本正文在签名之前改为 8bit 编码
+     *
+     * @param runtime 运行时
+     * @param email   电子邮件
+     * @return {@link MimeMessage} 已生成消息ID的邮件
+     * @throws EmailException     构建异常
+     * @throws MessagingException 邮件异常
+     */
+    private MimeMessage prepare(EmailRuntime runtime, Email email) throws EmailException, MessagingException {
+        email.buildMimeMessage();
+        MimeMessage mimeMessage = email.getMimeMessage();
+        if (runtime.emailProperties.getEightBitMimeEnabled() && mimeMessage instanceof SMTPMessage) {
+            EightBitMime.apply((SMTPMessage) mimeMessage);
+        }
+        runtime.sendProfile.apply(mimeMessage);
+        mimeMessage.saveChanges();
+        return mimeMessage;
+    }
+
+    /**
+     * 发送邮件
+     * <p>
+     * 发送失败时, 确定未发出的邮件会删除其幂等键以便重试; 传输过程中失败的邮件可能已被服务器接收, 保留幂等键
+     *
+     * @param runtime        运行时
+     * @param mimeMessage    邮件
+     * @param idempotencyKey 幂等键
+     * @param span           发送追踪
+     * @throws MessagingException 发送异常
+     */
+    private void send(EmailRuntime runtime, MimeMessage mimeMessage, String idempotencyKey, SendSpan span) throws MessagingException {
+
+        SmtpConnectionPool connectionPool = runtime.connectionPool;
+        PooledConnection connection = null;
+        boolean success = Boolean.FALSE;
+        boolean transmitted = Boolean.FALSE;
+        try {
+            if (runtime.directDelivery != null) {
+                span.phase(SendPhase.TRANSMIT);
+                transmitted = Boolean.TRUE;
+                runtime.directDelivery.send(mimeMessage, runtime.dkimSigner);
+            } else {
+                span.phase(SendPhase.CONNECT);
+                connection = connectionPool.borrow();
+                span.phase(SendPhase.TRANSMIT);
+                transmitted = Boolean.TRUE;
+                connection.sendMessage(mimeMessage, mimeMessage.getAllRecipients(), runtime.dkimSigner);
+            }
+            success = Boolean.TRUE;
+        } catch (SendFailedException e) {
+            transmitted = ArrayUtil.isNotEmpty(e.getValidSentAddresses());
+            throw e;
+        } finally {
+            if (connection != null) {
+                connectionPool.release(connection, success);
+            }
+            if (success) {
+                lastSuccessTime = System.currentTimeMillis();
+            } else {
+                lastFailureTime = System.currentTimeMillis();
+                if (StrUtil.isNotBlank(idempotencyKey)) {
+                    if (transmitted) {
+                        logger.warn("send may have been delivered, idempotency key {} kept", idempotencyKey);
+                    } else {
+                        getIdempotencyStore().remove(idempotencyKey);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 添加邮件处理器, 在 DKIM 签名之前执行
+     *
+     * @param messageProcessor 邮件处理器
+     */
+    public void addMessageProcessor(MessageProcessor messageProcessor) {
+        this.messageProcessors.add(messageProcessor);
+    }
+
+    /**
+     * 添加发送事件监听器
+     *
+     * @param listener 监听器
+     */
+    public void addListener(EmailListener listener) {
+        if (eventDispatcher == null) {
+            synchronized (this) {
+                if (eventDispatcher == null) {
+                    eventDispatcher = new EmailEventDispatcher(runtime.emailProperties.getEvents().getBufferSize());
+                }
+            }
+        }
+        eventDispatcher.addListener(listener);
+    }
+
+    /**
+     * 发布发送事件, 不阻塞; 没有监听器时忽略
+     *
+     * @param event 事件
+     */
+    public void publish(EmailEvent event) {
+        EmailEventDispatcher dispatcher = eventDispatcher;
+        if (dispatcher != null) {
+            dispatcher.publish(event);
+        }
+    }
+
+    /**
+     * 设置抑制列表, 发送前跳过其中的收件人; 收件人全部被抑制时发送失败
+     *
+     * @param suppressionList 抑制列表
+     */
+    public void setSuppressionList(SuppressionList suppressionList) {
+        this.suppressionList = suppressionList;
+    }
+
+    /**
+     * 设置发送追踪
+     *
+     * @param sendTracer 发送追踪
+     */
+    public void setSendTracer(SendTracer sendTracer) {
+        this.sendTracer = sendTracer;
+    }
+
+    /**
+     * 获取发送追踪
+     *
+     * @return {@link SendTracer} 发送追踪, 未设置时为 null
+     */
+    public SendTracer getSendTracer() {
+        return sendTracer;
+    }
+
+    /**
+     * 获取事件分发
+     *
+     * @return {@link EmailEventDispatcher} 事件分发, 没有监听器时为 null
+     */
+    public EmailEventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+
+    /**
+     * 获取幂等键存储
+     *
+     * @return {@link IdempotencyStore} 幂等键存储
+     */
+    public IdempotencyStore getIdempotencyStore() {
+        if (idempotencyStore == null) {
+            synchronized (this) {
+                if (idempotencyStore == null) {
+                    idempotencyStore = new MemoryIdempotencyStore(runtime.emailProperties.getIdempotency().getCapacity(),
+                            runtime.emailProperties.getIdempotency().getWindow());
+                }
+            }
+        }
+        return idempotencyStore;
+    }
+
+    /**
+     * 设置幂等键存储
+     *
+     * @param idempotencyStore 幂等键存储
+     */
+    public void setIdempotencyStore(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * 获取发送配置
+     *
+     * @return {@link SendProfile} 发送配置
+     */
+    public SendProfile getSendProfile() {
+        return runtime.sendProfile;
+    }
+
+    /**
+     * 获取连接池
+     *
+     * @return {@link SmtpConnectionPool} 连接池
+     */
+    public SmtpConnectionPool getConnectionPool() {
+        return runtime.connectionPool;
+    }
+
+    /**
+     * 获取优先级通道
+     *
+     * @return {@link PriorityLanes} 优先级通道
+     */
+    public PriorityLanes getPriorityLanes() {
+        return runtime.priorityLanes;
+    }
+
+    /**
+     * 获取收件域名隔离
+     *
+     * @return {@link DomainBulkhead} 收件域名隔离, 未开启时为 null
+     */
+    public DomainBulkhead getDomainBulkhead() {
+        return runtime.domainBulkhead;
+    }
+
+    /**
+     * 获取最后一次发送成功时间
+     *
+     * @return long 时间戳, 未成功发送过时为 0
+     */
+    public long getLastSuccessTime() {
+        return lastSuccessTime;
+    }
+
+    /**
+     * 获取最后一次发送失败时间
+     *
+     * @return long 时间戳, 未失败过时为 0
+     */
+    public long getLastFailureTime() {
+        return lastFailureTime;
+    }
+
+    /**
+     * 在后台预热连接池, 连接数为 pool.prewarm, 直投 MX 时不预热
+     * <p>
+     * 认证失败等错误在启动时输出日志, 并记为一次发送失败, 健康检查随之显示为 DOWN
+     */
+    public void prewarm() {
+
+        EmailRuntime current = runtime;
+        int count = current.emailProperties.getPool().getPrewarm();
+        if (count <= 0 || current.directDelivery != null) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                int opened = current.connectionPool.prewarm(count);
+                logger.info("prewarm {} connections in {} ms", opened, System.currentTimeMillis() - start);
+            } catch (AuthenticationFailedException e) {
+                lastFailureTime = System.currentTimeMillis();
+                logger.error("prewarm authentication failed, check username and password {}", e.getMessage());
+            } catch (MessagingException e) {
+                lastFailureTime = System.currentTimeMillis();
+                logger.error("prewarm {}", e.getMessage());
+            }
+        }, "email-prewarm");
+        thread.setDaemon(Boolean.TRUE);
+        thread.start();
+    }
+
+    /**
+     * 设置 MX 记录解析器, 仅直投 MX 时生效
+     *
+     * @param mxResolver MX 记录解析器
+     */
+    public void setMxResolver(MxResolver mxResolver) {
+        synchronized (refreshLock) {
+            this.mxResolver = mxResolver;
+            setMxResolver(runtime, mxResolver);
+        }
+    }
+
+    private static void setMxResolver(EmailRuntime runtime, MxResolver mxResolver) {
+        if (runtime.directDelivery != null) {
+            runtime.directDelivery.setMxResolver(mxResolver);
+        }
+        if (runtime.recipientValidator != null) {
+            runtime.recipientValidator.setMxResolver(mxResolver);
+        }
+    }
+
+    /**
+     * 刷新配置, 如更换密码
+     * <p>
+     * 先用新配置建立连接并预热, 成功后新的发送立即使用新的连接池; 已开始的发送继续使用原连接池,
+     * 全部结束后关闭原连接池. 新配置无法连接或认证失败时保留原配置, 不影响发送.
+     * 建立连接时不持有锁, 仅替换运行时在锁内; 同时刷新时以最后完成的为准
+     *
+     * @param emailProperties 新的电子邮件属性
+     * @throws MailException 新配置无效或无法连接
+     */
+    public void refresh(EmailProperties emailProperties) throws MailException {
+
+        Assert.notNull(emailProperties, ExceptionEnum.THE_EMAIL_ACCOUNT_INFORMATION_CANNOT_BE_EMPTY.getValue());
+
+        EmailRuntime refreshed = new EmailRuntime(emailProperties);
+        if (refreshed.directDelivery == null) {
+            try {
+                long start = System.currentTimeMillis();
+                refreshed.connectionPool.release(refreshed.connectionPool.borrow(), Boolean.TRUE);
+                int opened = refreshed.connectionPool.prewarm(emailProperties.getPool().getPrewarm());
+                logger.info("refresh connected {} in {} ms", opened + 1, System.currentTimeMillis() - start);
+            } catch (MessagingException e) {
+                refreshed.close();
+                logger.error("refresh {}, keep current configuration", e.getMessage());
+                throw new MailException("Refresh failed, keep current configuration: {}", e.getMessage());
+            }
+        }
+
+        EmailRuntime retired;
+        synchronized (refreshLock) {
+            // 在锁内设置, 不会遗漏建立连接期间设置的 MX 记录解析器
+            setMxResolver(refreshed, mxResolver);
+            retired = runtime;
+            runtime = refreshed;
+        }
+        retired.retire();
+    }
+
+    /**
+     * 关闭连接池
+     */
+    public void close() {
+        runtime.close();
+        if (eventDispatcher != null) {
+            eventDispatcher.close();
+        }
+    }
 
     /**
      * 注册信息
@@ -1011,33 +1723,14 @@ public class EmailTemplate {
         Assert.notBlank(subject, ExceptionEnum.THE_TOPIC_CANNOT_BE_EMPTY.getValue());
         Assert.notBlank(message, ExceptionEnum.THE_MESSAGE_CANNOT_BE_EMPTY.getValue());
 
-        email.setStartTLSEnabled(emailProperties.getStartTlsEnabled());
-        email.setStartTLSRequired(emailProperties.getStartTlsRequired());
-        email.setSendPartial(emailProperties.getSendPartial());
-        email.setSSLCheckServerIdentity(emailProperties.getSslCheckServerIdentity());
-        email.setHostName(emailProperties.getHost());
-        EmailUtil.setPort(email, emailProperties.getSslEnable(), emailProperties.getPort());
-        if (!emailProperties.getAvoidAuthEnable()) {
-            email.setAuthentication(emailProperties.getUsername(), emailProperties.getPassword());
-        }
-        email.setSSLOnConnect(emailProperties.getSslEnable());
-        email.setCharset(emailProperties.getCharset());
         email.setSubject(subject);
-        email.setFrom(emailProperties.getFrom().getEmail(),
-                emailProperties.getFrom().getName(), emailProperties.getCharset());
         EmailUtil.setDate(email, date);
         EmailUtil.setMsg(email, message);
-        email.setDebug(emailProperties.getDebug());
-        email.setSocketTimeout(emailProperties.getTimeout());
-        email.setSocketConnectionTimeout(emailProperties.getConnectionTimeout());
 
         EmailUtil.addTo(email, toEmails);
         EmailUtil.addCc(email, ccEmails);
         EmailUtil.addBcc(email, bccEmails);
         EmailUtil.addReply(email, replyEmails);
-        EmailUtil.addPop3(email, emailProperties.getPop3());
-        EmailUtil.setBounce(email, emailProperties.getBounceEnable(),
-                emailProperties.getUsername());
 
     }
 
@@ -22,10 +22,12 @@ import org.apache.commons.mail.resolver.DataSourceUrlResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.mail.internet.InternetAddress;
 import java.io.File;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -42,6 +44,11 @@ class EmailUtil {
     private static final String PROTOCOL_REG = "^(http|https|ftp)://.*$";
     private static final Logger logger = LoggerFactory.getLogger(EmailUtil.class);
 
+    /**
+     * 收件人地址缓存, 所有模板共用
+     */
+    private static final AddressCache ADDRESS_CACHE = new AddressCache(4096);
+
     /**
      * 发送文本邮件
      *
@@ -976,17 +983,17 @@ class EmailUtil {
 
         Assert.notEmpty(toEmails, ExceptionEnum.THE_RECEIVER_CANNOT_BE_EMPTY.getValue());
 
-        int index = 0;
+        List<InternetAddress> addresses = new ArrayList<>(toEmails.size());
 
         for (EmailTo toEmail : toEmails) {
             if (StrUtil.isNotBlank(toEmail.getMail())) {
-                email.addTo(toEmail.getMail(), toEmail.getName(), toEmail.getCharset());
-                index++;
+                addresses.add(ADDRESS_CACHE.get(toEmail));
             }
         }
 
-        Assert.isFalse(index == 0, ExceptionEnum.THE_RECEIVER_CANNOT_BE_EMPTY.getValue());
+        Assert.isFalse(addresses.isEmpty(), ExceptionEnum.THE_RECEIVER_CANNOT_BE_EMPTY.getValue());
 
+        email.setTo(addresses);
     }
 
     /**
@@ -998,9 +1005,7 @@ class EmailUtil {
      */
     protected static void addCc(Email email, List<EmailTo> ccEmails) throws EmailException {
         if (CollectionUtil.isNotEmpty(ccEmails)) {
-            for (EmailTo ccEmail : ccEmails) {
-                email.addCc(ccEmail.getMail(), ccEmail.getName(), ccEmail.getCharset());
-            }
+            email.setCc(getAddresses(ccEmails));
         }
     }
 
@@ -1013,9 +1018,7 @@ class EmailUtil {
      */
     protected static void addBcc(Email email, List<EmailTo> bccEmails) throws EmailException {
         if (CollectionUtil.isNotEmpty(bccEmails)) {
-            for (EmailTo bccEmail : bccEmails) {
-                email.addBcc(bccEmail.getMail(), bccEmail.getName(), bccEmail.getCharset());
-            }
+            email.setBcc(getAddresses(bccEmails));
         }
     }
 
@@ -1027,10 +1030,23 @@ class EmailUtil {
      */
     protected static void addReply(Email email, List<EmailTo> replyEmails) throws EmailException {
         if (CollectionUtil.isNotEmpty(replyEmails)) {
-            for (EmailTo replyEmail : replyEmails) {
-                email.addReplyTo(replyEmail.getMail(), replyEmail.getName(), replyEmail.getCharset());
-            }
+            email.setReplyTo(getAddresses(replyEmails));
+        }
+    }
+
+    /**
+     * 获取地址, 优先使用缓存
+     *
+     * @param emails 收件人
+     * @return {@link List} 地址
+     * @throws EmailException 地址无效
+     */
+    private static List<InternetAddress> getAddresses(List<EmailTo> emails) throws EmailException {
+        List<InternetAddress> addresses = new ArrayList<>(emails.size());
+        for (EmailTo emailTo : emails) {
+            addresses.add(ADDRESS_CACHE.get(emailTo));
         }
+        return addresses;
     }
 
     /**
@@ -1112,6 +1128,7 @@ class EmailUtil {
         EmailProperties.Pop3 pop3 = new EmailProperties.Pop3();
         BeanUtil.copyProperties(emailAccount.getPop3(), pop3);
         emailProperties.setPop3(pop3);
+        emailProperties.getPool().setEnabled(Boolean.FALSE);
 
         EmailFactoryBean emailFactoryBean = new EmailFactoryBean(emailProperties);
         emailFactoryBean.afterPropertiesSet();
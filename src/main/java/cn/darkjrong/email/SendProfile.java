@@ -0,0 +1,150 @@
+package cn.darkjrong.email;
+
+import cn.darkjrong.email.exception.ExceptionEnum;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.lang.Assert;
+import com.sun.mail.smtp.SMTPMessage;
+import org.apache.commons.mail.Email;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+
+/**
+ * 发送配置
+ * <p>
+ * 模板创建时由 {@link EmailProperties} 编译一次并校验, 之后不可变; 发件人、退信地址预先解析,
+ * 发件人邮件头预先编码, 每封邮件只设置自身的字段
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 19:06:23
+ */
+public final class SendProfile {
+
+    private static final Logger logger = LoggerFactory.getLogger(SendProfile.class);
+
+    private static final String FROM = "From";
+
+    /**
+     * 邮件会话
+     */
+    private final Session session;
+
+    /**
+     * 字符集
+     */
+    private final Charset charset;
+
+    /**
+     * 发件人
+     */
+    private final InternetAddress from;
+
+    /**
+     * 已编码的发件人邮件头
+     */
+    private final String fromHeader;
+
+    /**
+     * 退信地址, 即信封发件人(MAIL FROM), 未开启邮件退回时为 null
+     */
+    private final InternetAddress bounce;
+
+    private final boolean popBeforeSmtp;
+    private final String popHost;
+    private final String popUsername;
+    private final String popPassword;
+
+    private SendProfile(EmailProperties emailProperties, Session session) throws AddressException, UnsupportedEncodingException {
+
+        EmailProperties.From sender = emailProperties.getFrom();
+        EmailProperties.Pop3 pop3 = emailProperties.getPop3();
+
+        this.session = session;
+        this.charset = Charset.forName(emailProperties.getCharset());
+        this.from = new InternetAddress(sender.getEmail(), sender.getName(), charset.name());
+        this.from.validate();
+        this.fromHeader = from.toString();
+        this.bounce = emailProperties.getBounceEnable() ? new InternetAddress(emailProperties.getUsername()) : null;
+
+        this.popBeforeSmtp = pop3.getPopBeforeSmtp();
+        this.popHost = pop3.getPopHost();
+        this.popUsername = pop3.getPopUsername();
+        this.popPassword = pop3.getPopPassword();
+    }
+
+    /**
+     * 编译发送配置
+     *
+     * @param emailProperties 电子邮件属性
+     * @param session         邮件会话, 已包含主机、端口、认证、退信地址等会话属性
+     * @return {@link SendProfile} 发送配置
+     * @throws MailException 配置无效
+     */
+    public static SendProfile compile(EmailProperties emailProperties, Session session) throws MailException {
+
+        Assert.notBlank(emailProperties.getFrom().getEmail(),
+                String.format(ExceptionEnum.THE_PROPERTY_CANNOT_BE_EMPTY.getValue(), "email"));
+
+        try {
+            return new SendProfile(emailProperties, session);
+        } catch (AddressException | UnsupportedEncodingException | IllegalArgumentException e) {
+            logger.error("compile {}", e.getMessage());
+            throw new MailException(e, "Invalid email configuration: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 应用于待构建的邮件
+     * <p>
+     * 发件人不在此设置: 会话中的 mail.from 满足 commons-email 的校验, 构建后由 {@link #apply(MimeMessage)} 写入预编码的邮件头
+     *
+     * @param email 电子邮件
+     */
+    void apply(Email email) {
+        email.setMailSession(session);
+        email.setCharset(charset.name());
+        if (popBeforeSmtp) {
+            email.setPopBeforeSmtp(Boolean.TRUE, popHost, popUsername, popPassword);
+        }
+    }
+
+    /**
+     * 应用于已构建的邮件
+     * <p>
+     * 退信地址设置在邮件上, 不依赖会话的 mail.smtp.from, 直投 MX 时同样生效
+     *
+     * @param mimeMessage 邮件
+     * @throws MessagingException 邮件异常
+     */
+    void apply(MimeMessage mimeMessage) throws MessagingException {
+        mimeMessage.setHeader(FROM, fromHeader);
+        if (bounce != null && mimeMessage instanceof SMTPMessage) {
+            ((SMTPMessage) mimeMessage).setEnvelopeFrom(bounce.getAddress());
+        }
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public InternetAddress getFrom() {
+        return from;
+    }
+
+    public InternetAddress getBounce() {
+        return bounce;
+    }
+
+}
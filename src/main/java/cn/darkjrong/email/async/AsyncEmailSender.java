@@ -0,0 +1,581 @@
+package cn.darkjrong.email.async;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.MailType;
+import cn.darkjrong.email.domain.Priority;
+import cn.darkjrong.email.domain.SendResult;
+import cn.darkjrong.email.event.EmailEvent;
+import cn.darkjrong.email.event.EmailEventType;
+import cn.darkjrong.email.exception.ExceptionEnum;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.email.trace.SendTracer;
+import cn.darkjrong.email.transport.DomainBulkhead;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 异步发送
+ * <p>
+ * 排队邮件同时受数量与估算字节数限制, 字节数按发送时的编码大小估算(附件按 base64 膨胀计算);
+ * 队列满时按溢出策略处理. 高优先级邮件先发送
+ * <p>
+ * 每个优先级内按收件域名分队列轮流发送; 开启收件域名隔离时, 额度已满的域名的邮件留在自己的队列中,
+ * 发送线程跳过它们发送其他域名的邮件
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 20:14:37
+ */
+public class AsyncEmailSender implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncEmailSender.class);
+
+    private static final String SPILL_SUFFIX = ".mail";
+    private static final long MESSAGE_OVERHEAD = 2048L;
+    private static final long ADDRESS_SIZE = 64L;
+    private static final long SHUTDOWN_TIMEOUT = 30L;
+    private static final long BULKHEAD_RETRY = 100L;
+
+    private final EmailTemplate emailTemplate;
+    private final int maxCount;
+    private final long maxBytes;
+    private final OverflowPolicy overflow;
+    private final long blockTimeout;
+    private final File spillDirectory;
+
+    private final List<LinkedHashMap<String, Deque<Task>>> lanes = new ArrayList<>();
+    private final Deque<Spilled> spilled = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private volatile int count;
+    private volatile long queuedBytes;
+    private volatile int spilledCount;
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ExecutorService workers;
+    private volatile boolean closed = Boolean.FALSE;
+
+    public AsyncEmailSender(EmailTemplate emailTemplate, EmailProperties.Async async) {
+
+        this.emailTemplate = emailTemplate;
+        this.maxCount = async.getMaxCount();
+        this.maxBytes = async.getMaxBytes();
+        this.overflow = async.getOverflow();
+        this.blockTimeout = async.getBlockTimeout();
+        this.spillDirectory = new File(async.getSpillDirectory());
+
+        for (int i = 0; i < Priority.values().length; i++) {
+            lanes.add(new LinkedHashMap<>());
+        }
+        if (OverflowPolicy.SPILL.equals(overflow)) {
+            recover();
+        }
+
+        this.workers = Executors.newFixedThreadPool(async.getConcurrency(),
+                ThreadFactoryBuilder.create().setNamePrefix("email-async-").setDaemon(true).build());
+        for (int i = 0; i < async.getConcurrency(); i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    /**
+     * 提交发送请求
+     *
+     * @param request 发送请求
+     * @return {@link CompletableFuture} 发送结果, 发送失败或被丢弃时为失败结果
+     * @throws MailException 队列已满被拒绝, 或已关闭
+     */
+    public CompletableFuture<SendResult> submit(MailRequest request) throws MailException {
+
+        Assert.notNull(request, ExceptionEnum.THE_REQUEST_CANNOT_BE_EMPTY.getValue());
+
+        Task task = new Task(request, estimateSize(request), new CompletableFuture<>());
+        task.domains = DomainBulkhead.domains(request);
+        SendTracer tracer = emailTemplate.getSendTracer();
+        task.traceContext = tracer == null ? null : tracer.enqueue(request);
+        List<Task> victims = null;
+
+        lock.lock();
+        try {
+            if (closed) {
+                discard(task.traceContext);
+                throw new MailException("Async email sender is closed");
+            }
+            if (fits(task) && spilled.isEmpty()) {
+                enqueue(task);
+                return task.future;
+            }
+
+            if (OverflowPolicy.BLOCK.equals(overflow)) {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+                while (!fits(task) && nanos > 0 && !closed) {
+                    nanos = notFull.awaitNanos(nanos);
+                }
+                if (fits(task) && !closed) {
+                    enqueue(task);
+                    return task.future;
+                }
+            } else if (OverflowPolicy.DROP_LOWEST.equals(overflow)) {
+                victims = dropLowerThan(task);
+                if (victims != null) {
+                    enqueue(task);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(task.traceContext);
+            throw new MailException("Interrupted while waiting for queue space");
+        } finally {
+            lock.unlock();
+        }
+
+        if (victims != null) {
+            for (Task victim : victims) {
+                logger.warn("submit dropped {} mail {}", lane(victim.request), victim.request.getSubject());
+                discard(victim.traceContext);
+                MailException dropped = new MailException("Dropped by overflow policy");
+                emailTemplate.publish(EmailEvent.failed(EmailEventType.FAILED, victim.request, null, dropped));
+                victim.future.complete(SendResult.failure(victim.request, dropped));
+            }
+            return task.future;
+        }
+
+        if (OverflowPolicy.SPILL.equals(overflow)) {
+            spill(task);
+            return task.future;
+        }
+
+        rejected.incrementAndGet();
+        discard(task.traceContext);
+        throw new MailException("Email queue is full, queued: {}, bytes: {}", count, queuedBytes);
+    }
+
+    /**
+     * 未发送的邮件离开队列, 结束追踪上下文
+     *
+     * @param traceContext 追踪上下文
+     */
+    private void discard(Object traceContext) {
+        SendTracer tracer = emailTemplate.getSendTracer();
+        if (tracer != null && traceContext != null) {
+            tracer.dequeue(traceContext).close();
+        }
+    }
+
+    /**
+     * 估算邮件发送时的大小
+     *
+     * @param request 发送请求
+     * @return long 字节数
+     */
+    static long estimateSize(MailRequest request) {
+
+        long size = MESSAGE_OVERHEAD + 3L * (StrUtil.length(request.getSubject()) + StrUtil.length(request.getMessage()));
+        size += ADDRESS_SIZE * (CollectionUtil.size(request.getToEmails()) + CollectionUtil.size(request.getCcEmails())
+                + CollectionUtil.size(request.getBccEmails()) + CollectionUtil.size(request.getReplyEmails()));
+
+        if (MailType.FILE.equals(request.getType()) && StrUtil.isNotBlank(request.getAttachment())) {
+            File attachment = new File(request.getAttachment());
+            if (attachment.isFile()) {
+                size += (attachment.length() + 2) / 3 * 4;
+            }
+        }
+        return size;
+    }
+
+    private static Priority lane(MailRequest request) {
+        return ObjectUtil.defaultIfNull(request.getPriority(), Priority.NORMAL);
+    }
+
+    private boolean fits(Task task) {
+        return count == 0 || (count < maxCount && queuedBytes + task.size <= maxBytes);
+    }
+
+    private void enqueue(Task task) {
+        task.sequence = sequence.incrementAndGet();
+        lanes.get(lane(task.request).ordinal())
+                .computeIfAbsent(String.join(",", task.domains), key -> new ArrayDeque<>()).offerLast(task);
+        count++;
+        queuedBytes += task.size;
+        notEmpty.signal();
+        emailTemplate.publish(EmailEvent.of(EmailEventType.QUEUED, task.request));
+    }
+
+    /**
+     * 丢弃优先级更低的排队邮件, 从最低优先级的最新邮件开始
+     *
+     * @param task 待入队的邮件
+     * @return {@link List} 被丢弃的邮件, 丢弃全部更低优先级的邮件也放不下时返回 null 且不丢弃
+     */
+    private List<Task> dropLowerThan(Task task) {
+
+        int priority = lane(task.request).ordinal();
+        int lowerCount = 0;
+        long lowerBytes = 0;
+        for (int i = priority + 1; i < lanes.size(); i++) {
+            for (Deque<Task> queue : lanes.get(i).values()) {
+                for (Task queued : queue) {
+                    lowerCount++;
+                    lowerBytes += queued.size;
+                }
+            }
+        }
+        if (count - lowerCount > 0 && (count - lowerCount >= maxCount || queuedBytes - lowerBytes + task.size > maxBytes)) {
+            return null;
+        }
+
+        List<Task> victims = new ArrayList<>();
+        for (int i = lanes.size() - 1; i > priority && !fits(task); i--) {
+            Map<String, Deque<Task>> lane = lanes.get(i);
+            while (!lane.isEmpty() && !fits(task)) {
+                Task victim = pollNewest(lane);
+                count--;
+                queuedBytes -= victim.size;
+                victims.add(victim);
+            }
+        }
+        dropped.addAndGet(victims.size());
+        return victims;
+    }
+
+    /**
+     * 取出最新入队的邮件
+     *
+     * @param lane 优先级通道
+     * @return {@link Task} 邮件
+     */
+    private static Task pollNewest(Map<String, Deque<Task>> lane) {
+        Map.Entry<String, Deque<Task>> newest = null;
+        for (Map.Entry<String, Deque<Task>> entry : lane.entrySet()) {
+            if (newest == null || entry.getValue().peekLast().sequence > newest.getValue().peekLast().sequence) {
+                newest = entry;
+            }
+        }
+        Task task = newest.getValue().pollLast();
+        if (newest.getValue().isEmpty()) {
+            lane.remove(newest.getKey());
+        }
+        return task;
+    }
+
+    /**
+     * 取出可发送的邮件, 高优先级在前, 同一优先级内各域名轮流; 跳过额度已满的域名
+     *
+     * @return {@link Task} 邮件, 全部域名额度已满时返回 null
+     */
+    private Task pollAvailable() {
+        // 刷新配置后使用新的域名隔离, 已取得的许可归还给发放它的域名隔离
+        DomainBulkhead domainBulkhead = emailTemplate.getDomainBulkhead();
+        for (LinkedHashMap<String, Deque<Task>> lane : lanes) {
+            Iterator<Map.Entry<String, Deque<Task>>> iterator = lane.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Deque<Task>> entry = iterator.next();
+                Deque<Task> queue = entry.getValue();
+                DomainBulkhead.Permit permit = null;
+                if (domainBulkhead != null && (permit = domainBulkhead.tryAcquire(queue.peekFirst().domains)) == null) {
+                    continue;
+                }
+                Task task = queue.pollFirst();
+                task.permit = permit;
+                task.bulkhead = domainBulkhead;
+                iterator.remove();
+                if (!queue.isEmpty()) {
+                    lane.put(entry.getKey(), queue);
+                }
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 写入磁盘
+     *
+     * @param task 邮件
+     */
+    private void spill(Task task) {
+
+        File file = new File(spillDirectory, String.format("%013d-%010d%s",
+                System.currentTimeMillis(), sequence.incrementAndGet(), SPILL_SUFFIX));
+        try {
+            FileUtil.writeBytes(ObjectUtil.serialize(task.request), file);
+        } catch (RuntimeException e) {
+            logger.error("spill {}", e.getMessage());
+            rejected.incrementAndGet();
+            discard(task.traceContext);
+            throw new MailException(e, "Email queue is full and spill failed");
+        }
+
+        lock.lock();
+        try {
+            spilled.offerLast(new Spilled(file, task.future, task.traceContext));
+            spilledCount = spilled.size();
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        emailTemplate.publish(EmailEvent.of(EmailEventType.QUEUED, task.request));
+    }
+
+    /**
+     * 恢复上次关闭时未发送的磁盘邮件
+     */
+    private void recover() {
+        File[] files = spillDirectory.listFiles((dir, name) -> name.endsWith(SPILL_SUFFIX));
+        if (ArrayUtil.isNotEmpty(files)) {
+            Arrays.sort(files, Comparator.comparing(File::getName));
+            for (File file : files) {
+                spilled.offerLast(new Spilled(file, new CompletableFuture<>(), null));
+            }
+            spilledCount = spilled.size();
+            logger.info("recover {} spilled mails from {}", files.length, spillDirectory);
+        }
+    }
+
+    /**
+     * 取出下一封邮件, 内存队列为空时从磁盘读取
+     *
+     * @return {@link Task} 邮件, 已关闭且内存队列为空时返回 null
+     * @throws InterruptedException 中断
+     */
+    private Task take() throws InterruptedException {
+
+        Spilled spill;
+        lock.lock();
+        try {
+            while (true) {
+                if (count > 0) {
+                    Task task = pollAvailable();
+                    if (task != null) {
+                        count--;
+                        queuedBytes -= task.size;
+                        inFlightBytes.addAndGet(task.size);
+                        notFull.signalAll();
+                        return task;
+                    }
+                    // 域名额度可能由同步发送释放, 不会唤醒此处, 定时重试
+                    notEmpty.await(BULKHEAD_RETRY, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                if (closed) {
+                    return null;
+                }
+                if (!spilled.isEmpty()) {
+                    break;
+                }
+                notEmpty.await();
+            }
+
+            spill = spilled.pollFirst();
+            spilledCount = spilled.size();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            MailRequest request = ObjectUtil.deserialize(FileUtil.readBytes(spill.file));
+            FileUtil.del(spill.file);
+            Task task = new Task(request, estimateSize(request), spill.future);
+            task.traceContext = spill.traceContext;
+            inFlightBytes.addAndGet(task.size);
+            return task;
+        } catch (RuntimeException e) {
+            logger.error("take {} {}", spill.file, e.getMessage());
+            if (spill.file.exists()) {
+                FileUtil.rename(spill.file, spill.file.getName() + ".failed", Boolean.TRUE);
+            }
+            discard(spill.traceContext);
+            spill.future.complete(SendResult.failure(null, e));
+            return take();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                return;
+            }
+
+            if (task.permit != null && task.bulkhead != emailTemplate.getDomainBulkhead()) {
+                // 取出后配置已刷新, 发送时由新的域名隔离分配许可; 原许可立即归还, 不再占用原域名隔离的额度
+                task.bulkhead.release(task.permit);
+                task.permit = null;
+                signalAvailable();
+            }
+
+            SendTracer tracer = emailTemplate.getSendTracer();
+            SendTracer.Scope scope = SendTracer.Scope.NOOP;
+            try {
+                if (tracer != null) {
+                    scope = tracer.dequeue(task.traceContext);
+                }
+                task.future.complete(emailTemplate.send(task.request));
+            } catch (Exception e) {
+                task.future.complete(SendResult.failure(task.request, e));
+            } finally {
+                scope.close();
+                inFlightBytes.addAndGet(-task.size);
+                if (task.permit != null) {
+                    task.bulkhead.release(task.permit);
+                    signalAvailable();
+                }
+            }
+        }
+    }
+
+    /**
+     * 域名额度释放后唤醒等待的发送线程
+     */
+    private void signalAvailable() {
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 排队的邮件数, 不含磁盘中的邮件
+     *
+     * @return int 邮件数
+     */
+    public int getQueued() {
+        return count;
+    }
+
+    /**
+     * 排队邮件的估算字节数
+     *
+     * @return long 字节数
+     */
+    public long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    /**
+     * 发送中邮件的估算字节数
+     *
+     * @return long 字节数
+     */
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    /**
+     * 磁盘中的邮件数
+     *
+     * @return int 邮件数
+     */
+    public int getSpilled() {
+        return spilledCount;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * 关闭, 发送完内存队列中的邮件; 磁盘中的邮件保留, 下次启动后发送
+     */
+    @Override
+    public void close() {
+
+        lock.lock();
+        try {
+            closed = Boolean.TRUE;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+
+        lock.lock();
+        try {
+            for (Spilled spill : spilled) {
+                discard(spill.traceContext);
+                spill.future.completeExceptionally(new MailException("Sender closed, mail kept in {}", spill.file));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Task {
+
+        private final MailRequest request;
+        private final long size;
+        private final CompletableFuture<SendResult> future;
+        private List<String> domains;
+        private long sequence;
+        private DomainBulkhead.Permit permit;
+        private DomainBulkhead bulkhead;
+        private Object traceContext;
+
+        Task(MailRequest request, long size, CompletableFuture<SendResult> future) {
+            this.request = request;
+            this.size = size;
+            this.future = future;
+        }
+
+    }
+
+    private static class Spilled {
+
+        private final File file;
+        private final CompletableFuture<SendResult> future;
+        private final Object traceContext;
+
+        Spilled(File file, CompletableFuture<SendResult> future, Object traceContext) {
+            this.file = file;
+            this.future = future;
+            this.traceContext = traceContext;
+        }
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package cn.darkjrong.email.async;
+
+/**
+ * 异步发送队列溢出策略
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 20:10:05
+ */
+public enum OverflowPolicy {
+
+    // 阻塞等待, 超时后拒绝
+    BLOCK,
+
+    // 立即拒绝
+    REJECT,
+
+    // 写入磁盘, 内存队列空闲后发送, 重启后继续发送
+    SPILL,
+
+    // 丢弃优先级更低的排队邮件, 没有可丢弃的邮件时拒绝
+    DROP_LOWEST,
+
+    ;
+
+}
@@ -0,0 +1,68 @@
+package cn.darkjrong.email.attachment;
+
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+
+import javax.activation.DataSource;
+import java.io.File;
+import java.util.List;
+
+/**
+ * 附件压缩
+ * <p>
+ * 本地文件达到大小阈值且内容类型在允许列表内时压缩; 内容类型按扩展名判断, 无法识别的为 application/octet-stream
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 17:20:48
+ */
+public class AttachmentCompressor {
+
+    private static final String OCTET_STREAM = "application/octet-stream";
+    private static final String WILDCARD = "/*";
+
+    private final boolean enabled;
+    private final CompressionFormat format;
+    private final long threshold;
+    private final List<String> contentTypes;
+
+    public AttachmentCompressor(EmailProperties.Compression compression) {
+        this.enabled = compression.getEnabled();
+        this.format = compression.getFormat();
+        this.threshold = compression.getThreshold();
+        this.contentTypes = compression.getContentTypes();
+    }
+
+    /**
+     * 压缩附件
+     *
+     * @param file     本地文件
+     * @param compress 是否压缩, 为 null 时按配置判断
+     * @return {@link DataSource} 压缩后的附件, 不需要压缩时返回 null
+     */
+    public DataSource compress(File file, Boolean compress) {
+        return accept(file, compress) ? new CompressedDataSource(file, format) : null;
+    }
+
+    private boolean accept(File file, Boolean compress) {
+
+        if (compress != null) {
+            return compress;
+        }
+        if (!enabled || file.length() < threshold) {
+            return Boolean.FALSE;
+        }
+
+        String contentType = ObjectUtil.defaultIfNull(FileUtil.getMimeType(file.getName()), OCTET_STREAM);
+        for (String allowed : contentTypes) {
+            if (StrUtil.endWith(allowed, WILDCARD)
+                    ? StrUtil.startWithIgnoreCase(contentType, StrUtil.removeSuffix(allowed, "*"))
+                    : StrUtil.equalsIgnoreCase(contentType, allowed)) {
+                return Boolean.TRUE;
+            }
+        }
+        return Boolean.FALSE;
+    }
+
+}
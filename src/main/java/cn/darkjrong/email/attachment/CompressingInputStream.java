@@ -0,0 +1,125 @@
+package cn.darkjrong.email.attachment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 边读边压缩的输入流
+ * <p>
+ * 每次读取时从源流读取一块数据交给压缩器, 再输出压缩结果; 内存中只保留一块压缩数据, 不生成压缩副本.
+ * 未读完即关闭时同时关闭压缩器, 立即释放 Deflater 占用的本地内存, 不等待 finalize
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 17:06:15
+ */
+class CompressingInputStream extends InputStream {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final InputStream source;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private final ChunkBuffer buffer = new ChunkBuffer();
+    private final DeflaterOutputStream compressor;
+    private int position;
+    private boolean finished;
+
+    /**
+     * @param source    源数据
+     * @param format    压缩格式
+     * @param entryName zip 压缩包内的文件名
+     * @throws IOException 压缩异常
+     */
+    CompressingInputStream(InputStream source, CompressionFormat format, String entryName) throws IOException {
+        this.source = source;
+        if (CompressionFormat.ZIP.equals(format)) {
+            ZipOutputStream zipOutputStream = new ZipOutputStream(buffer);
+            zipOutputStream.putNextEntry(new ZipEntry(entryName));
+            this.compressor = zipOutputStream;
+        } else {
+            this.compressor = new GZIPOutputStream(buffer, CHUNK_SIZE);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+
+        int count = Math.min(length, buffer.size() - position);
+        System.arraycopy(buffer.array(), position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * 压缩数据已读完时继续压缩下一块
+     *
+     * @return boolean 是否还有数据
+     * @throws IOException 读取或压缩异常
+     */
+    private boolean fill() throws IOException {
+
+        while (position == buffer.size()) {
+            if (finished) {
+                return Boolean.FALSE;
+            }
+
+            buffer.reset();
+            position = 0;
+
+            int read = source.read(chunk);
+            if (read < 0) {
+                compressor.close();
+                finished = Boolean.TRUE;
+            } else {
+                compressor.write(chunk, 0, read);
+            }
+        }
+        return Boolean.TRUE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!finished) {
+                finished = Boolean.TRUE;
+                // 压缩器使用自带的 Deflater, 关闭时调用 Deflater.end()
+                compressor.close();
+            }
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * 可直接访问内部数组的缓冲区
+     */
+    private static class ChunkBuffer extends ByteArrayOutputStream {
+
+        ChunkBuffer() {
+            super(CHUNK_SIZE);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+    }
+
+}
@@ -0,0 +1,35 @@
+package cn.darkjrong.email.attachment;
+
+/**
+ * 附件压缩格式
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 17:02:40
+ */
+public enum CompressionFormat {
+
+    // gzip, 附件名追加 .gz
+    GZIP("application/gzip", ".gz"),
+
+    // zip, 压缩包内为原文件, 附件名追加 .zip
+    ZIP("application/zip", ".zip"),
+
+    ;
+
+    private final String contentType;
+    private final String extension;
+
+    CompressionFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+}
@@ -0,0 +1,49 @@
+package cn.darkjrong.email.bounce;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.Data;
+
+/**
+ * 退信, DSN 中的一个收件人
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 22:10:48
+ */
+@Data
+public class Bounce {
+
+    /**
+     * 收件人, Final-Recipient
+     */
+    private String recipient;
+
+    /**
+     * 处理结果, Action: failed、delayed、delivered、relayed、expanded
+     */
+    private String action;
+
+    /**
+     * 状态码, Status, 如 5.1.1
+     */
+    private String status;
+
+    /**
+     * 诊断信息, Diagnostic-Code
+     */
+    private String diagnostic;
+
+    /**
+     * 原邮件消息ID
+     */
+    private String messageId;
+
+    /**
+     * 是否为硬退信, 投递失败且状态码为 5.x.x
+     *
+     * @return boolean 是否为硬退信
+     */
+    public boolean isHard() {
+        return StrUtil.equalsIgnoreCase(action, "failed") && StrUtil.startWith(status, '5');
+    }
+
+}
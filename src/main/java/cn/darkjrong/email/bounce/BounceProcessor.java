@@ -0,0 +1,262 @@
+package cn.darkjrong.email.bounce;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.event.EmailEvent;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.email.suppression.SuppressionList;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.StrUtil;
+import com.sun.mail.pop3.POP3Folder;
+import org.apache.commons.mail.EmailConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.*;
+import javax.mail.internet.MimeMessage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 退信处理
+ * <p>
+ * 使用 pop3 配置定时轮询退信邮箱, 按 UIDL 只下载未处理过的邮件; 邮件内容边接收边解析 DSN, 硬退信的收件人加入抑制列表,
+ * 投递失败的收件人发布 BOUNCED 事件. 仅处理原邮件 Message-ID 由本系统生成的退信, 伪造或其他发件系统的退信不会抑制收件人.
+ * 单封邮件无法读取时记录为已处理并继续, 不阻塞后续退信
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 22:46:13
+ */
+public class BounceProcessor implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BounceProcessor.class);
+
+    private final Session session;
+    private final String protocol;
+    private final EmailProperties.Pop3 pop3;
+    private final EmailProperties.Bounce bounce;
+    private final SuppressionList suppressionList;
+    private final EmailTemplate emailTemplate;
+    private final UidlStore uidlStore;
+
+    /**
+     * 本系统生成的 Message-ID 后缀, 见 {@link #messageIdSuffix(EmailProperties)}
+     */
+    private final String messageIdSuffix;
+
+    private volatile ScheduledExecutorService pollExecutor;
+
+    /**
+     * @param emailProperties 电子邮件属性, 使用 pop3 与 bounce 配置
+     * @param suppressionList 抑制列表
+     * @param emailTemplate   发布退信事件, 为 null 时不发布
+     */
+    public BounceProcessor(EmailProperties emailProperties, SuppressionList suppressionList, EmailTemplate emailTemplate) {
+        this.pop3 = emailProperties.getPop3();
+        this.bounce = emailProperties.getBounce();
+        this.suppressionList = suppressionList;
+        this.emailTemplate = emailTemplate;
+        this.uidlStore = new UidlStore(new File(bounce.getUidlFile()));
+        this.protocol = bounce.getSslEnable() ? "pop3s" : "pop3";
+
+        Properties properties = new Properties();
+        properties.setProperty("mail." + protocol + ".connectiontimeout", Convert.toStr(emailProperties.getConnectionTimeout()));
+        properties.setProperty("mail." + protocol + ".timeout", Convert.toStr(emailProperties.getTimeout()));
+        this.session = Session.getInstance(properties);
+        this.messageIdSuffix = messageIdSuffix(emailProperties);
+    }
+
+    /**
+     * 启动轮询
+     */
+    public synchronized void start() {
+        if (pollExecutor != null) {
+            return;
+        }
+        pollExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("email-bounce-").setDaemon(true).build());
+        pollExecutor.scheduleWithFixedDelay(this::poll, bounce.getPollInterval(), bounce.getPollInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 同步一次退信邮箱
+     *
+     * @return int 本次处理的邮件数
+     */
+    public synchronized int poll() {
+
+        Store store = null;
+        Folder folder = null;
+        List<String> retained = null;
+        int processed = 0;
+        try {
+            store = session.getStore(protocol);
+            store.connect(pop3.getPopHost(), bounce.getPort(), pop3.getPopUsername(), pop3.getPopPassword());
+            folder = store.getFolder(bounce.getFolder());
+            folder.open(bounce.getDelete() ? Folder.READ_WRITE : Folder.READ_ONLY);
+
+            Message[] messages = folder.getMessages();
+            FetchProfile fetchProfile = new FetchProfile();
+            fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+            folder.fetch(messages, fetchProfile);
+
+            List<Message> unseen = new ArrayList<>();
+            List<String> uidls = new ArrayList<>();
+            retained = new ArrayList<>();
+            for (Message message : messages) {
+                String uidl = ((POP3Folder) folder).getUID(message);
+                if (uidl == null || uidlStore.contains(uidl)) {
+                    if (uidl != null) {
+                        retained.add(uidl);
+                    }
+                    continue;
+                }
+                unseen.add(message);
+                uidls.add(uidl);
+            }
+
+            for (int i = 0; i < unseen.size(); i++) {
+                Message message = unseen.get(i);
+                try {
+                    handle(message);
+                    if (bounce.getDelete()) {
+                        message.setFlag(Flags.Flag.DELETED, Boolean.TRUE);
+                    }
+                    processed++;
+                } catch (FolderClosedException | StoreClosedException e) {
+                    throw e;
+                } catch (MessagingException | IOException e) {
+                    // 邮件本身无法读取, 重试也不会成功, 保留在服务器上并记录为已处理
+                    logger.warn("poll skip message {}: {}", uidls.get(i), e.getMessage());
+                }
+                retained.add(uidls.get(i));
+            }
+        } catch (MessagingException e) {
+            logger.error("poll {}", e.getMessage());
+        } finally {
+            if (retained != null) {
+                uidlStore.retain(retained);
+                uidlStore.save();
+            }
+            close(folder, store);
+        }
+
+        if (processed > 0) {
+            logger.info("poll processed {} bounce messages", processed);
+        }
+        return processed;
+    }
+
+    /**
+     * 解析退信
+     *
+     * @param message 邮件
+     * @throws MessagingException 邮件异常
+     * @throws IOException        读取异常
+     */
+    private void handle(Message message) throws MessagingException, IOException {
+
+        DsnParser parser = new DsnParser();
+        message.writeTo(parser);
+        parser.close();
+
+        if (!isSent(parser.getMessageId())) {
+            logger.info("handle ignore bounce of message {} not sent by this system", parser.getMessageId());
+            return;
+        }
+        for (Bounce item : parser.getBounces()) {
+            if (!StrUtil.equalsIgnoreCase(item.getAction(), "failed")) {
+                continue;
+            }
+            if (item.isHard()) {
+                suppressionList.add(item.getRecipient());
+                logger.info("handle suppress {} {} {}", item.getRecipient(), item.getStatus(), item.getDiagnostic());
+            }
+            if (emailTemplate != null) {
+                emailTemplate.publish(EmailEvent.bounced(item.getMessageId(), item.getRecipient(),
+                        StrUtil.join(" ", item.getStatus(), StrUtil.nullToEmpty(item.getDiagnostic())).trim()));
+            }
+        }
+    }
+
+    /**
+     * 是否为本系统发送的邮件
+     *
+     * @param messageId 原邮件 Message-ID
+     * @return boolean 是否为本系统发送
+     */
+    private boolean isSent(String messageId) {
+        return messageId != null && StrUtil.endWithIgnoreCase(messageId.trim(), messageIdSuffix);
+    }
+
+    /**
+     * 本系统生成的 Message-ID 后缀
+     * <p>
+     * 发送时由 javax.mail 生成 Message-ID, 形如 &lt;唯一值.JavaMail.发件人&gt;, 以相同的发件人生成一个并取 "JavaMail." 之后的部分
+     *
+     * @param emailProperties 电子邮件属性
+     * @return {@link String} Message-ID 后缀
+     */
+    static String messageIdSuffix(EmailProperties emailProperties) {
+
+        Properties properties = new Properties();
+        if (StrUtil.isNotBlank(emailProperties.getFrom().getEmail())) {
+            properties.setProperty(EmailConstants.MAIL_FROM, emailProperties.getFrom().getEmail());
+        }
+        try {
+            String messageId = new SampleMessage(Session.getInstance(properties)).generateMessageId();
+            return StrUtil.contains(messageId, ".JavaMail.")
+                    ? StrUtil.subAfter(messageId, ".JavaMail.", false) : StrUtil.subAfter(messageId, '@', true);
+        } catch (MessagingException e) {
+            throw new MailException(e, "Failed to generate Message-ID");
+        }
+    }
+
+    private void close(Folder folder, Store store) {
+        try {
+            if (folder != null && folder.isOpen()) {
+                folder.close(bounce.getDelete());
+            }
+            if (store != null) {
+                store.close();
+            }
+        } catch (MessagingException e) {
+            logger.warn("close {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 停止轮询
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService executor = pollExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 仅用于生成 Message-ID
+     */
+    private static class SampleMessage extends MimeMessage {
+
+        private SampleMessage(Session session) {
+            super(session);
+        }
+
+        private String generateMessageId() throws MessagingException {
+            updateMessageID();
+            return getMessageID();
+        }
+    }
+
+}
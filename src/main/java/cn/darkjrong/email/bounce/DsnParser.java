@@ -0,0 +1,243 @@
+package cn.darkjrong.email.bounce;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * DSN 解析(RFC 3464), 邮件内容边写入边按行解析, 不保存邮件
+ * <p>
+ * 仅识别 multipart 结构、message/delivery-status 中每个收件人的字段, 以及 text/rfc822-headers
+ * 或 message/rfc822 中原邮件的 Message-ID, 其余内容直接丢弃
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 22:14:35
+ */
+public class DsnParser extends OutputStream {
+
+    private static final int MAX_LINE = 4096;
+    private static final int MAX_BOUNDARIES = 8;
+
+    private enum State {HEADERS, BODY}
+
+    private final byte[] line = new byte[MAX_LINE];
+    private int length;
+    private boolean lastCr;
+
+    private final Deque<String> boundaries = new ArrayDeque<>();
+    private State state = State.HEADERS;
+    private String contentType = "text/plain";
+    private String partType = "text/plain";
+    private String header;
+
+    /**
+     * 当前 delivery-status 字段组, 空行结束
+     */
+    private final Map<String, String> fields = new HashMap<>();
+    private String field;
+    private boolean originalHeaders;
+
+    private final List<Bounce> bounces = new ArrayList<>();
+    private String messageId;
+
+    @Override
+    public void write(int b) {
+        if (b == '\n') {
+            endLine();
+            return;
+        }
+        if (lastCr) {
+            endLine();
+        }
+        lastCr = b == '\r';
+        if (!lastCr && length < MAX_LINE) {
+            line[length++] = (byte) b;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            write(b[i]);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (length > 0 || lastCr) {
+            endLine();
+        }
+        endHeader();
+        endFields();
+    }
+
+    /**
+     * 解析出的退信, 需先 {@link #close()}
+     *
+     * @return {@link List} 退信
+     */
+    public List<Bounce> getBounces() {
+        for (Bounce bounce : bounces) {
+            bounce.setMessageId(messageId);
+        }
+        return bounces;
+    }
+
+    /**
+     * 原邮件消息ID
+     *
+     * @return {@link String} 消息ID, 未找到时为 null
+     */
+    public String getMessageId() {
+        return messageId;
+    }
+
+    private void endLine() {
+        String text = new String(line, 0, length, StandardCharsets.ISO_8859_1);
+        length = 0;
+        lastCr = false;
+
+        if (text.startsWith("--") && !boundaries.isEmpty()) {
+            for (String boundary : boundaries) {
+                if (text.startsWith(boundary, 2) && isDelimiter(text, 2 + boundary.length())) {
+                    boolean last = text.startsWith("--", 2 + boundary.length());
+                    endHeader();
+                    endFields();
+                    while (!boundary.equals(boundaries.peek())) {
+                        boundaries.pop();
+                    }
+                    if (last) {
+                        boundaries.pop();
+                        state = State.BODY;
+                        partType = "text/plain";
+                    } else {
+                        state = State.HEADERS;
+                        contentType = "text/plain";
+                    }
+                    return;
+                }
+            }
+        }
+
+        if (State.HEADERS.equals(state)) {
+            headerLine(text);
+        } else if (isDeliveryStatus(partType)) {
+            statusLine(text);
+        } else if (originalHeaders) {
+            originalLine(text);
+        }
+    }
+
+    private void headerLine(String text) {
+
+        if (text.isEmpty()) {
+            endHeader();
+            state = State.BODY;
+            partType = contentType;
+            originalHeaders = "text/rfc822-headers".equals(partType) || "message/rfc822".equals(partType);
+            return;
+        }
+        if (isFolded(text) && header != null) {
+            header = header + " " + text.trim();
+            return;
+        }
+        endHeader();
+        header = text;
+    }
+
+    private void endHeader() {
+
+        if (header == null) {
+            return;
+        }
+        String name = StrUtil.subBefore(header, ':', false).trim();
+        if ("Content-Type".equalsIgnoreCase(name)) {
+            String value = StrUtil.subAfter(header, ':', false);
+            contentType = StrUtil.subBefore(value, ';', false).trim().toLowerCase();
+            String boundary = parameter(value, "boundary");
+            if (contentType.startsWith("multipart/") && StrUtil.isNotEmpty(boundary) && boundaries.size() < MAX_BOUNDARIES) {
+                boundaries.push(boundary);
+            }
+        }
+        header = null;
+    }
+
+    private void statusLine(String text) {
+
+        if (text.trim().isEmpty()) {
+            endFields();
+            return;
+        }
+        if (isFolded(text) && field != null) {
+            fields.computeIfPresent(field, (name, value) -> value + " " + text.trim());
+            return;
+        }
+        int colon = text.indexOf(':');
+        if (colon > 0) {
+            field = text.substring(0, colon).trim().toLowerCase();
+            fields.put(field, text.substring(colon + 1).trim());
+        }
+    }
+
+    private void endFields() {
+
+        String recipient = StrUtil.blankToDefault(fields.get("final-recipient"), fields.get("original-recipient"));
+        if (recipient != null) {
+            Bounce bounce = new Bounce();
+            bounce.setRecipient(address(recipient));
+            bounce.setAction(StrUtil.trimToEmpty(fields.get("action")).toLowerCase());
+            bounce.setStatus(StrUtil.subBefore(StrUtil.trimToEmpty(fields.get("status")), ' ', false));
+            bounce.setDiagnostic(fields.get("diagnostic-code"));
+            bounces.add(bounce);
+        }
+        fields.clear();
+        field = null;
+    }
+
+    private void originalLine(String text) {
+
+        if (text.isEmpty()) {
+            originalHeaders = false;
+            return;
+        }
+        if (messageId == null && StrUtil.startWithIgnoreCase(text, "Message-ID:")) {
+            messageId = StrUtil.subAfter(text, ':', false).trim();
+        }
+    }
+
+    /**
+     * 去掉地址类型, "rfc822; user@example.com" 返回 user@example.com
+     */
+    private static String address(String value) {
+        String address = value.indexOf(';') >= 0 ? StrUtil.subAfter(value, ';', false) : value;
+        return StrUtil.strip(address.trim(), "<", ">").toLowerCase();
+    }
+
+    private static String parameter(String value, String name) {
+        for (String parameter : StrUtil.split(value, ';')) {
+            String key = StrUtil.subBefore(parameter, '=', false).trim();
+            if (name.equalsIgnoreCase(key)) {
+                return StrUtil.strip(StrUtil.subAfter(parameter, '=', false).trim(), "\"");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 分隔线在 boundary 之后只能是 "--" 或空白
+     */
+    private static boolean isDelimiter(String text, int end) {
+        return text.length() == end || text.startsWith("--", end) || StrUtil.isBlank(text.substring(end));
+    }
+
+    private static boolean isFolded(String text) {
+        return !text.isEmpty() && (text.charAt(0) == ' ' || text.charAt(0) == '\t');
+    }
+
+    private static boolean isDeliveryStatus(String type) {
+        return "message/delivery-status".equals(type) || "message/global-delivery-status".equals(type);
+    }
+
+}
@@ -0,0 +1,112 @@
+package cn.darkjrong.email.bounce;
+
+import cn.darkjrong.email.exception.MailException;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.hash.MurmurHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 已处理的 UIDL 集合
+ * <p>
+ * 只保存 UIDL 的 64 位哈希, 排序后二分查找, 每个 UIDL 占 8 字节; 每次同步后仅保留服务器上仍存在的 UIDL,
+ * 集合大小不超过邮箱中的邮件数. 文件为哈希的定长数组, 写临时文件后替换
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 22:31:06
+ */
+public class UidlStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(UidlStore.class);
+
+    private final File file;
+    private long[] hashes;
+
+    public UidlStore(File file) {
+        this.file = file;
+        this.hashes = load(file);
+    }
+
+    /**
+     * 是否已处理
+     *
+     * @param uidl UIDL
+     * @return boolean 是否已处理
+     */
+    public boolean contains(String uidl) {
+        return Arrays.binarySearch(hashes, hash(uidl)) >= 0;
+    }
+
+    /**
+     * 替换为本次同步后已处理的 UIDL
+     *
+     * @param uidls 服务器上仍存在且已处理的 UIDL
+     */
+    public void retain(Collection<String> uidls) {
+        long[] retained = new long[uidls.size()];
+        int i = 0;
+        for (String uidl : uidls) {
+            retained[i++] = hash(uidl);
+        }
+        Arrays.sort(retained);
+        hashes = retained;
+    }
+
+    /**
+     * 保存到文件
+     */
+    public void save() {
+
+        File temp = new File(file.getAbsolutePath() + ".tmp");
+        FileUtil.mkParentDirs(file);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            for (long hash : hashes) {
+                out.writeLong(hash);
+            }
+        } catch (IOException e) {
+            logger.error("save {}", e.getMessage());
+            throw new MailException(e, "Failed to save UIDL file {}", file);
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("save {}", e.getMessage());
+            throw new MailException(e, "Failed to save UIDL file {}", file);
+        }
+    }
+
+    public int size() {
+        return hashes.length;
+    }
+
+    private static long hash(String uidl) {
+        return MurmurHash.hash64(uidl);
+    }
+
+    private static long[] load(File file) {
+
+        if (!file.isFile()) {
+            return new long[0];
+        }
+
+        long[] hashes = new long[(int) (file.length() / Long.BYTES)];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = in.readLong();
+            }
+        } catch (IOException e) {
+            logger.error("load {}", e.getMessage());
+            return new long[0];
+        }
+        Arrays.sort(hashes);
+        return hashes;
+    }
+
+}
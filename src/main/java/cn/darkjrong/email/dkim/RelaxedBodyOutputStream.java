@@ -0,0 +1,121 @@
+package cn.darkjrong.email.dkim;
+
+import java.io.OutputStream;
+import java.security.MessageDigest;
+
+/**
+ * 按 RFC 6376 relaxed 规则规范化邮件正文并计算摘要
+ * <p>
+ * 跳过 {@link javax.mail.internet.MimeMessage#writeTo(OutputStream)} 输出的邮件头, 正文边写入边计算,
+ * 不缓存正文; 单独的 CR、LF 与 SMTP 传输时一样视为换行
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 16:12:44
+ */
+class RelaxedBodyOutputStream extends OutputStream {
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte SP = ' ';
+    private static final byte TAB = '\t';
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+
+    /**
+     * 已匹配的邮件头结束标记(CRLFCRLF)长度, 为 4 时进入正文
+     */
+    private int headerEnd;
+    private boolean lastCr;
+    private boolean pendingSpace;
+    private boolean lineContent;
+    private int emptyLines;
+
+    RelaxedBodyOutputStream(MessageDigest digest) {
+        this.digest = digest;
+    }
+
+    @Override
+    public void write(int b) {
+        if (headerEnd < 4) {
+            skipHeader((byte) b);
+        } else {
+            canonicalize((byte) b);
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            write(bytes[i]);
+        }
+    }
+
+    /**
+     * 完成摘要, 缺少结尾换行时补齐, 末尾的空行忽略
+     *
+     * @return byte[] 正文摘要
+     */
+    byte[] digest() {
+        if (lineContent) {
+            append(CR);
+            append(LF);
+            lineContent = Boolean.FALSE;
+        }
+        digest.update(buffer, 0, position);
+        position = 0;
+        return digest.digest();
+    }
+
+    private void skipHeader(byte b) {
+        boolean expected = (headerEnd % 2 == 0) ? b == CR : b == LF;
+        if (expected) {
+            headerEnd++;
+        } else {
+            headerEnd = b == CR ? 1 : 0;
+        }
+    }
+
+    private void canonicalize(byte b) {
+
+        if (b == LF && lastCr) {
+            lastCr = Boolean.FALSE;
+            return;
+        }
+        lastCr = b == CR;
+
+        if (b == CR || b == LF) {
+            pendingSpace = Boolean.FALSE;
+            if (lineContent) {
+                append(CR);
+                append(LF);
+                lineContent = Boolean.FALSE;
+            } else {
+                emptyLines++;
+            }
+        } else if (b == SP || b == TAB) {
+            pendingSpace = Boolean.TRUE;
+        } else {
+            for (; emptyLines > 0; emptyLines--) {
+                append(CR);
+                append(LF);
+            }
+            if (pendingSpace) {
+                append(SP);
+                pendingSpace = Boolean.FALSE;
+            }
+            append(b);
+            lineContent = Boolean.TRUE;
+        }
+    }
+
+    private void append(byte b) {
+        if (position == buffer.length) {
+            digest.update(buffer, 0, position);
+            position = 0;
+        }
+        buffer[position++] = b;
+    }
+
+}
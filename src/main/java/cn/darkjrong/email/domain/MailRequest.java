@@ -0,0 +1,101 @@
+package cn.darkjrong.email.domain;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 发送请求
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 11:04:12
+ */
+@Data
+public class MailRequest implements Serializable {
+
+    private static final long serialVersionUID = -3470968170420918653L;
+
+    /**
+     * 邮件类型, 默认：TEXT
+     */
+    private MailType type = MailType.TEXT;
+
+    /**
+     * 主题
+     */
+    private String subject;
+
+    /**
+     * 消息, html邮件为超文本标记语言
+     */
+    private String message;
+
+    /**
+     * 附件, 本地路径或在线地址, 仅文件邮件
+     */
+    private String attachment;
+
+    /**
+     * 收件人
+     */
+    private List<EmailTo> toEmails = new ArrayList<>();
+
+    /**
+     * 抄送邮箱
+     */
+    private List<EmailTo> ccEmails = new ArrayList<>();
+
+    /**
+     * 密送邮箱
+     */
+    private List<EmailTo> bccEmails = new ArrayList<>();
+
+    /**
+     * 回复邮箱
+     */
+    private List<EmailTo> replyEmails = new ArrayList<>();
+
+    /**
+     * 发送时间
+     */
+    private Date date;
+
+    /**
+     * 优先级, 默认：NORMAL
+     */
+    private Priority priority = Priority.NORMAL;
+
+    /**
+     * 幂等键, 相同幂等键在有效期内只发送一次, 重复请求返回首次发送的邮件消息ID
+     */
+    private String idempotencyKey;
+
+    /**
+     * 是否压缩附件, 仅本地文件, 不设置时按 email.compression 配置判断
+     */
+    private Boolean compress;
+
+    public MailRequest(MailType type, String subject, String message, String attachment,
+                       List<EmailTo> toEmails, List<EmailTo> ccEmails,
+                       List<EmailTo> bccEmails, List<EmailTo> replyEmails, Date date) {
+        this(type, subject, message, toEmails);
+        this.attachment = attachment;
+        this.ccEmails = ccEmails;
+        this.bccEmails = bccEmails;
+        this.replyEmails = replyEmails;
+        this.date = date;
+    }
+
+    public MailRequest(MailType type, String subject, String message, List<EmailTo> toEmails) {
+        this.type = type;
+        this.subject = subject;
+        this.message = message;
+        this.toEmails = toEmails;
+    }
+
+    public MailRequest() {
+    }
+}
@@ -0,0 +1,22 @@
+package cn.darkjrong.email.domain;
+
+/**
+ * 邮件类型
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 11:02:37
+ */
+public enum MailType {
+
+    // 文本邮件
+    TEXT,
+
+    // html邮件
+    HTML,
+
+    // 文件邮件
+    FILE,
+
+    ;
+
+}
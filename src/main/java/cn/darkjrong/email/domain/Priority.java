@@ -0,0 +1,22 @@
+package cn.darkjrong.email.domain;
+
+/**
+ * 发送优先级
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 13:05:18
+ */
+public enum Priority {
+
+    // 高, 验证码、密码重置等事务邮件, 可使用预留连接
+    HIGH,
+
+    // 普通
+    NORMAL,
+
+    // 低, 营销、批量邮件, 仅使用共享连接
+    LOW,
+
+    ;
+
+}
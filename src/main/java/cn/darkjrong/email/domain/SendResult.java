@@ -0,0 +1,94 @@
+package cn.darkjrong.email.domain;
+
+import cn.hutool.core.util.ObjectUtil;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 发送结果
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 11:08:50
+ */
+@Data
+public class SendResult implements Serializable {
+
+    private static final long serialVersionUID = 5126960365934712245L;
+
+    /**
+     * 发送请求
+     */
+    private MailRequest request;
+
+    /**
+     * 是否成功
+     */
+    private Boolean success;
+
+    /**
+     * 邮件消息ID
+     */
+    private String messageId;
+
+    /**
+     * 是否为重复请求, 重复请求未再次发送
+     */
+    private Boolean duplicate = Boolean.FALSE;
+
+    /**
+     * 失败原因
+     */
+    private String error;
+
+    /**
+     * 地址无效未发送的收件人
+     */
+    private List<String> invalidReceivers = new ArrayList<>();
+
+    /**
+     * 发送成功
+     *
+     * @param request   发送请求
+     * @param messageId 邮件消息ID
+     * @return {@link SendResult} 发送结果
+     */
+    public static SendResult success(MailRequest request, String messageId) {
+        SendResult result = new SendResult();
+        result.setRequest(request);
+        result.setSuccess(Boolean.TRUE);
+        result.setMessageId(messageId);
+        return result;
+    }
+
+    /**
+     * 重复请求
+     *
+     * @param request   发送请求
+     * @param messageId 首次发送的邮件消息ID
+     * @return {@link SendResult} 发送结果
+     */
+    public static SendResult duplicate(MailRequest request, String messageId) {
+        SendResult result = success(request, messageId);
+        result.setDuplicate(Boolean.TRUE);
+        return result;
+    }
+
+    /**
+     * 发送失败
+     *
+     * @param request   发送请求
+     * @param throwable 异常
+     * @return {@link SendResult} 发送结果
+     */
+    public static SendResult failure(MailRequest request, Throwable throwable) {
+        SendResult result = new SendResult();
+        result.setRequest(request);
+        result.setSuccess(Boolean.FALSE);
+        result.setError(ObjectUtil.defaultIfNull(throwable.getMessage(), throwable.getClass().getName()));
+        return result;
+    }
+
+}
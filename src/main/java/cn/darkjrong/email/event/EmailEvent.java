@@ -0,0 +1,100 @@
+package cn.darkjrong.email.event;
+
+import cn.darkjrong.email.domain.MailRequest;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 发送事件
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 21:04:37
+ */
+@Data
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class EmailEvent {
+
+    /**
+     * 事件类型
+     */
+    private final EmailEventType type;
+
+    /**
+     * 发送请求, 退信事件为 null
+     */
+    private final MailRequest request;
+
+    /**
+     * 邮件消息ID
+     */
+    private final String messageId;
+
+    /**
+     * 收件人, 仅退信事件
+     */
+    private final String recipient;
+
+    /**
+     * 失败原因
+     */
+    private final String error;
+
+    /**
+     * 异常, 仅发送失败事件
+     */
+    private final Throwable throwable;
+
+    /**
+     * 事件时间
+     */
+    private final long timestamp;
+
+    /**
+     * 创建事件
+     *
+     * @param type    事件类型
+     * @param request 发送请求
+     * @return {@link EmailEvent} 事件
+     */
+    public static EmailEvent of(EmailEventType type, MailRequest request) {
+        return new EmailEvent(type, request, null, null, null, null, System.currentTimeMillis());
+    }
+
+    /**
+     * 发送成功事件
+     *
+     * @param request   发送请求
+     * @param messageId 邮件消息ID
+     * @return {@link EmailEvent} 事件
+     */
+    public static EmailEvent sent(MailRequest request, String messageId) {
+        return new EmailEvent(EmailEventType.SENT, request, messageId, null, null, null, System.currentTimeMillis());
+    }
+
+    /**
+     * 发送失败事件
+     *
+     * @param type      事件类型, DEFERRED 或 FAILED
+     * @param request   发送请求
+     * @param messageId 邮件消息ID, 构建邮件前失败时为 null
+     * @param throwable 异常
+     * @return {@link EmailEvent} 事件
+     */
+    public static EmailEvent failed(EmailEventType type, MailRequest request, String messageId, Throwable throwable) {
+        return new EmailEvent(type, request, messageId, null, throwable.getMessage(), throwable, System.currentTimeMillis());
+    }
+
+    /**
+     * 退信事件
+     *
+     * @param messageId 原邮件消息ID, 退信中没有时为 null
+     * @param recipient 收件人
+     * @param reason    退信原因
+     * @return {@link EmailEvent} 事件
+     */
+    public static EmailEvent bounced(String messageId, String recipient, String reason) {
+        return new EmailEvent(EmailEventType.BOUNCED, null, messageId, recipient, reason, null, System.currentTimeMillis());
+    }
+
+}
@@ -0,0 +1,176 @@
+package cn.darkjrong.email.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 事件分发
+ * <p>
+ * 发布方写入无锁环形缓冲区(多生产者、单消费者), 由单个分发线程回调监听器. 缓冲区满时丢弃事件并计数,
+ * 发送线程不会因监听器变慢而等待. 没有监听器时不发布、不启动分发线程
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 21:15:26
+ */
+public class EmailEventDispatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailEventDispatcher.class);
+
+    private static final long IDLE_PARK = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int mask;
+    private final AtomicReferenceArray<EmailEvent> events;
+
+    /**
+     * 槽位序号: 等于写入位置时可写, 等于写入位置 + 1 时可读
+     */
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final List<EmailListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Thread consumer;
+    private volatile boolean waiting;
+    private volatile boolean closed = Boolean.FALSE;
+
+    /**
+     * @param bufferSize 缓冲区大小, 向上取整为 2 的幂
+     */
+    public EmailEventDispatcher(int bufferSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.mask = capacity - 1;
+        this.events = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 添加监听器, 首次添加时启动分发线程
+     *
+     * @param listener 监听器
+     */
+    public synchronized void addListener(EmailListener listener) {
+        listeners.add(listener);
+        if (consumer == null && !closed) {
+            Thread thread = new Thread(this::dispatch, "email-event");
+            thread.setDaemon(Boolean.TRUE);
+            consumer = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * 发布事件, 不阻塞
+     *
+     * @param event 事件
+     * @return boolean 是否写入缓冲区, 无监听器或缓冲区满时为 false
+     */
+    public boolean publish(EmailEvent event) {
+
+        if (listeners.isEmpty() || closed) {
+            return Boolean.FALSE;
+        }
+
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                dropped.incrementAndGet();
+                return Boolean.FALSE;
+            }
+        }
+
+        events.lazySet(index, event);
+        sequences.set(index, position + 1);
+
+        if (waiting) {
+            LockSupport.unpark(consumer);
+        }
+        return Boolean.TRUE;
+    }
+
+    private void dispatch() {
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                if (closed) {
+                    return;
+                }
+                waiting = Boolean.TRUE;
+                if (sequences.get(index) != head + 1) {
+                    LockSupport.parkNanos(this, IDLE_PARK);
+                }
+                waiting = Boolean.FALSE;
+                continue;
+            }
+
+            EmailEvent event = events.get(index);
+            events.lazySet(index, null);
+            sequences.set(index, head + mask + 1);
+            head++;
+
+            for (EmailListener listener : listeners) {
+                try {
+                    listener.onEvent(event);
+                } catch (Exception e) {
+                    logger.error("dispatch {} {}", event.getType(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 缓冲区满被丢弃的事件数
+     *
+     * @return long 事件数
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * 待分发的事件数
+     *
+     * @return long 事件数
+     */
+    public long getPending() {
+        return tail.get() - head;
+    }
+
+    /**
+     * 关闭, 已发布的事件分发完成后分发线程退出
+     */
+    @Override
+    public void close() {
+        closed = Boolean.TRUE;
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package cn.darkjrong.email.event;
+
+/**
+ * 发送事件类型
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 21:02:14
+ */
+public enum EmailEventType {
+
+    // 已进入异步发送队列
+    QUEUED,
+
+    // 开始发送
+    SENDING,
+
+    // 服务器已接收
+    SENT,
+
+    // 暂时失败(4xx 或连接失败), 可稍后重试
+    DEFERRED,
+
+    // 永久失败
+    FAILED,
+
+    // 收到退信
+    BOUNCED,
+
+    ;
+
+}
@@ -0,0 +1,61 @@
+package cn.darkjrong.email.event;
+
+/**
+ * 发送事件监听器, 注册为 bean 后自动生效
+ * <p>
+ * 事件在独立线程中按发布顺序回调, 不占用发送线程; 监听器抛出的异常仅输出日志
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 21:08:52
+ */
+public interface EmailListener {
+
+    /**
+     * 接收事件, 默认按类型分发
+     *
+     * @param event 事件
+     */
+    default void onEvent(EmailEvent event) {
+        switch (event.getType()) {
+            case QUEUED:
+                onQueued(event);
+                break;
+            case SENDING:
+                onSending(event);
+                break;
+            case SENT:
+                onSent(event);
+                break;
+            case DEFERRED:
+                onDeferred(event);
+                break;
+            case FAILED:
+                onFailed(event);
+                break;
+            case BOUNCED:
+                onBounced(event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    default void onQueued(EmailEvent event) {
+    }
+
+    default void onSending(EmailEvent event) {
+    }
+
+    default void onSent(EmailEvent event) {
+    }
+
+    default void onDeferred(EmailEvent event) {
+    }
+
+    default void onFailed(EmailEvent event) {
+    }
+
+    default void onBounced(EmailEvent event) {
+    }
+
+}
@@ -32,9 +32,15 @@ public enum ExceptionEnum {
     // 属性不能为空
     THE_PROPERTY_CANNOT_BE_EMPTY("'%s' cannot be empty"),
 
+    // 属性必须大于0
+    THE_PROPERTY_MUST_BE_POSITIVE("'%s' must be greater than 0"),
+
     // 邮箱账号信息不能为空
     THE_EMAIL_ACCOUNT_INFORMATION_CANNOT_BE_EMPTY("The email account information cannot be empty"),
 
+    // 发送请求不能为空
+    THE_REQUEST_CANNOT_BE_EMPTY("The request cannot be empty"),
+
 
 
 
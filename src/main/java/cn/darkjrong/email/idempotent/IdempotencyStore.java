@@ -0,0 +1,37 @@
+package cn.darkjrong.email.idempotent;
+
+/**
+ * 幂等键存储
+ * <p>
+ * 默认使用 {@link MemoryIdempotencyStore}, 需要跨重启、跨节点去重时注册自定义实现的 bean (如 Redis、数据库)
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 14:02:51
+ */
+public interface IdempotencyStore {
+
+    /**
+     * 查询幂等键对应的邮件消息ID
+     *
+     * @param key 幂等键
+     * @return {@link String} 邮件消息ID, 不存在或已过期时返回 null
+     */
+    String get(String key);
+
+    /**
+     * 幂等键不存在时保存
+     *
+     * @param key       幂等键
+     * @param messageId 邮件消息ID
+     * @return {@link String} 已存在的邮件消息ID, 保存成功时返回 null
+     */
+    String putIfAbsent(String key, String messageId);
+
+    /**
+     * 删除幂等键, 邮件确定未发出时调用, 以便重试
+     *
+     * @param key 幂等键
+     */
+    void remove(String key);
+
+}
@@ -0,0 +1,168 @@
+package cn.darkjrong.email.idempotent;
+
+import cn.darkjrong.email.exception.ExceptionEnum;
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.lang.hash.MurmurHash;
+
+/**
+ * 内存幂等键存储
+ * <p>
+ * 仅保存幂等键的64位哈希: 按写入顺序存放于环形数组, 写入顺序即过期顺序, 过期或超出容量时从最旧的一端淘汰;
+ * 开放寻址索引表保存环形数组下标, 不产生装箱对象
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 14:10:36
+ */
+public class MemoryIdempotencyStore implements IdempotencyStore {
+
+    private final long window;
+    private final int capacity;
+
+    private final long[] hashes;
+    private final long[] expireTimes;
+    private final String[] messageIds;
+    private int head;
+    private int count;
+
+    private final int[] table;
+    private final int mask;
+
+    /**
+     * @param capacity 最大保存数, 大于 0
+     * @param window   保存时间(毫秒)
+     */
+    public MemoryIdempotencyStore(int capacity, long window) {
+        Assert.isTrue(capacity > 0, String.format(ExceptionEnum.THE_PROPERTY_MUST_BE_POSITIVE.getValue(), "idempotency.capacity"));
+        this.capacity = capacity;
+        this.window = window;
+        this.hashes = new long[capacity];
+        this.expireTimes = new long[capacity];
+        this.messageIds = new String[capacity];
+
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) << 1;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    @Override
+    public synchronized String get(String key) {
+        evictExpired(System.currentTimeMillis());
+        int slot = find(hash(key));
+        return slot < 0 ? null : messageIds[table[slot] - 1];
+    }
+
+    @Override
+    public synchronized String putIfAbsent(String key, String messageId) {
+
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+
+        long hash = hash(key);
+        int slot = find(hash);
+        if (slot >= 0) {
+            return messageIds[table[slot] - 1];
+        }
+
+        if (count == capacity) {
+            evictHead();
+        }
+
+        int position = (head + count) % capacity;
+        hashes[position] = hash;
+        expireTimes[position] = now + window;
+        messageIds[position] = messageId;
+        count++;
+
+        slot = (int) hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position + 1;
+        return null;
+    }
+
+    @Override
+    public synchronized void remove(String key) {
+        int slot = find(hash(key));
+        if (slot >= 0) {
+            int position = table[slot] - 1;
+            messageIds[position] = null;
+            delete(slot);
+        }
+    }
+
+    /**
+     * 当前保存数
+     *
+     * @return int 保存数
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * 查找哈希所在的索引槽
+     *
+     * @param hash 哈希
+     * @return int 索引槽, 不存在时返回 -1
+     */
+    private int find(long hash) {
+        int slot = (int) hash & mask;
+        int position;
+        while ((position = table[slot]) != 0) {
+            if (hashes[position - 1] == hash) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void evictExpired(long now) {
+        while (count > 0 && expireTimes[head] <= now) {
+            evictHead();
+        }
+    }
+
+    /**
+     * 淘汰最旧的记录, 已被删除的记录只需移动头指针
+     */
+    private void evictHead() {
+        if (messageIds[head] != null) {
+            int slot = find(hashes[head]);
+            if (slot >= 0 && table[slot] - 1 == head) {
+                delete(slot);
+            }
+        }
+        hashes[head] = 0L;
+        messageIds[head] = null;
+        head = (head + 1) % capacity;
+        count--;
+    }
+
+    /**
+     * 删除索引槽, 后移删除法保持线性探测链完整
+     *
+     * @param slot 索引槽
+     */
+    private void delete(int slot) {
+        table[slot] = 0;
+        int next = (slot + 1) & mask;
+        while (table[next] != 0) {
+            int position = table[next] - 1;
+            int home = (int) hashes[position] & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                table[slot] = table[next];
+                table[next] = 0;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private static long hash(String key) {
+        long hash = MurmurHash.hash64(key);
+        return hash == 0L ? 1L : hash;
+    }
+
+}
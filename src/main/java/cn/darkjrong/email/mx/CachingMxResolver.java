@@ -0,0 +1,70 @@
+package cn.darkjrong.email.mx;
+
+import javax.mail.MessagingException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存 MX 记录的解析器
+ * <p>
+ * 缓存时间取记录中最小的 TTL, 且不超过配置的上限; 解析失败不缓存
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 18:03:12
+ */
+public class CachingMxResolver implements MxResolver {
+
+    private static final int MAX_ENTRIES = 10000;
+
+    private final MxResolver delegate;
+    private final long maxTtl;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate 解析器
+     * @param maxTtl   最长缓存时间(毫秒)
+     */
+    public CachingMxResolver(MxResolver delegate, long maxTtl) {
+        this.delegate = delegate;
+        this.maxTtl = maxTtl;
+    }
+
+    @Override
+    public List<MxRecord> resolve(String domain) throws MessagingException {
+
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(domain);
+        if (entry != null && entry.expireTime > now) {
+            return entry.records;
+        }
+
+        List<MxRecord> records = delegate.resolve(domain);
+
+        long ttl = maxTtl;
+        for (MxRecord record : records) {
+            ttl = Math.min(ttl, record.getTtl());
+        }
+
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.values().removeIf(cached -> cached.expireTime <= now);
+        }
+        if (ttl > 0 && cache.size() < MAX_ENTRIES) {
+            cache.put(domain, new Entry(records, now + ttl));
+        }
+        return records;
+    }
+
+    private static class Entry {
+
+        private final List<MxRecord> records;
+        private final long expireTime;
+
+        Entry(List<MxRecord> records, long expireTime) {
+            this.records = records;
+            this.expireTime = expireTime;
+        }
+
+    }
+
+}
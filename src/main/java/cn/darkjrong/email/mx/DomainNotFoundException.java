@@ -0,0 +1,23 @@
+package cn.darkjrong.email.mx;
+
+import javax.mail.MessagingException;
+
+/**
+ * 域名不存在或声明不接收邮件(null MX), 区别于 DNS 查询失败
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 23:52:16
+ */
+public class DomainNotFoundException extends MessagingException {
+
+    private static final long serialVersionUID = -4417383520194386652L;
+
+    public DomainNotFoundException(String message) {
+        super(message);
+    }
+
+    public DomainNotFoundException(String message, Exception cause) {
+        super(message, cause);
+    }
+
+}
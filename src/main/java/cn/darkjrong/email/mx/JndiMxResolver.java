@@ -0,0 +1,85 @@
+package cn.darkjrong.email.mx;
+
+import cn.hutool.core.util.StrUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.MessagingException;
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * 基于 JNDI DNS 的 MX 记录解析器
+ * <p>
+ * JNDI 不返回记录的 TTL, 统一使用配置的有效期; 域名没有 MX 记录时按 RFC 5321 使用域名本身
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 17:58:44
+ */
+public class JndiMxResolver implements MxResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(JndiMxResolver.class);
+
+    private static final String MX = "MX";
+
+    private final long ttl;
+
+    /**
+     * @param ttl 记录有效期(毫秒)
+     */
+    public JndiMxResolver(long ttl) {
+        this.ttl = ttl;
+    }
+
+    @Override
+    public List<MxRecord> resolve(String domain) throws MessagingException {
+
+        Hashtable<String, String> environment = new Hashtable<>();
+        environment.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.dns.DnsContextFactory");
+        environment.put(Context.PROVIDER_URL, "dns:");
+
+        DirContext context = null;
+        try {
+            context = new InitialDirContext(environment);
+            Attribute attribute = context.getAttributes(domain, new String[]{MX}).get(MX);
+            if (attribute == null || attribute.size() == 0) {
+                return Collections.singletonList(new MxRecord(domain, 0, ttl));
+            }
+
+            List<MxRecord> records = new ArrayList<>(attribute.size());
+            NamingEnumeration<?> values = attribute.getAll();
+            while (values.hasMore()) {
+                String[] parts = StrUtil.trim(String.valueOf(values.next())).split("\\s+");
+                String host = StrUtil.removeSuffix(parts[1], StrUtil.DOT);
+                if (StrUtil.isBlank(host)) {
+                    throw new DomainNotFoundException("Domain " + domain + " does not accept mail");
+                }
+                records.add(new MxRecord(host, Integer.parseInt(parts[0]), ttl));
+            }
+            return records;
+        } catch (NameNotFoundException e) {
+            throw new DomainNotFoundException("Domain " + domain + " does not exist", e);
+        } catch (NamingException | RuntimeException e) {
+            logger.error("resolve {} {}", domain, e.getMessage());
+            throw new MessagingException("MX lookup failed for " + domain, e);
+        } finally {
+            if (context != null) {
+                try {
+                    context.close();
+                } catch (NamingException e) {
+                    logger.warn("close {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package cn.darkjrong.email.mx;
+
+/**
+ * MX 记录
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 17:52:06
+ */
+public class MxRecord {
+
+    /**
+     * 邮件服务器地址
+     */
+    private final String host;
+
+    /**
+     * 优先级, 越小越优先
+     */
+    private final int preference;
+
+    /**
+     * 有效期(毫秒)
+     */
+    private final long ttl;
+
+    public MxRecord(String host, int preference, long ttl) {
+        this.host = host;
+        this.preference = preference;
+        this.ttl = ttl;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPreference() {
+        return preference;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    @Override
+    public String toString() {
+        return preference + " " + host;
+    }
+
+}
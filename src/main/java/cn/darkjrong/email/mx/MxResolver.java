@@ -0,0 +1,26 @@
+package cn.darkjrong.email.mx;
+
+import javax.mail.MessagingException;
+import java.util.List;
+
+/**
+ * MX 记录解析器
+ * <p>
+ * 默认使用 {@link JndiMxResolver}, 注册自定义实现的 bean 可替换, 如测试时返回本地服务器
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 17:54:31
+ */
+@FunctionalInterface
+public interface MxResolver {
+
+    /**
+     * 解析域名的 MX 记录
+     *
+     * @param domain 收件人域名
+     * @return {@link List} MX 记录, 不为空
+     * @throws MessagingException 解析失败或域名不接收邮件
+     */
+    List<MxRecord> resolve(String domain) throws MessagingException;
+
+}
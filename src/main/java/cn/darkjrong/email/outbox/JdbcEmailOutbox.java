@@ -0,0 +1,253 @@
+package cn.darkjrong.email.outbox;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.SendResult;
+import cn.darkjrong.email.exception.ExceptionEnum;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC 事务发件箱
+ * <p>
+ * {@link #enqueue(MailRequest)} 使用调用方当前的 Spring 事务写入发件箱, 事务提交后邮件才可见;
+ * 轮询线程按批次认领记录并通过连接池发送, 每次认领生成新的租约令牌写入 owner, 租约有效期内每条记录只会被一个节点认领.
+ * 开始发送前以令牌续租, 租约已过期或已被重新认领的记录不再发送; 重新调度只由持有当前令牌的节点执行,
+ * 发送成功则无论租约是否过期都记为已发送.
+ * <p>
+ * 投递语义为至少一次: 单次发送耗时超过租约时, 记录可能被其他节点重新认领并再次发送, 租约应大于发送超时
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 15:10:48
+ */
+public class JdbcEmailOutbox implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcEmailOutbox.class);
+
+    private static final String NEW = "NEW";
+    private static final String SENDING = "SENDING";
+    private static final String SENT = "SENT";
+    private static final String FAILED = "FAILED";
+    private static final int ERROR_LENGTH = 1000;
+
+    private final EmailTemplate emailTemplate;
+    private final EmailProperties.Outbox outbox;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String insertSql;
+    private final String candidateSql;
+    private final String lockSql;
+    private final String claimSql;
+    private final String loadSql;
+    private final String renewSql;
+    private final String sentSql;
+    private final String lateSentSql;
+    private final String retrySql;
+
+    private final ExecutorService sendExecutor;
+    private ScheduledExecutorService pollExecutor;
+
+    public JdbcEmailOutbox(EmailTemplate emailTemplate, DataSource dataSource, EmailProperties.Outbox outbox) {
+        this.emailTemplate = emailTemplate;
+        this.outbox = outbox;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.sendExecutor = Executors.newFixedThreadPool(outbox.getConcurrency(),
+                ThreadFactoryBuilder.create().setNamePrefix("email-outbox-send-").setDaemon(true).build());
+
+        String table = outbox.getTable();
+        this.insertSql = StrUtil.format("INSERT INTO {} (payload, status, attempts, available_time, created_time) VALUES (?, ?, 0, ?, ?)", table);
+        this.candidateSql = StrUtil.format("SELECT id FROM {} WHERE status IN (?, ?) AND available_time <= ? ORDER BY id LIMIT ?", table);
+        this.lockSql = candidateSql + " FOR UPDATE SKIP LOCKED";
+        this.claimSql = StrUtil.format("UPDATE {} SET status = ?, owner = ?, available_time = ?, attempts = attempts + 1, updated_time = ? "
+                + "WHERE id = ? AND status IN (?, ?) AND available_time <= ?", table);
+        this.loadSql = StrUtil.format("SELECT id, payload FROM {} WHERE owner = ? AND status = ? AND id IN (", table);
+        this.renewSql = StrUtil.format("UPDATE {} SET available_time = ?, updated_time = ? "
+                + "WHERE id = ? AND owner = ? AND status = ? AND available_time > ?", table);
+        this.sentSql = StrUtil.format("UPDATE {} SET status = ?, message_id = ?, updated_time = ? WHERE id = ? AND owner = ?", table);
+        this.lateSentSql = StrUtil.format("UPDATE {} SET status = ?, message_id = ?, updated_time = ? WHERE id = ? AND status <> ?", table);
+        this.retrySql = StrUtil.format("UPDATE {} SET status = CASE WHEN attempts >= ? THEN ? ELSE ? END, available_time = ?, "
+                + "last_error = ?, updated_time = ? WHERE id = ? AND owner = ?", table);
+    }
+
+    /**
+     * 写入发件箱, 参与调用方当前的事务
+     *
+     * @param request 发送请求
+     */
+    public void enqueue(MailRequest request) {
+        Assert.notNull(request, ExceptionEnum.THE_REQUEST_CANNOT_BE_EMPTY.getValue());
+        long now = System.currentTimeMillis();
+        jdbcTemplate.update(insertSql, ObjectUtil.serialize(request), NEW, now, now);
+    }
+
+    /**
+     * 启动轮询
+     */
+    public synchronized void start() {
+        if (pollExecutor != null) {
+            return;
+        }
+        pollExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("email-outbox-poll-").setDaemon(true).build());
+        pollExecutor.scheduleWithFixedDelay(this::drain, outbox.getPollInterval(), outbox.getPollInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 持续处理, 直到认领不满一个批次
+     */
+    private void drain() {
+        try {
+            while (poll() >= outbox.getBatchSize()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("drain {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 认领并发送一个批次
+     *
+     * @return int 认领的记录数
+     */
+    public int poll() {
+
+        String token = IdUtil.fastSimpleUUID();
+        List<Long> ids = claim(token);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String sql = ids.stream().map(id -> "?").collect(Collectors.joining(", ", loadSql, ")"));
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(token);
+        args.add(SENDING);
+        args.addAll(ids);
+
+        List<CompletableFuture<Void>> futures = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            long id = rs.getLong("id");
+            MailRequest request = ObjectUtil.deserialize(rs.getBytes("payload"));
+            return CompletableFuture.runAsync(() -> send(id, token, request), sendExecutor);
+        }, args.toArray());
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        return ids.size();
+    }
+
+    /**
+     * 认领一个批次, 认领成功的记录以令牌租约给当前节点
+     *
+     * @param token 租约令牌
+     * @return {@link List} 认领的记录ID
+     */
+    private List<Long> claim(String token) {
+
+        long now = System.currentTimeMillis();
+        long leaseTime = now + outbox.getLease();
+
+        if (outbox.getSkipLocked()) {
+            return ObjectUtil.defaultIfNull(transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(lockSql, Long.class, NEW, SENDING, now, outbox.getBatchSize());
+                if (CollectionUtil.isNotEmpty(ids)) {
+                    jdbcTemplate.batchUpdate(claimSql, ids.stream()
+                            .map(id -> new Object[]{SENDING, token, leaseTime, now, id, NEW, SENDING, now})
+                            .collect(Collectors.toList()));
+                }
+                return ids;
+            }), Collections.emptyList());
+        }
+
+        List<Long> candidates = jdbcTemplate.queryForList(candidateSql, Long.class, NEW, SENDING, now, outbox.getBatchSize());
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(claimSql, candidates.stream()
+                .map(id -> new Object[]{SENDING, token, leaseTime, now, id, NEW, SENDING, now})
+                .collect(Collectors.toList()));
+
+        List<Long> claimed = new ArrayList<>(candidates.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 1) {
+                claimed.add(candidates.get(i));
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * 发送一条记录
+     * <p>
+     * 以记录ID作为默认幂等键, 仅在同一节点的 {@link cn.darkjrong.email.idempotent.IdempotencyStore} 内去重;
+     * 跨节点不去重, 由租约保证租约有效期内只有一个节点发送
+     *
+     * @param id      记录ID
+     * @param token   租约令牌
+     * @param request 发送请求
+     */
+    private void send(long id, String token, MailRequest request) {
+
+        // 等待发送期间租约可能已过期并被其他节点重新认领
+        long now = System.currentTimeMillis();
+        if (jdbcTemplate.update(renewSql, now + outbox.getLease(), now, id, token, SENDING, now) == 0) {
+            logger.warn("send outbox {} lease lost, skipped", id);
+            return;
+        }
+
+        if (StrUtil.isBlank(request.getIdempotencyKey())) {
+            request.setIdempotencyKey(StrUtil.format("{}-{}", outbox.getTable(), id));
+        }
+
+        SendResult result;
+        try {
+            result = emailTemplate.send(request);
+        } catch (Exception e) {
+            logger.error("send outbox {} {}", id, e.getMessage());
+            now = System.currentTimeMillis();
+            if (jdbcTemplate.update(retrySql, outbox.getMaxAttempts(), FAILED, NEW, now + outbox.getRetryDelay(),
+                    StrUtil.maxLength(StrUtil.nullToEmpty(e.getMessage()), ERROR_LENGTH - 3), now, id, token) == 0) {
+                logger.warn("send outbox {} lease lost, retry left to the current owner", id);
+            }
+            return;
+        }
+
+        // 邮件已发出, 租约过期也要记为已发送, 避免再次认领
+        now = System.currentTimeMillis();
+        if (jdbcTemplate.update(sentSql, SENT, result.getMessageId(), now, id, token) == 0) {
+            logger.warn("send outbox {} lease expired during send, may be sent more than once", id);
+            jdbcTemplate.update(lateSentSql, SENT, result.getMessageId(), now, id, SENT);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (pollExecutor != null) {
+            pollExecutor.shutdownNow();
+            pollExecutor = null;
+        }
+        sendExecutor.shutdown();
+    }
+
+}
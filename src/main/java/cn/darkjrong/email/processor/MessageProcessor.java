@@ -0,0 +1,26 @@
+package cn.darkjrong.email.processor;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * 邮件处理器
+ * <p>
+ * 在邮件构建完成(已生成消息ID)之后、发送之前调用, 可修改邮件头, 如 DKIM 签名;
+ * 注册为 bean 时按 {@link org.springframework.core.annotation.Order} 顺序执行
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 16:05:12
+ */
+@FunctionalInterface
+public interface MessageProcessor {
+
+    /**
+     * 处理邮件
+     *
+     * @param mimeMessage 邮件
+     * @throws MessagingException 处理异常, 邮件不会发送
+     */
+    void process(MimeMessage mimeMessage) throws MessagingException;
+
+}
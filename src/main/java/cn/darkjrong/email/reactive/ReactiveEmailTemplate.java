@@ -0,0 +1,69 @@
+package cn.darkjrong.email.reactive;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.SendResult;
+import cn.darkjrong.email.exception.ExceptionEnum;
+import cn.hutool.core.lang.Assert;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Closeable;
+
+/**
+ * 响应式电子邮件操作类
+ * <p>
+ * 同时发送的邮件数不超过 concurrency, 上游按下游需求拉取请求, 内存占用与请求流长度无关
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 11:20:44
+ */
+public class ReactiveEmailTemplate implements Closeable {
+
+    private final EmailTemplate emailTemplate;
+    private final int concurrency;
+    private final Scheduler scheduler;
+
+    /**
+     * @param emailTemplate 电子邮件模板
+     * @param concurrency   同时发送的最大邮件数, 大于 0
+     */
+    public ReactiveEmailTemplate(EmailTemplate emailTemplate, int concurrency) {
+        Assert.isTrue(concurrency > 0, String.format(ExceptionEnum.THE_PROPERTY_MUST_BE_POSITIVE.getValue(), "reactive.concurrency"));
+        this.emailTemplate = emailTemplate;
+        this.concurrency = concurrency;
+        this.scheduler = Schedulers.newBoundedElastic(concurrency,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "email-reactive", 60, Boolean.TRUE);
+    }
+
+    /**
+     * 发送邮件
+     *
+     * @param request 发送请求
+     * @return {@link Mono} 发送结果, 发送失败时为失败结果而非错误信号
+     */
+    public Mono<SendResult> send(MailRequest request) {
+        return Mono.fromCallable(() -> emailTemplate.send(request))
+                .subscribeOn(scheduler)
+                .onErrorResume(e -> Mono.just(SendResult.failure(request, e)));
+    }
+
+    /**
+     * 批量发送邮件
+     *
+     * @param requests 发送请求
+     * @return {@link Flux} 发送结果, 按完成顺序发出
+     */
+    public Flux<SendResult> send(Publisher<MailRequest> requests) {
+        return Flux.from(requests).flatMap(this::send, concurrency, 1);
+    }
+
+    @Override
+    public void close() {
+        scheduler.dispose();
+    }
+
+}
@@ -0,0 +1,64 @@
+package cn.darkjrong.email.suppression;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分块布隆过滤器, 输入为地址的 64 位哈希
+ * <p>
+ * 低 32 位选择一个 64 字节的块(一条缓存行), 全部位都落在该块内, 每次查询只有一次缓存未命中
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 23:12:40
+ */
+class BloomFilter {
+
+    private static final int BLOCK_WORDS = 8;
+    private static final int BLOCK_MASK = BLOCK_WORDS * Long.SIZE - 1;
+
+    private final AtomicLongArray bits;
+    private final int blocks;
+    private final int hashes;
+
+    /**
+     * @param expected 预计元素数
+     * @param fpp      误判率
+     */
+    BloomFilter(long expected, double fpp) {
+        long n = Math.max(1L, expected);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.blocks = (int) Math.max(1L, Math.min((Integer.MAX_VALUE - 8) / BLOCK_WORDS, (m + BLOCK_MASK) / (BLOCK_MASK + 1)));
+        this.bits = new AtomicLongArray(blocks * BLOCK_WORDS);
+        this.hashes = Math.max(1, (int) Math.round((double) blocks * (BLOCK_MASK + 1) / n * Math.log(2)));
+    }
+
+    void put(long hash) {
+        int base = block(hash);
+        int h = (int) (hash >>> 32);
+        int step = (int) hash >>> 16 | 1;
+        for (int i = 0; i < hashes; i++, h += step) {
+            int word = base + ((h & BLOCK_MASK) >>> 6);
+            long mask = 1L << h;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(long hash) {
+        int base = block(hash);
+        int h = (int) (hash >>> 32);
+        int step = (int) hash >>> 16 | 1;
+        for (int i = 0; i < hashes; i++, h += step) {
+            if ((bits.get(base + ((h & BLOCK_MASK) >>> 6)) & (1L << h)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int block(long hash) {
+        return (int) (((int) hash & 0xFFFFFFFFL) % blocks) * BLOCK_WORDS;
+    }
+
+}
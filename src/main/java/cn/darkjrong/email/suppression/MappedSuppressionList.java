@@ -0,0 +1,305 @@
+package cn.darkjrong.email.suppression;
+
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.hash.MurmurHash;
+import cn.hutool.core.util.StrUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于内存映射文件的抑制列表
+ * <p>
+ * 地址规范化(去空白、小写)后取 64 位哈希. 已合并的哈希排序保存在数据文件中并内存映射, 堆内只保存分桶目录(约 0.8 字节/地址);
+ * 新增的哈希保存在内存增量集合中, 并追加写入日志文件, 启动时重放. 增量达到阈值后与数据文件合并.
+ * 查询先经过布隆过滤器, 绝大多数未抑制的地址不会访问数据文件
+ * <p>
+ * 哈希冲突会使极少数地址被误判为已抑制, 2000 万地址时概率约为 1e-11
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 23:20:17
+ */
+public class MappedSuppressionList implements SuppressionList, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedSuppressionList.class);
+
+    private static final String JOURNAL_SUFFIX = ".log";
+
+
+    private final File file;
+    private final File journal;
+    private final double fpp;
+    private final long expectedSize;
+    private final int compactThreshold;
+
+    private volatile Segment segment;
+    private volatile BloomFilter bloomFilter;
+    private long bloomCapacity;
+    private volatile Set<Long> delta = ConcurrentHashMap.newKeySet();
+    private DataOutputStream journalOutput;
+
+    public MappedSuppressionList(EmailProperties.Suppression suppression) {
+        this.file = new File(suppression.getFile());
+        this.journal = new File(suppression.getFile() + JOURNAL_SUFFIX);
+        this.fpp = suppression.getFpp();
+        this.expectedSize = suppression.getExpectedSize();
+        this.compactThreshold = suppression.getCompactThreshold();
+        FileUtil.mkParentDirs(file);
+
+        this.segment = new Segment(map(file));
+        this.bloomFilter = createBloomFilter(segment.hashes);
+        replay();
+        this.journalOutput = openJournal();
+        logger.info("load {} suppressed addresses, {} pending", segment.hashes.limit(), delta.size());
+    }
+
+    @Override
+    public boolean contains(String address) {
+        if (StrUtil.isBlank(address)) {
+            return false;
+        }
+        long hash = hash(address);
+        if (!bloomFilter.mightContain(hash)) {
+            return false;
+        }
+        return delta.contains(hash) || segment.contains(hash);
+    }
+
+    @Override
+    public void add(String address) {
+        if (StrUtil.isBlank(address)) {
+            return;
+        }
+        long hash = hash(address);
+        synchronized (this) {
+            if (delta.contains(hash) || segment.contains(hash)) {
+                return;
+            }
+            try {
+                journalOutput.writeLong(hash);
+                journalOutput.flush();
+            } catch (IOException e) {
+                logger.error("add {}", e.getMessage());
+                throw new MailException(e, "Failed to write suppression journal {}", journal);
+            }
+            delta.add(hash);
+            bloomFilter.put(hash);
+            if (delta.size() >= compactThreshold) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * 批量添加并合并到数据文件, 用于导入退订列表
+     *
+     * @param addresses 邮箱地址
+     */
+    public synchronized void addAll(Collection<String> addresses) {
+        for (String address : addresses) {
+            if (StrUtil.isNotBlank(address)) {
+                long hash = hash(address);
+                delta.add(hash);
+                bloomFilter.put(hash);
+            }
+        }
+        compact();
+    }
+
+    /**
+     * 将增量合并到数据文件, 合并期间查询不受影响
+     */
+    public synchronized void compact() {
+
+        long[] added = delta.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(added);
+        LongBuffer current = segment.hashes;
+
+        File temp = new File(file.getAbsolutePath() + ".tmp");
+        int total = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            int i = 0;
+            int j = 0;
+            long last = 0;
+            while (i < current.limit() || j < added.length) {
+                long next;
+                if (j >= added.length || (i < current.limit() && current.get(i) <= added[j])) {
+                    next = current.get(i++);
+                } else {
+                    next = added[j++];
+                }
+                if (total == 0 || next != last) {
+                    out.writeLong(next);
+                    last = next;
+                    total++;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("compact {}", e.getMessage());
+            throw new MailException(e, "Failed to compact suppression file {}", file);
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LongBuffer merged = map(file);
+            if (merged.limit() > bloomCapacity) {
+                bloomFilter = createBloomFilter(merged);
+            }
+            segment = new Segment(merged);
+            delta = ConcurrentHashMap.newKeySet();
+
+            journalOutput.close();
+            journalOutput = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(journal.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+        } catch (IOException e) {
+            logger.error("compact {}", e.getMessage());
+            throw new MailException(e, "Failed to compact suppression file {}", file);
+        }
+        logger.info("compact {} suppressed addresses", total);
+    }
+
+    /**
+     * 已抑制的地址数
+     *
+     * @return long 地址数
+     */
+    public long size() {
+        return segment.hashes.limit() + (long) delta.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            journalOutput.close();
+        } catch (IOException e) {
+            logger.warn("close {}", e.getMessage());
+        }
+    }
+
+    static long hash(String address) {
+        return MurmurHash.hash64(address.trim().toLowerCase());
+    }
+
+    /**
+     * 数据文件与堆内目录
+     * <p>
+     * 按哈希高位分桶, 目录记录每个桶在数据文件中的起始位置, 平均每桶不超过 8 个哈希;
+     * 查找读取一次目录, 再顺序扫描数据文件中相邻的一两条缓存行
+     */
+    private static class Segment {
+
+        private static final int BUCKET_SIZE = 8;
+        private static final int MAX_BITS = 24;
+
+        private final LongBuffer hashes;
+        private final int[] offsets;
+        private final int shift;
+
+        Segment(LongBuffer hashes) {
+            this.hashes = hashes;
+            int bits = 1;
+            while (bits < MAX_BITS && (1L << bits) * BUCKET_SIZE < hashes.limit()) {
+                bits++;
+            }
+            this.shift = Long.SIZE - bits;
+            this.offsets = new int[(1 << bits) + 1];
+
+            int bucket = 0;
+            for (int i = 0; i < hashes.limit(); i++) {
+                int current = bucket(hashes.get(i));
+                while (bucket <= current) {
+                    offsets[bucket++] = i;
+                }
+            }
+            while (bucket < offsets.length) {
+                offsets[bucket++] = hashes.limit();
+            }
+        }
+
+        boolean contains(long hash) {
+            int bucket = bucket(hash);
+            for (int i = offsets[bucket], end = offsets[bucket + 1]; i < end; i++) {
+                long value = hashes.get(i);
+                if (value >= hash) {
+                    return value == hash;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 有符号哈希的高位, 与排序顺序一致
+         */
+        private int bucket(long hash) {
+            return (int) ((hash ^ Long.MIN_VALUE) >>> shift);
+        }
+
+    }
+
+    /**
+     * 只读映射数据文件, 映射在文件关闭后仍然有效
+     */
+    private static LongBuffer map(File file) {
+        if (!file.isFile() || file.length() < Long.BYTES) {
+            return LongBuffer.allocate(0);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = file.length() / Long.BYTES * Long.BYTES;
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, length).asLongBuffer();
+        } catch (IOException e) {
+            logger.error("map {}", e.getMessage());
+            throw new MailException(e, "Failed to map suppression file {}", file);
+        }
+    }
+
+    /**
+     * 创建布隆过滤器, 容量为预计地址数与现有地址数 2 倍中的较大者, 超出容量时在合并后重建
+     */
+    private BloomFilter createBloomFilter(LongBuffer hashes) {
+        bloomCapacity = Math.max(expectedSize, hashes.limit() * 2L);
+        BloomFilter filter = new BloomFilter(bloomCapacity, fpp);
+        for (int i = 0; i < hashes.limit(); i++) {
+            filter.put(hashes.get(i));
+        }
+        return filter;
+    }
+
+    private void replay() {
+        if (!journal.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+            for (long i = journal.length() / Long.BYTES; i > 0; i--) {
+                long hash = in.readLong();
+                delta.add(hash);
+                bloomFilter.put(hash);
+            }
+        } catch (IOException e) {
+            logger.error("replay {}", e.getMessage());
+        }
+    }
+
+    private DataOutputStream openJournal() {
+        try {
+            return new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(journal.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        } catch (IOException e) {
+            logger.error("openJournal {}", e.getMessage());
+            throw new MailException(e, "Failed to open suppression journal {}", journal);
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package cn.darkjrong.email.suppression;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存抑制列表, 重启后清空
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 22:04:10
+ */
+public class MemorySuppressionList implements SuppressionList {
+
+    private final Set<String> addresses = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean contains(String address) {
+        return StrUtil.isNotBlank(address) && addresses.contains(address.trim().toLowerCase());
+    }
+
+    @Override
+    public void add(String address) {
+        if (StrUtil.isNotBlank(address)) {
+            addresses.add(address.trim().toLowerCase());
+        }
+    }
+
+    public int size() {
+        return addresses.size();
+    }
+
+}
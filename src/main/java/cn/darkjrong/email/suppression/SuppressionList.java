@@ -0,0 +1,26 @@
+package cn.darkjrong.email.suppression;
+
+/**
+ * 抑制列表, 硬退信、退订等不应再发送的地址
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 22:02:31
+ */
+public interface SuppressionList {
+
+    /**
+     * 是否已抑制
+     *
+     * @param address 邮箱地址, 不区分大小写
+     * @return boolean 是否已抑制
+     */
+    boolean contains(String address);
+
+    /**
+     * 添加地址
+     *
+     * @param address 邮箱地址, 不区分大小写
+     */
+    void add(String address);
+
+}
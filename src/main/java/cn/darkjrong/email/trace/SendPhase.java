@@ -0,0 +1,34 @@
+package cn.darkjrong.email.trace;
+
+/**
+ * 发送阶段
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 01:58:06
+ */
+public enum SendPhase {
+
+    // 检查附件是否存在, 在线附件会发起 HTTP 请求
+    ATTACHMENT,
+
+    // 等待域名额度与连接许可
+    WAIT,
+
+    // 收件人校验(域名检查会查询 DNS)与抑制列表
+    VALIDATE,
+
+    // 构建邮件, 含附件压缩与邮件处理器
+    BUILD,
+
+    // DKIM 签名
+    SIGN,
+
+    // 借出连接, 新建连接时含 DNS、TCP、TLS、EHLO、AUTH
+    CONNECT,
+
+    // 传输 MAIL、RCPT、DATA; 直投时含 MX 查询与连接
+    TRANSMIT,
+
+    ;
+
+}
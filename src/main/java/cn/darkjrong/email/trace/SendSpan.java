@@ -0,0 +1,48 @@
+package cn.darkjrong.email.trace;
+
+/**
+ * 一次发送的追踪, 各阶段依次进行, 开始新阶段时结束上一阶段
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 01:58:06
+ */
+public interface SendSpan {
+
+    /**
+     * 不记录的追踪
+     */
+    SendSpan NOOP = new SendSpan() {
+    };
+
+    /**
+     * 开始阶段, 同时结束上一阶段
+     *
+     * @param phase 阶段
+     */
+    default void phase(SendPhase phase) {
+    }
+
+    /**
+     * 设置属性
+     *
+     * @param key   属性名
+     * @param value 属性值
+     */
+    default void setAttribute(String key, String value) {
+    }
+
+    /**
+     * 记录异常, 当前阶段与整个发送标记为失败
+     *
+     * @param throwable 异常
+     */
+    default void error(Throwable throwable) {
+    }
+
+    /**
+     * 结束当前阶段与整个发送
+     */
+    default void end() {
+    }
+
+}
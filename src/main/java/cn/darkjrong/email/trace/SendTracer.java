@@ -0,0 +1,67 @@
+package cn.darkjrong.email.trace;
+
+import cn.darkjrong.email.domain.MailRequest;
+
+/**
+ * 发送追踪
+ * <p>
+ * 每次发送调用一次 {@link #start(MailRequest)}, 采样由实现决定, 未采样时可返回 {@link SendSpan#NOOP}.
+ * 异步发送在提交时调用 {@link #enqueue(MailRequest)} 捕获调用方上下文, 在发送线程开始发送前调用 {@link #dequeue(Object)} 恢复,
+ * 发送的追踪因此与提交时的追踪关联
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 01:58:06
+ */
+public interface SendTracer {
+
+    /**
+     * 开始一次发送, 父级为当前线程的上下文
+     *
+     * @param request 发送请求
+     * @return {@link SendSpan} 发送追踪
+     */
+    SendSpan start(MailRequest request);
+
+    /**
+     * 进入异步发送队列, 在提交线程调用
+     *
+     * @param request 发送请求
+     * @return {@link Object} 上下文, 出队时传回
+     */
+    default Object enqueue(MailRequest request) {
+        return null;
+    }
+
+    /**
+     * 离开异步发送队列, 在发送线程调用, 发送完成后关闭返回的作用域
+     *
+     * @param context {@link #enqueue(MailRequest)} 返回的上下文, 从磁盘恢复的邮件为 null
+     * @return {@link Scope} 作用域
+     */
+    default Scope dequeue(Object context) {
+        return Scope.NOOP;
+    }
+
+    /**
+     * 上下文作用域
+     *
+     * @author Rong.Jia
+     * @date 2026/10/19 01:58:06
+     */
+    interface Scope extends AutoCloseable {
+
+        /**
+         * 不恢复上下文的作用域
+         */
+        Scope NOOP = () -> {
+        };
+
+        /**
+         * 关闭, 还原发送线程原来的上下文
+         */
+        @Override
+        void close();
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+
+/**
+ * 自适应并发限制(AIMD)
+ * <p>
+ * 延迟平稳时每发送成功 limit 封增加 1, 服务器返回限流响应(421、451)时乘以回退比例;
+ * 短期平均延迟超过长期平均延迟的 latencyTolerance 倍时视为服务器已饱和, 暂停增加.
+ * 一个平均延迟内的多次限流响应只回退一次, 避免同一批并发的失败把限制降到最低
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 01:20:36
+ */
+public class AimdLimit {
+
+    private static final double SHORT_WEIGHT = 0.2;
+    private static final double LONG_WEIGHT = 0.02;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private double limit;
+    private double shortLatency;
+    private double longLatency;
+    private long lastBackoffTime;
+    private volatile int current;
+
+    public AimdLimit(EmailProperties.Adaptive adaptive, int maxLimit) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.minLimit = Math.max(1, Math.min(adaptive.getMinLimit(), this.maxLimit));
+        this.backoffRatio = adaptive.getBackoffRatio();
+        this.latencyTolerance = adaptive.getLatencyTolerance();
+        this.limit = Math.max(minLimit, Math.min(adaptive.getInitialLimit(), this.maxLimit));
+        this.current = (int) limit;
+    }
+
+    /**
+     * 发送成功
+     *
+     * @param latency 发送耗时(毫秒)
+     */
+    public synchronized void onSuccess(long latency) {
+
+        if (longLatency == 0D) {
+            shortLatency = latency;
+            longLatency = latency;
+        } else {
+            shortLatency += (latency - shortLatency) * SHORT_WEIGHT;
+            longLatency += (latency - longLatency) * LONG_WEIGHT;
+        }
+
+        if (shortLatency <= longLatency * latencyTolerance && limit < maxLimit) {
+            limit = Math.min(maxLimit, limit + 1D / limit);
+            current = (int) limit;
+        }
+    }
+
+    /**
+     * 服务器限流
+     */
+    public synchronized void onThrottled() {
+        long now = System.currentTimeMillis();
+        if (now - lastBackoffTime < Math.max(1L, (long) longLatency)) {
+            return;
+        }
+        lastBackoffTime = now;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        current = (int) limit;
+    }
+
+    /**
+     * 当前并发限制
+     *
+     * @return int 并发限制
+     */
+    public int getLimit() {
+        return current;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+}
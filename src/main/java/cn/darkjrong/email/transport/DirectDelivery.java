@@ -0,0 +1,318 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.email.mx.CachingMxResolver;
+import cn.darkjrong.email.mx.JndiMxResolver;
+import cn.darkjrong.email.mx.MxRecord;
+import cn.darkjrong.email.mx.MxResolver;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.darkjrong.email.processor.MessageProcessor;
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.StrUtil;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 直投 MX
+ * <p>
+ * 按收件人域名分组, 解析域名的 MX 记录后直接投递; 按优先级依次尝试 MX 服务器, 相同优先级随机排序,
+ * 连接失败或临时拒绝(4xx)时尝试下一个; 每个 MX 服务器使用独立的连接池, 连接全部空闲超时关闭后移除该连接池.
+ * STARTTLS 按 {@link TlsPolicy} 使用, 默认为机会加密
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 18:10:27
+ */
+public class DirectDelivery implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectDelivery.class);
+
+    private static final int TRANSIENT = 4;
+
+    private final EmailProperties emailProperties;
+    private final EmailProperties.Pool pool;
+    private final int port;
+    private final long ttl;
+    private final TlsPolicy tls;
+    private final String heloName;
+    private volatile MxResolver mxResolver;
+
+    private final Map<String, SmtpConnectionPool> connectionPools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    public DirectDelivery(EmailProperties emailProperties) {
+
+        EmailProperties.Direct direct = emailProperties.getDirect();
+        this.emailProperties = emailProperties;
+        this.port = direct.getPort();
+        this.ttl = direct.getTtl();
+        this.tls = direct.getTls();
+        this.heloName = StrUtil.blankToDefault(direct.getHeloName(), StrUtil.subAfter(emailProperties.getFrom().getEmail(), '@', Boolean.TRUE));
+        this.mxResolver = new CachingMxResolver(new JndiMxResolver(ttl), ttl);
+
+        this.pool = new EmailProperties.Pool();
+        this.pool.setEnabled(emailProperties.getPool().getEnabled());
+        this.pool.setMaxTotal(direct.getMaxPerMx());
+        this.pool.setMaxIdle(direct.getMaxPerMx());
+        this.pool.setMaxWait(emailProperties.getPool().getMaxWait());
+        this.pool.setIdleTimeout(emailProperties.getPool().getIdleTimeout());
+
+        long idleTimeout = pool.getIdleTimeout();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("email-mx-evict-").setDaemon(true).build());
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 关闭空闲超时的连接, 移除没有连接的连接池, MX 服务器数量不会无限增长
+     */
+    private void evictIdle() {
+        connectionPools.forEach((host, connectionPool) -> {
+            connectionPool.evictIdle();
+            connectionPools.computeIfPresent(host, (key, current) -> {
+                if (current.getActive() == 0 && current.getIdle() == 0) {
+                    current.close();
+                    return null;
+                }
+                return current;
+            });
+        });
+    }
+
+    /**
+     * 设置 MX 记录解析器, 解析结果按记录 TTL 缓存
+     *
+     * @param mxResolver MX 记录解析器
+     */
+    public void setMxResolver(MxResolver mxResolver) {
+        this.mxResolver = new CachingMxResolver(mxResolver, ttl);
+    }
+
+    /**
+     * 投递邮件
+     * <p>
+     * 部分域名失败时抛出 {@link SendFailedException}, 已投递的地址为 validSent;
+     * 传输过程中断且没有域名投递成功时抛出原异常, 邮件可能已被接收
+     *
+     * @param mimeMessage 邮件
+     * @throws MessagingException 投递异常
+     */
+    public void send(MimeMessage mimeMessage) throws MessagingException {
+        send(mimeMessage, null);
+    }
+
+    /**
+     * 投递到各收件域名的 MX 服务器
+     *
+     * @param mimeMessage 邮件
+     * @param reencoded   MX 服务器不支持 8BITMIME 时正文改回及恢复之后执行的处理器, 如重新 DKIM 签名, 可为 null
+     * @throws MessagingException 投递异常
+     */
+    public void send(MimeMessage mimeMessage, MessageProcessor reencoded) throws MessagingException {
+
+        List<Address> sent = new ArrayList<>();
+        List<Address> unsent = new ArrayList<>();
+        List<Address> invalid = new ArrayList<>();
+        MessagingException failure = null;
+        MessagingException uncertain = null;
+
+        for (Map.Entry<String, List<Address>> entry : groupByDomain(mimeMessage.getAllRecipients()).entrySet()) {
+            Address[] addresses = entry.getValue().toArray(new Address[0]);
+            try {
+                deliver(mimeMessage, entry.getKey(), addresses, reencoded);
+                sent.addAll(entry.getValue());
+            } catch (SendFailedException e) {
+                logger.warn("send {} {}", entry.getKey(), e.getMessage());
+                addAll(sent, e.getValidSentAddresses());
+                addAll(unsent, e.getValidUnsentAddresses());
+                addAll(invalid, e.getInvalidAddresses());
+                failure = e;
+            } catch (MessagingException e) {
+                logger.warn("send {} {}", entry.getKey(), e.getMessage());
+                unsent.addAll(entry.getValue());
+                failure = e;
+                uncertain = e;
+            }
+        }
+
+        if (uncertain != null && sent.isEmpty()) {
+            throw uncertain;
+        }
+        if (failure != null) {
+            throw new SendFailedException("Direct delivery failed for some domains", failure,
+                    sent.toArray(new Address[0]), unsent.toArray(new Address[0]), invalid.toArray(new Address[0]));
+        }
+    }
+
+    /**
+     * 投递到一个域名
+     *
+     * @param mimeMessage 邮件
+     * @param domain      域名
+     * @param addresses   该域名的收件人
+     * @param reencoded   正文改回及恢复之后执行的处理器
+     * @throws MessagingException 投递异常
+     */
+    private void deliver(MimeMessage mimeMessage, String domain, Address[] addresses, MessageProcessor reencoded) throws MessagingException {
+
+        List<MxRecord> records;
+        try {
+            records = order(mxResolver.resolve(domain));
+        } catch (MessagingException e) {
+            throw new SendFailedException(e.getMessage(), e, null, addresses, null);
+        }
+
+        MessagingException failure = null;
+        for (MxRecord record : records) {
+
+            SmtpConnectionPool connectionPool = connectionPools.computeIfAbsent(record.getHost(), this::createPool);
+
+            PooledConnection connection;
+            try {
+                if ((connection = borrow(connectionPool)) == null) {
+                    // 借出前连接池恰好被移除, 重新创建
+                    connectionPool = connectionPools.computeIfAbsent(record.getHost(), this::createPool);
+                    connection = connectionPool.borrow();
+                }
+            } catch (MessagingException e) {
+                logger.warn("deliver {} {}", record, e.getMessage());
+                failure = e;
+                continue;
+            }
+
+            boolean success = Boolean.FALSE;
+            try {
+                connection.sendMessage(mimeMessage, addresses, reencoded);
+                success = Boolean.TRUE;
+                return;
+            } catch (SMTPSendFailedException e) {
+                if (e.getReturnCode() / 100 != TRANSIENT || ArrayUtil.isNotEmpty(e.getValidSentAddresses())) {
+                    throw e;
+                }
+                logger.warn("deliver {} {}", record, e.getMessage());
+                failure = e;
+            } finally {
+                connectionPool.release(connection, success);
+            }
+        }
+
+        throw new SendFailedException("No MX host of " + domain + " accepted the message", failure, null, addresses, null);
+    }
+
+    /**
+     * 借出连接
+     *
+     * @param connectionPool 连接池
+     * @return {@link PooledConnection} 连接, 连接池已被移除关闭时返回 null
+     * @throws MessagingException 等待超时或连接异常
+     */
+    private static PooledConnection borrow(SmtpConnectionPool connectionPool) throws MessagingException {
+        try {
+            return connectionPool.borrow();
+        } catch (MessagingException e) {
+            if (connectionPool.isClosed()) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 按优先级排序, 相同优先级随机
+     *
+     * @param records MX 记录
+     * @return {@link List} 排序后的 MX 记录
+     */
+    private List<MxRecord> order(List<MxRecord> records) {
+        List<MxRecord> ordered = new ArrayList<>(records);
+        Collections.shuffle(ordered);
+        ordered.sort(Comparator.comparingInt(MxRecord::getPreference));
+        return ordered;
+    }
+
+    /**
+     * 创建 MX 服务器的连接池, 不认证, 按 STARTTLS 策略加密, EHLO 声明配置的主机名
+     *
+     * @param host MX 服务器地址
+     * @return {@link SmtpConnectionPool} 连接池
+     */
+    private SmtpConnectionPool createPool(String host) {
+
+        EmailProperties plaintext = properties(host, Boolean.FALSE, Boolean.FALSE);
+        SmtpConnector connector;
+        switch (tls) {
+            case REQUIRED:
+                connector = new SmtpConnector(properties(host, Boolean.TRUE, Boolean.TRUE), heloName);
+                break;
+            case NONE:
+                connector = new SmtpConnector(plaintext, heloName);
+                break;
+            default:
+                connector = new OpportunisticTlsConnector(properties(host, Boolean.TRUE, Boolean.FALSE), heloName, new SmtpConnector(plaintext, heloName));
+                break;
+        }
+        return new SmtpConnectionPool(connector, pool);
+    }
+
+    private EmailProperties properties(String host, Boolean startTlsEnabled, Boolean startTlsRequired) {
+        EmailProperties properties = BeanUtil.copyProperties(emailProperties, EmailProperties.class);
+        properties.setHost(host);
+        properties.setPort(port);
+        properties.setSslEnable(Boolean.FALSE);
+        properties.setAvoidAuthEnable(Boolean.TRUE);
+        properties.setStartTlsEnabled(startTlsEnabled);
+        properties.setStartTlsRequired(startTlsRequired);
+        properties.setFailover(new EmailProperties.Failover());
+        return properties;
+    }
+
+    private static Map<String, List<Address>> groupByDomain(Address[] recipients) throws MessagingException {
+
+        if (ArrayUtil.isEmpty(recipients)) {
+            throw new SendFailedException("No recipient addresses");
+        }
+
+        Map<String, List<Address>> domains = new LinkedHashMap<>();
+        for (Address recipient : recipients) {
+            String address = ((InternetAddress) recipient).getAddress();
+            String domain = StrUtil.subAfter(address, '@', Boolean.TRUE).toLowerCase(Locale.ROOT);
+            domains.computeIfAbsent(domain, key -> new ArrayList<>()).add(recipient);
+        }
+        return domains;
+    }
+
+    private static void addAll(List<Address> target, Address[] addresses) {
+        if (addresses != null) {
+            target.addAll(Arrays.asList(addresses));
+        }
+    }
+
+    /**
+     * 连接池数, 即有连接的 MX 服务器数
+     *
+     * @return int 连接池数
+     */
+    public int getPools() {
+        return connectionPools.size();
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        connectionPools.values().forEach(SmtpConnectionPool::close);
+    }
+
+}
@@ -0,0 +1,290 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.StrUtil;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 收件域名隔离
+ * <p>
+ * 限制同时发往每个收件域名的邮件数, 超出的发送在获取连接之前等待, 不占用连接;
+ * 响应缓慢的域名只会耗尽自己的并发额度, 不影响发往其他域名的邮件. 一封邮件需同时获得全部收件域名的额度.
+ * 开启自适应并发时, 每个域名的额度按该域名的发送延迟与限流响应调整, 不超过配置的限制
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 00:40:18
+ */
+public class DomainBulkhead {
+
+    private static final int MAX_ADAPTIVE_DOMAINS = 10000;
+
+    private final int maxPerDomain;
+    private final Map<String, Integer> limits = new HashMap<>();
+    private final long maxWait;
+    private final EmailProperties.Adaptive adaptive;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Map<String, Integer> inUse = new HashMap<>();
+    private final Map<String, AimdLimit> adaptiveLimits = new HashMap<>();
+
+    /**
+     * 当前线程已持有的许可, 同一线程再次获取相同域名时不重复计数
+     */
+    private final ThreadLocal<Permit> held = new ThreadLocal<>();
+
+    public DomainBulkhead(EmailProperties.Bulkhead bulkhead) {
+        this(bulkhead, null);
+    }
+
+    public DomainBulkhead(EmailProperties.Bulkhead bulkhead, EmailProperties.Adaptive adaptive) {
+        this.maxPerDomain = bulkhead.getMaxPerDomain();
+        this.maxWait = bulkhead.getMaxWait();
+        this.adaptive = adaptive;
+        bulkhead.getLimits().forEach((domain, limit) -> limits.put(domain.toLowerCase(), limit));
+    }
+
+    /**
+     * 尝试获取许可, 不等待
+     *
+     * @param domains 收件域名, 见 {@link #domains(MailRequest)}
+     * @return {@link Permit} 许可, 有域名额度已满时返回 null
+     */
+    public Permit tryAcquire(List<String> domains) {
+        Permit current = held.get();
+        if (current != null && current.domains.equals(domains)) {
+            return new Permit(domains, Boolean.FALSE);
+        }
+        lock.lock();
+        try {
+            return tryGrant(domains);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取许可, 最多等待 maxWait
+     *
+     * @param domains 收件域名, 见 {@link #domains(MailRequest)}
+     * @return {@link Permit} 许可
+     * @throws InterruptedException 等待被中断
+     * @throws MailException        等待超时
+     */
+    public Permit acquire(List<String> domains) throws InterruptedException {
+
+        Permit current = held.get();
+        if (current != null && current.domains.equals(domains)) {
+            return new Permit(domains, Boolean.FALSE);
+        }
+
+        long nanos = TimeUnit.MILLISECONDS.toNanos(maxWait);
+        lock.lockInterruptibly();
+        try {
+            Permit permit;
+            while ((permit = tryGrant(domains)) == null) {
+                if (nanos <= 0L) {
+                    throw new MailException("Timeout waiting for domain {}, in use: {}", domains, inUse(domains));
+                }
+                nanos = released.awaitNanos(nanos);
+            }
+            return permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 释放许可
+     *
+     * @param permit 许可
+     */
+    public void release(Permit permit) {
+        if (!permit.owner) {
+            return;
+        }
+        held.remove();
+        lock.lock();
+        try {
+            for (String domain : permit.domains) {
+                inUse.computeIfPresent(domain, (key, count) -> count > 1 ? count - 1 : null);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 发送成功, 调整自适应额度
+     *
+     * @param permit  许可
+     * @param latency 发送耗时(毫秒)
+     */
+    public void onSuccess(Permit permit, long latency) {
+        if (adaptive != null) {
+            for (AimdLimit limit : adaptiveLimits(permit)) {
+                limit.onSuccess(latency);
+            }
+        }
+    }
+
+    /**
+     * 服务器限流, 调整自适应额度
+     *
+     * @param permit 许可
+     */
+    public void onThrottled(Permit permit) {
+        if (adaptive != null) {
+            for (AimdLimit limit : adaptiveLimits(permit)) {
+                limit.onThrottled();
+            }
+        }
+    }
+
+    private List<AimdLimit> adaptiveLimits(Permit permit) {
+        List<AimdLimit> limits = new ArrayList<>(permit.domains.size());
+        lock.lock();
+        try {
+            for (String domain : permit.domains) {
+                AimdLimit limit = adaptiveLimits.get(domain);
+                if (limit != null) {
+                    limits.add(limit);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return limits;
+    }
+
+    /**
+     * 尝试分配许可, 需持有锁
+     */
+    private Permit tryGrant(List<String> domains) {
+        for (String domain : domains) {
+            if (inUse.getOrDefault(domain, 0) >= limit(domain)) {
+                return null;
+            }
+        }
+        for (String domain : domains) {
+            inUse.merge(domain, 1, Integer::sum);
+        }
+        Permit permit = new Permit(domains, Boolean.TRUE);
+        held.set(permit);
+        return permit;
+    }
+
+    private Map<String, Integer> inUse(List<String> domains) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String domain : domains) {
+            counts.put(domain, inUse.getOrDefault(domain, 0));
+        }
+        return counts;
+    }
+
+    private int limit(String domain) {
+        int limit = limits.getOrDefault(domain, maxPerDomain);
+        if (adaptive == null) {
+            return limit;
+        }
+        AimdLimit adaptiveLimit = adaptiveLimits.get(domain);
+        if (adaptiveLimit == null) {
+            if (adaptiveLimits.size() >= MAX_ADAPTIVE_DOMAINS) {
+                adaptiveLimits.keySet().retainAll(inUse.keySet());
+            }
+            adaptiveLimit = new AimdLimit(adaptive, limit);
+            adaptiveLimits.put(domain, adaptiveLimit);
+        }
+        return adaptiveLimit.getLimit();
+    }
+
+    /**
+     * 各域名发送中的邮件数
+     *
+     * @return {@link Map} 发送中的邮件数
+     */
+    public Map<String, Integer> getInUse() {
+        lock.lock();
+        try {
+            return new HashMap<>(inUse);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 自适应额度低于配置限制的域名, 即已因限流或延迟回退的域名
+     *
+     * @return {@link Map} 自适应额度, 未开启自适应并发时为空
+     */
+    public Map<String, Integer> getAdaptiveLimits() {
+        Map<String, Integer> snapshot = new HashMap<>();
+        lock.lock();
+        try {
+            adaptiveLimits.forEach((domain, limit) -> {
+                if (limit.getLimit() < limit.getMaxLimit()) {
+                    snapshot.put(domain, limit.getLimit());
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        return snapshot;
+    }
+
+    /**
+     * 收件域名, 包含收件人、抄送人、密送人, 小写去重排序
+     *
+     * @param request 发送请求
+     * @return {@link List} 收件域名
+     */
+    public static List<String> domains(MailRequest request) {
+        Set<String> domains = new TreeSet<>();
+        addDomains(domains, request.getToEmails());
+        addDomains(domains, request.getCcEmails());
+        addDomains(domains, request.getBccEmails());
+        return new ArrayList<>(domains);
+    }
+
+    private static void addDomains(Set<String> domains, List<EmailTo> emails) {
+        if (CollectionUtil.isEmpty(emails)) {
+            return;
+        }
+        for (EmailTo emailTo : emails) {
+            if (emailTo != null && StrUtil.contains(emailTo.getMail(), '@')) {
+                domains.add(StrUtil.subAfter(emailTo.getMail(), '@', true).trim().toLowerCase());
+            }
+        }
+    }
+
+    /**
+     * 域名许可
+     *
+     * @author Rong.Jia
+     * @date 2026/10/19 00:40:18
+     */
+    public static final class Permit {
+
+        private final List<String> domains;
+        private final boolean owner;
+
+        private Permit(List<String> domains, boolean owner) {
+            this.domains = domains;
+            this.owner = owner;
+        }
+
+        public List<String> getDomains() {
+            return domains;
+        }
+    }
+
+}
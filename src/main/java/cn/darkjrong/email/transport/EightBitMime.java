@@ -0,0 +1,186 @@
+package cn.darkjrong.email.transport;
+
+import com.sun.mail.smtp.SMTPMessage;
+
+import javax.mail.MessagingException;
+import javax.mail.Multipart;
+import javax.mail.Part;
+import javax.mail.internet.ContentType;
+import javax.mail.internet.MimePart;
+import javax.mail.internet.MimeUtility;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 8BITMIME(RFC 6152)
+ * <p>
+ * 构建邮件时将含非 ASCII 字符的文本正文改为 8bit 编码, 不再使用 quoted-printable 或 base64;
+ * 在 saveChanges、邮件处理器与 DKIM 签名之前执行. 附件不读取内容, 不满足 8bit 规则
+ * (含 NUL 或单行超过 998 字节)的正文保持原编码. 发往不支持 8BITMIME 的服务器时,
+ * 由 {@link #downgrade(SMTPMessage)} 临时改回 quoted-printable 或 base64, 发送后 {@link #restore} 恢复
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 05:14:38
+ */
+public final class EightBitMime {
+
+    /**
+     * MAIL FROM 参数, 发往不支持 8BITMIME 的服务器时删除
+     */
+    public static final String BODY = "BODY";
+    public static final String EIGHT_BIT_MIME = "8BITMIME";
+
+    private static final String TRANSFER_ENCODING = "Content-Transfer-Encoding";
+    private static final String EIGHT_BIT = "8bit";
+    private static final String SIZE = "SIZE";
+    private static final int MAX_LINE_LENGTH = 998;
+
+    private EightBitMime() {
+    }
+
+    /**
+     * 将文本正文改为 8bit 编码, 有正文改变时在 MAIL FROM 中声明 BODY=8BITMIME
+     *
+     * @param smtpMessage 未 saveChanges 的邮件
+     * @return boolean 是否有正文改为 8bit
+     * @throws MessagingException 邮件异常
+     */
+    public static boolean apply(SMTPMessage smtpMessage) throws MessagingException {
+
+        boolean encoded = Boolean.FALSE;
+        try {
+            for (MimePart part : textParts(smtpMessage)) {
+                if (part.getHeader(TRANSFER_ENCODING) != null) {
+                    continue;
+                }
+                LineChecker checker = new LineChecker();
+                part.getDataHandler().writeTo(checker);
+                if (checker.nonAscii && !checker.invalid) {
+                    part.setHeader(TRANSFER_ENCODING, EIGHT_BIT);
+                    encoded = Boolean.TRUE;
+                }
+            }
+        } catch (IOException e) {
+            throw new MessagingException("Failed to check body for 8bit encoding", e);
+        }
+
+        if (encoded) {
+            smtpMessage.setMailExtension(MailParameters.set(smtpMessage.getMailExtension(), BODY, EIGHT_BIT_MIME));
+        }
+        return encoded;
+    }
+
+    /**
+     * 是否声明了 BODY=8BITMIME
+     *
+     * @param smtpMessage 邮件
+     * @return boolean 是否为 8bit 正文
+     */
+    public static boolean isEightBit(SMTPMessage smtpMessage) {
+        return EIGHT_BIT_MIME.equalsIgnoreCase(MailParameters.get(smtpMessage.getMailExtension(), BODY));
+    }
+
+    /**
+     * 将 8bit 正文改回 quoted-printable 或 base64, 删除 BODY 与 SIZE 参数, 不生成新的 Message-ID
+     *
+     * @param smtpMessage 邮件
+     * @return {@link List} 改回的正文, 用于 {@link #restore}
+     * @throws MessagingException 邮件异常
+     */
+    public static List<MimePart> downgrade(SMTPMessage smtpMessage) throws MessagingException {
+        List<MimePart> downgraded = new ArrayList<>();
+        for (MimePart part : textParts(smtpMessage)) {
+            if (EIGHT_BIT.equalsIgnoreCase(part.getEncoding())) {
+                part.setHeader(TRANSFER_ENCODING, MimeUtility.getEncoding(part.getDataHandler()));
+                downgraded.add(part);
+            }
+        }
+        smtpMessage.setMailExtension(MailParameters.remove(MailParameters.remove(smtpMessage.getMailExtension(), BODY), SIZE));
+        return downgraded;
+    }
+
+    /**
+     * 恢复 {@link #downgrade} 改回的正文
+     *
+     * @param smtpMessage   邮件
+     * @param parts         改回的正文
+     * @param mailExtension 改回之前的 MAIL FROM 参数
+     * @throws MessagingException 邮件异常
+     */
+    public static void restore(SMTPMessage smtpMessage, List<MimePart> parts, String mailExtension) throws MessagingException {
+        for (MimePart part : parts) {
+            part.setHeader(TRANSFER_ENCODING, EIGHT_BIT);
+        }
+        smtpMessage.setMailExtension(mailExtension);
+    }
+
+    /**
+     * 获取非附件的文本正文, 只读取 multipart 的结构, 不读取正文与附件的内容
+     *
+     * @param smtpMessage 邮件
+     * @return {@link List} 文本正文
+     * @throws MessagingException 邮件异常
+     */
+    private static List<MimePart> textParts(SMTPMessage smtpMessage) throws MessagingException {
+        List<MimePart> parts = new ArrayList<>();
+        try {
+            textParts(smtpMessage, parts);
+        } catch (IOException e) {
+            throw new MessagingException("Failed to read multipart structure", e);
+        }
+        return parts;
+    }
+
+    private static void textParts(Part part, List<MimePart> parts) throws MessagingException, IOException {
+
+        if (!(part instanceof MimePart) || Part.ATTACHMENT.equalsIgnoreCase(part.getDisposition())) {
+            return;
+        }
+
+        // saveChanges 之前 Content-Type 头尚未设置, 以 DataHandler 的类型为准
+        ContentType contentType = new ContentType(part.getDataHandler().getContentType());
+        if (contentType.match("multipart/*")) {
+            Multipart multipart = (Multipart) part.getContent();
+            for (int i = 0; i < multipart.getCount(); i++) {
+                textParts(multipart.getBodyPart(i), parts);
+            }
+        } else if (contentType.match("text/*")) {
+            parts.add((MimePart) part);
+        }
+    }
+
+    /**
+     * 检查正文是否含非 ASCII 字符以及是否满足 8bit 规则, 不缓存正文
+     */
+    private static class LineChecker extends OutputStream {
+
+        private int lineLength;
+        private boolean nonAscii;
+        private boolean invalid;
+
+        @Override
+        public void write(int b) {
+            if (b == '\r' || b == '\n') {
+                lineLength = 0;
+                return;
+            }
+            if (b == 0 || ++lineLength > MAX_LINE_LENGTH) {
+                invalid = Boolean.TRUE;
+            }
+            if ((b & 0x80) != 0) {
+                nonAscii = Boolean.TRUE;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len && !invalid; i++) {
+                write(b[i]);
+            }
+        }
+
+    }
+
+}
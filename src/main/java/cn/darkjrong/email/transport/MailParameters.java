@@ -0,0 +1,65 @@
+package cn.darkjrong.email.transport;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MAIL FROM 参数, 即 {@link com.sun.mail.smtp.SMTPMessage#getMailExtension()}, 以空格分隔的 NAME=VALUE
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 05:20:52
+ */
+final class MailParameters {
+
+    private MailParameters() {
+    }
+
+    /**
+     * 获取参数值
+     *
+     * @param extension 参数
+     * @param name      参数名
+     * @return {@link String} 参数值, 不存在时为 null
+     */
+    static String get(String extension, String name) {
+        for (String parameter : StrUtil.split(StrUtil.nullToEmpty(extension), ' ', Boolean.TRUE, Boolean.TRUE)) {
+            if (StrUtil.startWithIgnoreCase(parameter, name + "=")) {
+                return parameter.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 设置参数值, 替换同名参数
+     *
+     * @param extension 参数
+     * @param name      参数名
+     * @param value     参数值
+     * @return {@link String} 设置后的参数
+     */
+    static String set(String extension, String name, String value) {
+        String removed = remove(extension, name);
+        return removed.isEmpty() ? name + "=" + value : removed + " " + name + "=" + value;
+    }
+
+    /**
+     * 删除参数
+     *
+     * @param extension 参数
+     * @param name      参数名
+     * @return {@link String} 删除后的参数
+     */
+    static String remove(String extension, String name) {
+        List<String> parameters = new ArrayList<>();
+        for (String parameter : StrUtil.split(StrUtil.nullToEmpty(extension), ' ', Boolean.TRUE, Boolean.TRUE)) {
+            if (!StrUtil.startWithIgnoreCase(parameter, name + "=")) {
+                parameters.add(parameter);
+            }
+        }
+        return String.join(" ", parameters);
+    }
+
+}
@@ -0,0 +1,64 @@
+package cn.darkjrong.email.transport;
+
+import com.sun.mail.util.CRLFOutputStream;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 邮件大小
+ * <p>
+ * 按 SMTP 传输时的方式输出邮件并计数, 不缓存内容: 换行统一为 CRLF, 不含 Bcc 与 Content-Length 邮件头;
+ * 结果即 RFC 1870 SIZE 参数的值
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 04:31:07
+ */
+public final class MessageSize {
+
+    /**
+     * 传输时不输出的邮件头, 与 SMTPTransport 一致
+     */
+    private static final String[] IGNORE_HEADERS = {"Bcc", "Content-Length"};
+
+    private MessageSize() {
+    }
+
+    /**
+     * 计算邮件传输大小
+     *
+     * @param mimeMessage 邮件
+     * @return long 字节数
+     * @throws MessagingException 邮件异常
+     */
+    public static long of(MimeMessage mimeMessage) throws MessagingException {
+        CountingOutputStream counter = new CountingOutputStream();
+        try {
+            CRLFOutputStream out = new CRLFOutputStream(counter);
+            mimeMessage.writeTo(out, IGNORE_HEADERS);
+            out.flush();
+        } catch (IOException e) {
+            throw new MessagingException("Failed to compute message size", e);
+        }
+        return counter.count;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.exceptions.ExceptionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.net.ssl.SSLException;
+
+/**
+ * 机会加密连接器
+ * <p>
+ * 服务器支持时使用 STARTTLS; TLS 握手失败(如证书与主机名不匹配)时以明文重新连接,
+ * 之后该连接器直接明文连接, 连接池被移除后重新尝试 STARTTLS
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 08:55:40
+ */
+class OpportunisticTlsConnector extends SmtpConnector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpportunisticTlsConnector.class);
+
+    private final SmtpConnector plaintext;
+    private volatile boolean tlsFailed = Boolean.FALSE;
+
+    /**
+     * @param emailProperties 开启 STARTTLS 的属性
+     * @param heloName        EHLO 声明的主机名
+     * @param plaintext       不使用 STARTTLS 的连接器
+     */
+    OpportunisticTlsConnector(EmailProperties emailProperties, String heloName, SmtpConnector plaintext) {
+        super(emailProperties, heloName);
+        this.plaintext = plaintext;
+    }
+
+    @Override
+    Transport connect(String host, Transcript transcript) throws MessagingException {
+        if (tlsFailed) {
+            return plaintext.connect(host, transcript);
+        }
+        try {
+            return super.connect(host, transcript);
+        } catch (MessagingException e) {
+            if (!ExceptionUtil.isFromOrSuppressedThrowable(e, SSLException.class, Boolean.TRUE)) {
+                throw e;
+            }
+            logger.warn("connect {} STARTTLS failed, fall back to plaintext: {}", host, e.getMessage());
+            tlsFailed = Boolean.TRUE;
+            return plaintext.connect(host, transcript);
+        }
+    }
+
+}
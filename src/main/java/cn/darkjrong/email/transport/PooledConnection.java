@@ -0,0 +1,231 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.email.processor.MessageProcessor;
+import cn.hutool.core.convert.Convert;
+import com.sun.mail.smtp.SMTPMessage;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import com.sun.mail.smtp.SMTPTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimePart;
+import java.util.List;
+
+/**
+ * 池化连接
+ * <p>
+ * 建立连接时记录服务器 EHLO 声明的 SIZE 上限, 发送前检查邮件大小, 超出上限时不上传直接失败;
+ * 8bit 正文的邮件发往不支持 8BITMIME 的服务器时, 本次发送改回 quoted-printable 或 base64
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 10:05:32
+ */
+public class PooledConnection {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledConnection.class);
+
+    private static final String SIZE = "SIZE";
+    private static final int EXCEEDED_STORAGE = 552;
+    private static final int NOOP_OK = 250;
+
+    /**
+     * 传输对象
+     */
+    private final Transport transport;
+
+    /**
+     * 创建时间
+     */
+    private final long createdTime;
+
+    /**
+     * 最后使用时间
+     */
+    private volatile long lastUsedTime;
+
+    /**
+     * 借出时间
+     */
+    private volatile long borrowedTime;
+
+    /**
+     * 会话记录, 未开启时为 null
+     */
+    private final Transcript transcript;
+
+    /**
+     * 服务器允许的邮件大小上限(字节), 0 为不限制, 服务器不支持 SIZE 时为 -1
+     */
+    private final long maxSize;
+
+    PooledConnection(Transport transport, Transcript transcript) {
+        this.transport = transport;
+        this.transcript = transcript;
+        this.maxSize = maxSize(transport);
+        this.createdTime = System.currentTimeMillis();
+        this.lastUsedTime = createdTime;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 发送邮件
+     * <p>
+     * 服务器支持 SIZE 时先计算邮件大小: 超出上限时以 552 失败, 不发送 MAIL FROM;
+     * 否则在 MAIL FROM 中声明 SIZE, 仅 {@link SMTPMessage} 可声明. 已声明大小的邮件不重复计算
+     *
+     * @param mimeMessage 邮件
+     * @param addresses   收件人
+     * @throws MessagingException 发送异常
+     */
+    public void sendMessage(MimeMessage mimeMessage, Address[] addresses) throws MessagingException {
+        sendMessage(mimeMessage, addresses, null);
+    }
+
+    /**
+     * 发送邮件, 服务器不支持 8BITMIME 时 8bit 正文改回 quoted-printable 或 base64 后发送, 发送后恢复
+     *
+     * @param mimeMessage 邮件
+     * @param addresses   收件人
+     * @param reencoded   正文改回及恢复之后执行的处理器, 如重新 DKIM 签名, 可为 null
+     * @throws MessagingException 发送异常
+     */
+    public void sendMessage(MimeMessage mimeMessage, Address[] addresses, MessageProcessor reencoded) throws MessagingException {
+
+        if (!(mimeMessage instanceof SMTPMessage) || !EightBitMime.isEightBit((SMTPMessage) mimeMessage)
+                || supportsExtension(EightBitMime.EIGHT_BIT_MIME)) {
+            send(mimeMessage, addresses);
+            return;
+        }
+
+        SMTPMessage smtpMessage = (SMTPMessage) mimeMessage;
+        String mailExtension = smtpMessage.getMailExtension();
+        List<MimePart> parts = EightBitMime.downgrade(smtpMessage);
+        try {
+            if (reencoded != null) {
+                reencoded.process(smtpMessage);
+            }
+            send(smtpMessage, addresses);
+        } finally {
+            EightBitMime.restore(smtpMessage, parts, mailExtension);
+            if (reencoded != null) {
+                reencoded.process(smtpMessage);
+            }
+        }
+    }
+
+    private boolean supportsExtension(String extension) {
+        return transport instanceof SMTPTransport && ((SMTPTransport) transport).supportsExtension(extension);
+    }
+
+    private void send(MimeMessage mimeMessage, Address[] addresses) throws MessagingException {
+        if (maxSize >= 0) {
+            long size = size(mimeMessage);
+            if (maxSize > 0 && size > maxSize) {
+                throw new SMTPSendFailedException("MAIL FROM", EXCEEDED_STORAGE,
+                        "Message size " + size + " exceeds server limit " + maxSize, null, null, addresses, null);
+            }
+            if (mimeMessage instanceof SMTPMessage) {
+                SMTPMessage smtpMessage = (SMTPMessage) mimeMessage;
+                smtpMessage.setMailExtension(MailParameters.set(smtpMessage.getMailExtension(), SIZE, String.valueOf(size)));
+            }
+        }
+        transport.sendMessage(mimeMessage, addresses);
+    }
+
+    public long getCreatedTime() {
+        return createdTime;
+    }
+
+    public long getLastUsedTime() {
+        return lastUsedTime;
+    }
+
+    public long getBorrowedTime() {
+        return borrowedTime;
+    }
+
+    public Transcript getTranscript() {
+        return transcript;
+    }
+
+    void borrowed(long borrowedTime) {
+        this.borrowedTime = borrowedTime;
+    }
+
+    void touch() {
+        this.lastUsedTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 是否空闲超时
+     *
+     * @param idleTimeout 空闲超时时间(毫秒)
+     * @return boolean 是否超时
+     */
+    boolean isExpired(long idleTimeout) {
+        return System.currentTimeMillis() - lastUsedTime > idleTimeout;
+    }
+
+    /**
+     * 执行 NOOP 检查连接是否可用
+     *
+     * @return boolean 是否可用
+     */
+    boolean noop() {
+        if (!(transport instanceof SMTPTransport)) {
+            return transport.isConnected();
+        }
+        try {
+            return ((SMTPTransport) transport).simpleCommand("NOOP") == NOOP_OK;
+        } catch (MessagingException e) {
+            logger.warn("noop {}", e.getMessage());
+            return Boolean.FALSE;
+        }
+    }
+
+    void close() {
+        SmtpConnector.close(transport);
+    }
+
+    /**
+     * 计算邮件大小, 已声明时直接读取
+     *
+     * @param mimeMessage 邮件
+     * @return long 字节数
+     * @throws MessagingException 邮件异常
+     */
+    private static long size(MimeMessage mimeMessage) throws MessagingException {
+        if (mimeMessage instanceof SMTPMessage) {
+            String size = MailParameters.get(((SMTPMessage) mimeMessage).getMailExtension(), SIZE);
+            if (size != null) {
+                return Convert.toLong(size, 0L);
+            }
+        }
+        return MessageSize.of(mimeMessage);
+    }
+
+    /**
+     * 读取服务器 EHLO 声明的 SIZE 上限
+     *
+     * @param transport 已连接的传输对象
+     * @return long 上限(字节), 未声明上限时为 0, 不支持 SIZE 时为 -1
+     */
+    private static long maxSize(Transport transport) {
+        if (!(transport instanceof SMTPTransport) || !((SMTPTransport) transport).supportsExtension(SIZE)) {
+            return -1L;
+        }
+        return Math.max(Convert.toLong(((SMTPTransport) transport).getExtensionParameter(SIZE), 0L), 0L);
+    }
+
+}
@@ -0,0 +1,204 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.email.domain.Priority;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.util.ObjectUtil;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 优先级通道
+ * <p>
+ * 连接分为预留和共享两部分: 预留连接仅高优先级可用, 共享连接按优先级从高到低分配,
+ * 每个优先级独立排队, 有高优先级等待时低优先级不会获得共享连接. 开启自适应并发时, 使用中的共享连接数不超过自适应限制减去预留连接数, 预留连接不受限制
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 13:12:09
+ */
+public class PriorityLanes {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final int reserved;
+    private final int shared;
+    private final int lowMax;
+    private final long maxWait;
+    private final AimdLimit limit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition[] conditions = new Condition[PRIORITIES.length];
+    private final int[] waiting = new int[PRIORITIES.length];
+    private final int[] inUse = new int[PRIORITIES.length];
+    private int reservedInUse;
+    private int sharedInUse;
+
+    public PriorityLanes(int total, EmailProperties.Lanes lanes, long maxWait) {
+        this(total, lanes, maxWait, null);
+    }
+
+    public PriorityLanes(int total, EmailProperties.Lanes lanes, long maxWait, AimdLimit limit) {
+        this.reserved = Math.max(0, Math.min(lanes.getHighReserved(), total - 1));
+        this.shared = total - reserved;
+        this.lowMax = Math.min(ObjectUtil.defaultIfNull(lanes.getLowMax(), shared), shared);
+        this.maxWait = maxWait;
+        this.limit = limit;
+        for (Priority priority : PRIORITIES) {
+            conditions[priority.ordinal()] = lock.newCondition();
+        }
+    }
+
+    /**
+     * 获取发送许可
+     *
+     * @param priority 优先级
+     * @return {@link Permit} 许可
+     * @throws InterruptedException 等待被中断
+     * @throws MailException        等待超时
+     */
+    public Permit acquire(Priority priority) throws InterruptedException {
+
+        int lane = ObjectUtil.defaultIfNull(priority, Priority.NORMAL).ordinal();
+        long nanos = TimeUnit.MILLISECONDS.toNanos(maxWait);
+
+        lock.lockInterruptibly();
+        try {
+            waiting[lane]++;
+            try {
+                Permit permit;
+                while ((permit = tryGrant(lane)) == null) {
+                    if (nanos <= 0L) {
+                        throw new MailException("Timeout waiting for {} lane, waiting: {}", PRIORITIES[lane], waiting[lane]);
+                    }
+                    nanos = conditions[lane].awaitNanos(nanos);
+                }
+                return permit;
+            } finally {
+                waiting[lane]--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 释放发送许可
+     *
+     * @param permit 许可
+     */
+    public void release(Permit permit) {
+        lock.lock();
+        try {
+            inUse[permit.lane]--;
+            if (permit.reserved) {
+                reservedInUse--;
+            } else {
+                sharedInUse--;
+            }
+            for (int lane = 0; lane < PRIORITIES.length; lane++) {
+                if (waiting[lane] > 0) {
+                    conditions[lane].signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 尝试分配许可, 需持有锁
+     *
+     * @param lane 通道
+     * @return {@link Permit} 许可, 无法分配时返回 null
+     */
+    private Permit tryGrant(int lane) {
+
+        if (lane == Priority.HIGH.ordinal() && reservedInUse < reserved) {
+            reservedInUse++;
+            inUse[lane]++;
+            return new Permit(lane, Boolean.TRUE);
+        }
+
+        if (sharedInUse >= shared) {
+            return null;
+        }
+        // 自适应限制只约束共享连接, 至少保留一个共享连接
+        if (limit != null && sharedInUse >= Math.max(1, limit.getLimit() - reserved)) {
+            return null;
+        }
+        for (int higher = 0; higher < lane; higher++) {
+            if (waiting[higher] > 0) {
+                return null;
+            }
+        }
+        if (lane == Priority.LOW.ordinal() && inUse[lane] >= lowMax) {
+            return null;
+        }
+
+        sharedInUse++;
+        inUse[lane]++;
+        return new Permit(lane, Boolean.FALSE);
+    }
+
+    /**
+     * 自适应并发限制
+     *
+     * @return {@link AimdLimit} 自适应并发限制, 未开启时为 null
+     */
+    public AimdLimit getLimit() {
+        return limit;
+    }
+
+    /**
+     * 各通道等待数
+     *
+     * @return {@link Map} 等待数
+     */
+    public Map<Priority, Integer> getWaiting() {
+        return snapshot(waiting);
+    }
+
+    /**
+     * 各通道使用中的连接数
+     *
+     * @return {@link Map} 使用数
+     */
+    public Map<Priority, Integer> getInUse() {
+        return snapshot(inUse);
+    }
+
+    private Map<Priority, Integer> snapshot(int[] counts) {
+        Map<Priority, Integer> snapshot = new EnumMap<>(Priority.class);
+        lock.lock();
+        try {
+            for (Priority priority : PRIORITIES) {
+                snapshot.put(priority, counts[priority.ordinal()]);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return snapshot;
+    }
+
+    /**
+     * 发送许可
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 13:12:09
+     */
+    public static final class Permit {
+
+        private final int lane;
+        private final boolean reserved;
+
+        private Permit(int lane, boolean reserved) {
+            this.lane = lane;
+            this.reserved = reserved;
+        }
+    }
+
+}
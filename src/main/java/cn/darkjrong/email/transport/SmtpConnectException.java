@@ -0,0 +1,37 @@
+package cn.darkjrong.email.transport;
+
+import javax.mail.MessagingException;
+
+/**
+ * SMTP 连接被服务器拒绝
+ * <p>
+ * 服务器在问候或 EHLO 阶段返回错误响应(如 421 连接过多)时, javax.mail 只抛出不含响应码的 {@link MessagingException};
+ * 建立连接时读取最后的响应码重新抛出, 以便区分暂时失败与限流
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 07:12:36
+ */
+public class SmtpConnectException extends MessagingException {
+
+    private static final long serialVersionUID = -2817469317204468851L;
+
+    /**
+     * 服务器响应码
+     */
+    private final int returnCode;
+
+    public SmtpConnectException(String message, int returnCode, Exception cause) {
+        super(message, cause);
+        this.returnCode = returnCode;
+    }
+
+    /**
+     * 获取服务器响应码
+     *
+     * @return int 响应码
+     */
+    public int getReturnCode() {
+        return returnCode;
+    }
+
+}
@@ -0,0 +1,282 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.MessagingException;
+import java.io.Closeable;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SMTP 连接池
+ * <p>
+ * 借出的连接数受 maxTotal 限制, 归还的连接最多保留 maxIdle 个, 空闲超时的连接在借出时丢弃;
+ * 空闲超过 validateAfter 的连接借出前执行 NOOP, 已被服务器断开的连接关闭后改用下一个空闲连接或新建连接.
+ * 开启会话记录时, 发送失败、超过慢发送阈值或被采样的连接在归还时输出本次借出期间的会话记录
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 10:08:47
+ */
+public class SmtpConnectionPool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpConnectionPool.class);
+    private static final Logger transcriptLogger = LoggerFactory.getLogger(Transcript.class);
+
+    private final SmtpConnector connector;
+    private final int maxTotal;
+    private final int maxIdle;
+    private final long maxWait;
+    private final long idleTimeout;
+    private final long validateAfter;
+    private final EmailProperties.Transcript transcript;
+
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger active = new AtomicInteger();
+    private volatile boolean closed = Boolean.FALSE;
+
+    public SmtpConnectionPool(SmtpConnector connector, EmailProperties.Pool pool) {
+        this.connector = connector;
+        this.maxTotal = pool.getMaxTotal();
+        this.maxIdle = pool.getEnabled() ? Math.min(pool.getMaxIdle(), pool.getMaxTotal()) : 0;
+        this.maxWait = pool.getMaxWait();
+        this.idleTimeout = pool.getIdleTimeout();
+        this.validateAfter = pool.getValidateAfter();
+        this.transcript = connector.getTranscript();
+        this.permits = new Semaphore(maxTotal, Boolean.TRUE);
+    }
+
+    /**
+     * 借出连接, 优先复用空闲连接
+     *
+     * @return {@link PooledConnection} 连接
+     * @throws MessagingException 等待超时或连接异常
+     */
+    public PooledConnection borrow() throws MessagingException {
+
+        if (closed) {
+            throw new MessagingException("Connection pool is closed");
+        }
+
+        long borrowedTime = System.currentTimeMillis();
+        try {
+            if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Timeout waiting for idle connection, maxTotal: " + maxTotal);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for connection", e);
+        }
+
+        try {
+            PooledConnection connection = pollIdle(Boolean.TRUE);
+            if (connection == null) {
+                connection = open(borrowedTime);
+            } else if (connection.getTranscript() != null) {
+                connection.getTranscript().mark();
+            }
+            connection.borrowed(borrowedTime);
+            active.incrementAndGet();
+            return connection;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 预热, 建立连接并放入空闲队列, 最多 maxIdle 个
+     *
+     * @param count 连接数
+     * @return int 新建立的连接数
+     * @throws MessagingException 连接或认证异常
+     */
+    public int prewarm(int count) throws MessagingException {
+
+        int target = Math.min(count, maxIdle);
+        int opened = 0;
+        while (!closed && idleConnections.size() < target && permits.tryAcquire()) {
+            try {
+                PooledConnection connection = open(System.currentTimeMillis());
+                if (closed || !idleConnections.offerLast(connection)) {
+                    connection.close();
+                    break;
+                }
+                opened++;
+            } finally {
+                permits.release();
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * 归还连接
+     *
+     * @param connection 连接
+     * @param reusable   是否可复用, 发送失败的连接直接关闭
+     */
+    public void release(PooledConnection connection, boolean reusable) {
+
+        if (connection.getTranscript() != null) {
+            record(connection.getTranscript(), reusable, System.currentTimeMillis() - connection.getBorrowedTime());
+        }
+        active.decrementAndGet();
+        connection.touch();
+
+        if (reusable && !closed && idleConnections.size() < maxIdle) {
+            idleConnections.offerFirst(connection);
+        } else {
+            connection.close();
+        }
+
+        permits.release();
+    }
+
+    /**
+     * 新建连接
+     *
+     * @param startTime 开始时间
+     * @return {@link PooledConnection} 连接
+     * @throws MessagingException 连接异常
+     */
+    private PooledConnection open(long startTime) throws MessagingException {
+        Transcript connectionTranscript = transcript.getEnabled() ? new Transcript(transcript.getBufferSize()) : null;
+        try {
+            return new PooledConnection(connector.connect(connectionTranscript), connectionTranscript);
+        } catch (MessagingException | RuntimeException e) {
+            if (connectionTranscript != null) {
+                record(connectionTranscript, Boolean.FALSE, System.currentTimeMillis() - startTime);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 输出会话记录: 失败与慢发送输出为 warn, 采样的成功发送输出为 info
+     *
+     * @param connectionTranscript 会话记录
+     * @param success              是否成功
+     * @param elapsed              耗时(毫秒)
+     */
+    private void record(Transcript connectionTranscript, boolean success, long elapsed) {
+        if (!success) {
+            transcriptLogger.warn("failed after {}ms\n{}", elapsed, connectionTranscript.dump());
+        } else if (elapsed >= transcript.getSlowThreshold()) {
+            transcriptLogger.warn("slow {}ms\n{}", elapsed, connectionTranscript.dump());
+        } else if (transcript.getSampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < transcript.getSampleRate()) {
+            transcriptLogger.info("sampled {}ms\n{}", elapsed, connectionTranscript.dump());
+        }
+    }
+
+    /**
+     * 使用一个空闲连接执行 NOOP, 不会新建连接
+     *
+     * @return {@link Boolean} 是否连通, 无空闲连接时返回 null
+     */
+    public Boolean checkIdle() {
+
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+
+        PooledConnection connection = pollIdle(Boolean.FALSE);
+        if (connection == null) {
+            permits.release();
+            return null;
+        }
+
+        if (connection.getTranscript() != null) {
+            connection.getTranscript().mark();
+        }
+        connection.borrowed(System.currentTimeMillis());
+        active.incrementAndGet();
+        boolean alive = connection.noop();
+        release(connection, alive);
+        return alive;
+    }
+
+    /**
+     * 关闭空闲超时的连接, 不影响未超时的空闲连接
+     */
+    public void evictIdle() {
+        idleConnections.removeIf(connection -> {
+            if (connection.isExpired(idleTimeout)) {
+                connection.close();
+                return Boolean.TRUE;
+            }
+            return Boolean.FALSE;
+        });
+    }
+
+    /**
+     * 取出未超时的空闲连接
+     *
+     * @param validate 是否对空闲超过 validateAfter 的连接执行 NOOP
+     * @return {@link PooledConnection} 空闲连接, 没有时返回 null
+     */
+    private PooledConnection pollIdle(boolean validate) {
+        PooledConnection connection;
+        while ((connection = idleConnections.pollFirst()) != null) {
+            if (connection.isExpired(idleTimeout)) {
+                connection.close();
+            } else if (validate && System.currentTimeMillis() - connection.getLastUsedTime() >= validateAfter && !connection.noop()) {
+                logger.debug("pollIdle discard broken connection");
+                connection.close();
+            } else {
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 借出的连接数
+     *
+     * @return int 借出的连接数
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * 空闲连接数
+     *
+     * @return int 空闲连接数
+     */
+    public int getIdle() {
+        return idleConnections.size();
+    }
+
+    /**
+     * 等待连接的线程数
+     *
+     * @return int 等待连接的线程数
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = Boolean.TRUE;
+        PooledConnection connection;
+        while ((connection = idleConnections.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+
+}
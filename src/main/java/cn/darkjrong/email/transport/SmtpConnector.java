@@ -0,0 +1,341 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.map.FixedLinkedHashMap;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.StrUtil;
+import com.sun.mail.smtp.SMTPTransport;
+import org.apache.commons.mail.DefaultAuthenticator;
+import org.apache.commons.mail.EmailConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SMTP 连接器
+ * <p>
+ * 配置了多个等价服务器时进行对冲连接: 前一个连接在对冲延迟内未建立, 则并行连接下一个服务器,
+ * 保留最先建立的连接, 关闭其余连接
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 09:20:15
+ */
+public class SmtpConnector {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpConnector.class);
+
+    static final int MAX_SESSIONS = 64;
+    private static final int REJECTED = 400;
+    private static final String MAIL_SMTP_LOCALHOST = "mail.smtp.localhost";
+
+    /**
+     * 会话缓存, 相同账号配置共用一个会话, {@link cn.darkjrong.email.EmailUtil} 每次调用不再重新创建;
+     * 超出容量时淘汰最久未使用的会话
+     */
+    private static final Map<List<Object>, Session> SESSIONS = new FixedLinkedHashMap<>(MAX_SESSIONS);
+
+    private static final ExecutorService CONNECT_EXECUTOR = Executors.newCachedThreadPool(
+            ThreadFactoryBuilder.create().setNamePrefix("email-connect-").setDaemon(true).build());
+
+    private final Session session;
+    private final List<String> hosts;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final long hedgeDelay;
+    private final EmailProperties.Transcript transcript;
+
+    public SmtpConnector(EmailProperties emailProperties) {
+        this(emailProperties, null);
+    }
+
+    /**
+     * @param emailProperties 电子邮件属性
+     * @param heloName        EHLO 声明的主机名, 为空时使用本机主机名
+     */
+    public SmtpConnector(EmailProperties emailProperties, String heloName) {
+        this.session = getSession(emailProperties, heloName);
+        this.transcript = emailProperties.getTranscript();
+        this.hosts = emailProperties.listHosts();
+        this.port = emailProperties.getPort();
+        this.hedgeDelay = emailProperties.getFailover().getHedgeDelay();
+        this.username = emailProperties.getAvoidAuthEnable() ? null : emailProperties.getUsername();
+        this.password = emailProperties.getAvoidAuthEnable() ? null : emailProperties.getPassword();
+    }
+
+    /**
+     * 建立连接
+     *
+     * @return {@link Transport} 已连接的传输对象
+     * @throws MessagingException 连接异常
+     */
+    public Transport connect() throws MessagingException {
+        return connect(null);
+    }
+
+    /**
+     * 建立连接, 连接的调试输出写入会话记录
+     *
+     * @param transcript 会话记录, 为 null 时不记录
+     * @return {@link Transport} 已连接的传输对象
+     * @throws MessagingException 连接异常
+     */
+    public Transport connect(Transcript transcript) throws MessagingException {
+        if (hosts.size() == 1) {
+            return connect(hosts.get(0), transcript);
+        }
+        return hedgedConnect(transcript);
+    }
+
+    /**
+     * 获取会话, 构建邮件与建立连接共用
+     *
+     * @return {@link Session} 会话
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * 获取服务器地址
+     *
+     * @return {@link List} 服务器地址
+     */
+    public List<String> getHosts() {
+        return hosts;
+    }
+
+    /**
+     * 获取会话记录配置
+     *
+     * @return {@link EmailProperties.Transcript} 会话记录配置
+     */
+    public EmailProperties.Transcript getTranscript() {
+        return transcript;
+    }
+
+    /**
+     * 连接指定服务器
+     *
+     * @param host       服务器地址
+     * @param transcript 会话记录, 为 null 时不记录
+     * @return {@link Transport} 已连接的传输对象
+     * @throws MessagingException 连接异常, 服务器以错误响应拒绝时为 {@link SmtpConnectException}
+     */
+    Transport connect(String host, Transcript transcript) throws MessagingException {
+        Transport transport = (transcript == null ? session : transcriptSession(transcript)).getTransport();
+        try {
+            transport.connect(host, port, username, password);
+        } catch (MessagingException e) {
+            // 问候或 EHLO 被拒绝时异常中没有响应码, 从传输对象读取
+            int returnCode = transport instanceof SMTPTransport ? ((SMTPTransport) transport).getLastReturnCode() : 0;
+            if (e.getClass() == MessagingException.class && returnCode >= REJECTED) {
+                throw new SmtpConnectException(e.getMessage(), returnCode, e);
+            }
+            throw e;
+        }
+        return transport;
+    }
+
+    /**
+     * 创建连接独占的会话, 调试输出写入会话记录, 不输出到标准输出; 认证命令不记录
+     *
+     * @param transcript 会话记录
+     * @return {@link Session} 会话
+     */
+    private Session transcriptSession(Transcript transcript) {
+        Properties properties = new Properties();
+        properties.putAll(session.getProperties());
+        properties.setProperty(EmailConstants.MAIL_DEBUG, Boolean.FALSE.toString());
+        Session transcriptSession = Session.getInstance(properties);
+        // 先设置输出再开启调试, 开启时的版本信息也写入会话记录
+        transcriptSession.setDebugOut(new PrintStream(transcript, Boolean.FALSE));
+        transcriptSession.setDebug(Boolean.TRUE);
+        return transcriptSession;
+    }
+
+    /**
+     * 对冲连接
+     *
+     * @param transcript 会话记录, 各服务器的连接尝试都写入其中
+     * @return {@link Transport} 最先建立的连接
+     * @throws MessagingException 全部服务器连接失败时为首个失败, 其余失败附加为 suppressed;
+     *                            等待时被中断则中断仍在进行的连接尝试, 异常信息包含已尝试的服务器
+     */
+    private Transport hedgedConnect(Transcript transcript) throws MessagingException {
+
+        CompletionService<Transport> completionService = new ExecutorCompletionService<>(CONNECT_EXECUTOR);
+        List<Future<Transport>> attempts = new ArrayList<>(hosts.size());
+        AtomicBoolean settled = new AtomicBoolean(Boolean.FALSE);
+        MessagingException failure = null;
+
+        int next = 0;
+        int running = 0;
+
+        try {
+            attempts.add(completionService.submit(attempt(hosts.get(next++), transcript, settled)));
+            running++;
+
+            while (running > 0) {
+
+                Future<Transport> done = next < hosts.size()
+                        ? completionService.poll(hedgeDelay, TimeUnit.MILLISECONDS)
+                        : completionService.take();
+
+                if (done == null) {
+                    attempts.add(completionService.submit(attempt(hosts.get(next++), transcript, settled)));
+                    running++;
+                    continue;
+                }
+
+                running--;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    MessagingException cause = e.getCause() instanceof MessagingException
+                            ? (MessagingException) e.getCause() : new MessagingException(String.valueOf(e.getCause()));
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                    if (next < hosts.size()) {
+                        attempts.add(completionService.submit(attempt(hosts.get(next++), transcript, settled)));
+                        running++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            MessagingException interrupted = new MessagingException("Interrupted while connecting, tried " + hosts.subList(0, next), e);
+            if (failure != null) {
+                interrupted.addSuppressed(failure);
+            }
+            throw interrupted;
+        } finally {
+            // 已决出或放弃时仍在进行的尝试不再需要; 之后建立的连接由尝试自身关闭
+            settled.set(Boolean.TRUE);
+            attempts.forEach(attempt -> attempt.cancel(Boolean.TRUE));
+        }
+
+        throw failure;
+    }
+
+    /**
+     * 单次连接尝试, 仅首个成功的连接被保留
+     *
+     * @param host       服务器地址
+     * @param transcript 会话记录
+     * @param settled    是否已决出连接
+     * @return {@link Callable} 连接任务
+     */
+    private Callable<Transport> attempt(String host, Transcript transcript, AtomicBoolean settled) {
+        return () -> {
+            Transport transport = connect(host, transcript);
+            if (settled.compareAndSet(Boolean.FALSE, Boolean.TRUE)) {
+                return transport;
+            }
+            close(transport);
+            throw new MessagingException("Hedged connection to " + host + " discarded");
+        };
+    }
+
+    /**
+     * 关闭连接
+     *
+     * @param transport 传输对象
+     */
+    public static void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            logger.warn("close {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取会话, 相同账号配置返回同一个会话
+     *
+     * @param emailProperties 电子邮件属性
+     * @param heloName        EHLO 声明的主机名
+     * @return {@link Session} 会话
+     */
+    private static Session getSession(EmailProperties emailProperties, String heloName) {
+
+        Properties properties = createProperties(emailProperties);
+        if (StrUtil.isNotBlank(heloName)) {
+            properties.setProperty(MAIL_SMTP_LOCALHOST, heloName);
+        }
+        String username = emailProperties.getAvoidAuthEnable() ? null : emailProperties.getUsername();
+        String password = emailProperties.getAvoidAuthEnable() ? null : emailProperties.getPassword();
+        List<Object> key = Arrays.asList(properties, username, password);
+
+        synchronized (SESSIONS) {
+            Session session = SESSIONS.get(key);
+            if (session == null) {
+                DefaultAuthenticator authenticator = emailProperties.getAvoidAuthEnable() ? null : new DefaultAuthenticator(username, password);
+                session = Session.getInstance(properties, authenticator);
+                SESSIONS.put(key, session);
+            }
+            return session;
+        }
+    }
+
+    /**
+     * 创建会话属性, 与 commons-email 构建的会话属性一致
+     *
+     * @param emailProperties 电子邮件属性
+     * @return {@link Properties} 会话属性
+     */
+    private static Properties createProperties(EmailProperties emailProperties) {
+
+        Properties properties = new Properties();
+        properties.setProperty(EmailConstants.MAIL_TRANSPORT_PROTOCOL, EmailConstants.SMTP);
+        properties.setProperty(EmailConstants.MAIL_PORT, Convert.toStr(emailProperties.getPort()));
+        properties.setProperty(EmailConstants.MAIL_HOST, emailProperties.getHost());
+        properties.setProperty(EmailConstants.MAIL_DEBUG, Convert.toStr(emailProperties.getDebug()));
+        properties.setProperty(EmailConstants.MAIL_TRANSPORT_STARTTLS_ENABLE, Convert.toStr(emailProperties.getStartTlsEnabled()));
+        properties.setProperty(EmailConstants.MAIL_TRANSPORT_STARTTLS_REQUIRED, Convert.toStr(emailProperties.getStartTlsRequired()));
+        properties.setProperty(EmailConstants.MAIL_SMTP_SEND_PARTIAL, Convert.toStr(emailProperties.getSendPartial()));
+        properties.setProperty(EmailConstants.MAIL_SMTPS_SEND_PARTIAL, Convert.toStr(emailProperties.getSendPartial()));
+        properties.setProperty(EmailConstants.MAIL_SMTP_TIMEOUT, Convert.toStr(emailProperties.getTimeout()));
+        properties.setProperty(EmailConstants.MAIL_SMTP_CONNECTIONTIMEOUT, Convert.toStr(emailProperties.getConnectionTimeout()));
+
+        if (!emailProperties.getAvoidAuthEnable()) {
+            properties.setProperty(EmailConstants.MAIL_SMTP_AUTH, Boolean.TRUE.toString());
+        }
+
+        if (emailProperties.getSslEnable()) {
+            properties.setProperty(EmailConstants.MAIL_SMTP_SOCKET_FACTORY_PORT, Convert.toStr(emailProperties.getPort()));
+            properties.setProperty(EmailConstants.MAIL_SMTP_SOCKET_FACTORY_CLASS, "javax.net.ssl.SSLSocketFactory");
+            properties.setProperty(EmailConstants.MAIL_SMTP_SOCKET_FACTORY_FALLBACK, Boolean.FALSE.toString());
+        }
+
+        if (emailProperties.getSslEnable() || emailProperties.getStartTlsEnabled()) {
+            properties.setProperty(EmailConstants.MAIL_SMTP_SSL_CHECKSERVERIDENTITY, Convert.toStr(emailProperties.getSslCheckServerIdentity()));
+        }
+
+        if (emailProperties.getBounceEnable()) {
+            properties.setProperty(EmailConstants.MAIL_SMTP_FROM, emailProperties.getUsername());
+        }
+
+        if (StrUtil.isNotBlank(emailProperties.getFrom().getEmail())) {
+            properties.setProperty(EmailConstants.MAIL_FROM, emailProperties.getFrom().getEmail());
+        }
+
+        return properties;
+    }
+
+}
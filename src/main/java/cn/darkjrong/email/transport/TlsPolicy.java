@@ -0,0 +1,22 @@
+package cn.darkjrong.email.transport;
+
+/**
+ * 直投 MX 的 STARTTLS 策略
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 08:52:16
+ */
+public enum TlsPolicy {
+
+    // 服务器支持时使用 STARTTLS, 不支持或握手失败时明文投递
+    OPPORTUNISTIC,
+
+    // 必须使用 STARTTLS, 服务器不支持或握手失败时投递失败
+    REQUIRED,
+
+    // 不使用 STARTTLS
+    NONE,
+
+    ;
+
+}
@@ -0,0 +1,126 @@
+package cn.darkjrong.email.transport;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SMTP 会话记录
+ * <p>
+ * 每个连接一个, 接收连接会话的调试输出, 写入固定大小的环形缓冲区, 只保留最近的内容;
+ * DATA 之后的邮件内容不记录, 以字节数代替, 避免大邮件覆盖协议交互
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 02:46:51
+ */
+public class Transcript extends OutputStream {
+
+    private static final int COMMAND = 0;
+    private static final int DATA = 1;
+    private static final int CONTENT = 2;
+
+    private static final int DATA_COMMAND = ('D' << 24) | ('A' << 16) | ('T' << 8) | 'A';
+    private static final int START_MAIL_INPUT = ('3' << 16) | ('5' << 8) | '4';
+
+    private final byte[] buffer;
+
+    /**
+     * 写入缓冲区的总字节数
+     */
+    private long written;
+    private long mark;
+
+    private int state = COMMAND;
+    private int prefix;
+    private int lineLength;
+    private long skipped;
+
+    public Transcript(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        accept((byte) b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            accept(b[i]);
+        }
+    }
+
+    private void accept(byte b) {
+
+        if (b != '\n') {
+            if (lineLength < 4) {
+                prefix = (prefix << 8) | (b & 0xFF);
+            }
+            lineLength++;
+            if (state == CONTENT) {
+                skipped++;
+            } else {
+                append(b);
+            }
+            return;
+        }
+
+        int length = lineLength;
+        int start = prefix;
+        lineLength = 0;
+        prefix = 0;
+
+        if (state == CONTENT) {
+            // 结束行为 "."
+            if (length <= 2 && (start == '.' || start == (('.' << 8) | '\r'))) {
+                skipped -= length;
+                append(String.format("[%d bytes of message content]\r\n.\r\n", skipped).getBytes(StandardCharsets.US_ASCII));
+                state = COMMAND;
+            } else {
+                skipped++;
+            }
+            return;
+        }
+
+        append(b);
+        if (state == DATA && length >= 3) {
+            state = (start >>> (8 * (Math.min(length, 4) - 3))) == START_MAIL_INPUT ? CONTENT : COMMAND;
+            skipped = 0;
+        } else if (state == COMMAND && (length == 4 || length == 5) && start == DATA_COMMAND) {
+            state = DATA;
+        }
+    }
+
+    private void append(byte b) {
+        buffer[(int) (written++ % buffer.length)] = b;
+    }
+
+    private void append(byte[] bytes) {
+        for (byte b : bytes) {
+            append(b);
+        }
+    }
+
+    /**
+     * 标记位置, {@link #dump()} 只输出标记之后的内容
+     */
+    public synchronized void mark() {
+        mark = written;
+    }
+
+    /**
+     * 输出标记之后的内容, 已被覆盖的部分丢失
+     *
+     * @return {@link String} 会话记录
+     */
+    public synchronized String dump() {
+        long from = Math.max(mark, written - buffer.length);
+        byte[] bytes = new byte[(int) (written - from)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer[(int) ((from + i) % buffer.length)];
+        }
+        String transcript = new String(bytes, StandardCharsets.UTF_8);
+        return from > mark ? "[" + (from - mark) + " bytes truncated]\n" + transcript : transcript;
+    }
+
+}
@@ -0,0 +1,207 @@
+package cn.darkjrong.email.validation;
+
+import java.net.IDN;
+
+/**
+ * 邮箱地址语法检查, 按 RFC 5321 逐字符扫描, 不使用正则, ASCII 地址不创建对象
+ * <p>
+ * 本地部分为 dot-atom 或带引号的字符串, 最长 64; 域名为至少两级的标签或地址字面量([1.2.3.4]、[IPv6:...]),
+ * 标签只能包含字母、数字、连字符且不以连字符开头结尾, 最长 63; 地址最长 254.
+ * javax.mail 1.5 不支持 SMTPUTF8, 本地部分的非 ASCII 字符无效; 国际化域名先按 IDNA 转换为 punycode(xn--) 再检查,
+ * 与发送时的转换一致
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 23:55:40
+ */
+public final class AddressScanner {
+
+    private static final int MAX_ADDRESS = 254;
+    private static final int MAX_LOCAL = 64;
+    private static final int MAX_LABEL = 63;
+
+    private AddressScanner() {
+    }
+
+    /**
+     * 地址语法是否有效, 忽略首尾空白
+     *
+     * @param address 邮箱地址
+     * @return boolean 是否有效
+     */
+    public static boolean isValid(CharSequence address) {
+        return domainStart(address) >= 0;
+    }
+
+    /**
+     * 检查地址语法, 返回域名起始位置
+     *
+     * @param address 邮箱地址
+     * @return int 域名起始位置, 无效时为 -1
+     */
+    static int domainStart(CharSequence address) {
+
+        if (address == null) {
+            return -1;
+        }
+        int start = 0;
+        int end = address.length();
+        while (start < end && Character.isWhitespace(address.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(address.charAt(end - 1))) {
+            end--;
+        }
+        if (end == start || end - start > MAX_ADDRESS) {
+            return -1;
+        }
+
+        int at = address.charAt(start) == '"' ? scanQuoted(address, start, end) : scanDotAtom(address, start, end);
+        if (at < 0 || at - start > MAX_LOCAL || address.charAt(at) != '@') {
+            return -1;
+        }
+
+        if (at + 1 < end && address.charAt(at + 1) == '[') {
+            return scanLiteral(address, at + 2, end) ? at + 1 : -1;
+        }
+        if (isAscii(address, at + 1, end)) {
+            return scanDomain(address, at + 1, end) ? at + 1 : -1;
+        }
+        String domain = toAscii(address.subSequence(at + 1, end).toString());
+        return domain != null && at + 1 - start + domain.length() <= MAX_ADDRESS
+                && scanDomain(domain, 0, domain.length()) ? at + 1 : -1;
+    }
+
+    /**
+     * 将国际化域名转换为 punycode, ASCII 域名原样返回
+     *
+     * @param domain 域名
+     * @return {@link String} ASCII 域名, 无法转换时为 null
+     */
+    static String toAscii(String domain) {
+        if (isAscii(domain, 0, domain.length())) {
+            return domain;
+        }
+        try {
+            return IDN.toASCII(domain);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isAscii(CharSequence address, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (address.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return int '@' 的位置, 无效时为 -1
+     */
+    private static int scanDotAtom(CharSequence address, int start, int end) {
+        boolean afterDot = true;
+        for (int i = start; i < end; i++) {
+            char c = address.charAt(i);
+            if (c == '@') {
+                return afterDot ? -1 : i;
+            }
+            if (c == '.') {
+                if (afterDot) {
+                    return -1;
+                }
+                afterDot = true;
+            } else if (isAtext(c)) {
+                afterDot = false;
+            } else {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return int '@' 的位置, 无效时为 -1
+     */
+    private static int scanQuoted(CharSequence address, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            char c = address.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1 < end ? i + 1 : -1;
+            } else if ((c < 0x20 && c != '\t') || c == 0x7f) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean scanDomain(CharSequence address, int start, int end) {
+        int labelStart = start;
+        int labels = 0;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? address.charAt(i) : '.';
+            if (c == '.') {
+                int length = i - labelStart;
+                if (length == 0 || length > MAX_LABEL
+                        || address.charAt(labelStart) == '-' || address.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labels++;
+                labelStart = i + 1;
+            } else if (!isLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        return labels >= 2;
+    }
+
+    private static boolean scanLiteral(CharSequence address, int start, int end) {
+        if (end - start < 2 || address.charAt(end - 1) != ']') {
+            return false;
+        }
+        int i = start;
+        boolean ipv6 = end - start > 5 && "IPv6:".contentEquals(address.subSequence(start, start + 5));
+        if (ipv6) {
+            i += 5;
+        }
+        int parts = 0;
+        int digits = 0;
+        for (; i < end - 1; i++) {
+            char c = address.charAt(i);
+            if (ipv6 ? (isHex(c) || c == ':' || c == '.') : (c >= '0' && c <= '9')) {
+                digits++;
+            } else if (!ipv6 && c == '.' && digits > 0 && digits <= 3) {
+                parts++;
+                digits = 0;
+            } else {
+                return false;
+            }
+        }
+        return ipv6 ? digits > 1 : parts == 3 && digits > 0 && digits <= 3;
+    }
+
+    private static boolean isAtext(char c) {
+        if (isLetterOrDigit(c)) {
+            return true;
+        }
+        switch (c) {
+            case '!': case '#': case '$': case '%': case '&': case '\'': case '*': case '+': case '-':
+            case '/': case '=': case '?': case '^': case '_': case '`': case '{': case '|': case '}': case '~':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+}
@@ -0,0 +1,112 @@
+package cn.darkjrong.email.validation;
+
+import cn.darkjrong.email.mx.DomainNotFoundException;
+import cn.darkjrong.email.mx.JndiMxResolver;
+import cn.darkjrong.email.mx.MxResolver;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.map.FixedLinkedHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.MessagingException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 收件人校验, 构建邮件之前检查地址语法, 可选检查域名是否存在
+ * <p>
+ * 域名检查结果(存在与不存在)缓存 ttl, 超出容量时淘汰最久未使用的域名; DNS 查询失败时视为有效且不缓存, 不因 DNS 故障拒绝收件人
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 00:08:31
+ */
+public class RecipientValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipientValidator.class);
+
+    static final int MAX_DOMAINS = 10000;
+
+    private final boolean checkDomain;
+    private final long ttl;
+    private final Map<String, Entry> domains = new FixedLinkedHashMap<>(MAX_DOMAINS);
+    private volatile MxResolver mxResolver;
+
+    public RecipientValidator(EmailProperties.Validation validation) {
+        this.checkDomain = validation.getCheckDomain();
+        this.ttl = validation.getDomainTtl();
+        this.mxResolver = new JndiMxResolver(ttl);
+    }
+
+    /**
+     * 地址是否有效
+     *
+     * @param address 邮箱地址
+     * @return boolean 是否有效
+     */
+    public boolean isValid(String address) {
+
+        int domainStart = AddressScanner.domainStart(address);
+        if (domainStart < 0) {
+            return false;
+        }
+        if (!checkDomain || address.charAt(domainStart) == '[') {
+            return true;
+        }
+        return domainExists(AddressScanner.toAscii(address.substring(domainStart).trim()).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 域名是否存在, 有 MX 记录或地址记录且不是 null MX
+     *
+     * @param domain 域名
+     * @return boolean 是否存在
+     */
+    private boolean domainExists(String domain) {
+
+        Entry entry;
+        synchronized (domains) {
+            entry = domains.get(domain);
+        }
+        if (entry != null && entry.expireTime > System.currentTimeMillis()) {
+            return entry.exists;
+        }
+
+        boolean exists;
+        try {
+            mxResolver.resolve(domain);
+            exists = Boolean.TRUE;
+        } catch (DomainNotFoundException e) {
+            exists = Boolean.FALSE;
+        } catch (MessagingException e) {
+            logger.warn("domainExists {} {}", domain, e.getMessage());
+            return Boolean.TRUE;
+        }
+
+        synchronized (domains) {
+            domains.put(domain, new Entry(exists, System.currentTimeMillis() + ttl));
+        }
+        return exists;
+    }
+
+    /**
+     * 设置 MX 记录解析器, 与直投 MX 共用
+     *
+     * @param mxResolver MX 记录解析器
+     */
+    public void setMxResolver(MxResolver mxResolver) {
+        this.mxResolver = mxResolver;
+    }
+
+    private static class Entry {
+
+        private final boolean exists;
+        private final long expireTime;
+
+        Entry(boolean exists, long expireTime) {
+            this.exists = exists;
+            this.expireTime = expireTime;
+        }
+
+    }
+
+}
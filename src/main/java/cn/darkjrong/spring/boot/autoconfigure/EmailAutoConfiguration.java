@@ -1,10 +1,29 @@
 package cn.darkjrong.spring.boot.autoconfigure;
 
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.async.AsyncEmailSender;
+import cn.darkjrong.email.bounce.BounceProcessor;
+import cn.darkjrong.email.outbox.JdbcEmailOutbox;
+import cn.darkjrong.email.reactive.ReactiveEmailTemplate;
+import cn.darkjrong.email.suppression.MappedSuppressionList;
+import cn.darkjrong.email.suppression.MemorySuppressionList;
+import cn.darkjrong.email.suppression.SuppressionList;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import reactor.core.publisher.Flux;
+
+import javax.sql.DataSource;
 
 
 /**
@@ -14,6 +33,7 @@ import org.springframework.context.annotation.Configuration;
  * @date 2021/07/26 11:10:23
  */
 @Configuration
+@AutoConfigureAfter(name = "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration")
 @ConditionalOnProperty(prefix = "email", name = "enabled", havingValue = "true")
 @ConditionalOnClass({EmailProperties.class})
 @EnableConfigurationProperties({EmailProperties.class})
@@ -30,6 +50,132 @@ public class EmailAutoConfiguration {
         return new EmailFactoryBean(emailProperties);
     }
 
+    /**
+     * 健康检查配置
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 10:40:02
+     */
+    @Configuration
+    @ConditionalOnClass(HealthIndicator.class)
+    @ConditionalOnProperty(prefix = "email.health", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class EmailHealthConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "emailHealthIndicator")
+        public EmailHealthIndicator emailHealthIndicator(EmailTemplate emailTemplate, EmailProperties emailProperties,
+                                                         ObjectProvider<AsyncEmailSender> asyncEmailSender) {
+            return new EmailHealthIndicator(emailTemplate, emailProperties.getHealth().getTtl(), asyncEmailSender.getIfAvailable());
+        }
+
+    }
+
+    /**
+     * 响应式发送配置
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 11:24:31
+     */
+    @Configuration
+    @ConditionalOnClass(Flux.class)
+    static class ReactiveEmailConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactiveEmailTemplate reactiveEmailTemplate(EmailTemplate emailTemplate, EmailProperties emailProperties) {
+            return new ReactiveEmailTemplate(emailTemplate, emailProperties.getReactive().getConcurrency());
+        }
+
+    }
+
+    /**
+     * 事务发件箱配置
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 15:31:40
+     */
+    @Configuration
+    @ConditionalOnClass(JdbcTemplate.class)
+    @ConditionalOnBean(DataSource.class)
+    @ConditionalOnProperty(prefix = "email.outbox", name = "enabled", havingValue = "true")
+    static class EmailOutboxConfiguration {
+
+        @Bean(initMethod = "start")
+        @ConditionalOnMissingBean
+        public JdbcEmailOutbox jdbcEmailOutbox(EmailTemplate emailTemplate, DataSource dataSource, EmailProperties emailProperties) {
+
+            if (emailProperties.getOutbox().getInitializeSchema()) {
+                new ResourceDatabasePopulator(new ClassPathResource("META-INF/email/outbox-schema.sql")).execute(dataSource);
+            }
+
+            return new JdbcEmailOutbox(emailTemplate, dataSource, emailProperties.getOutbox());
+        }
+
+    }
+
+    /**
+     * 异步发送配置
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 20:32:18
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "email.async", name = "enabled", havingValue = "true")
+    static class AsyncEmailConfiguration {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public AsyncEmailSender asyncEmailSender(EmailTemplate emailTemplate, EmailProperties emailProperties) {
+            return new AsyncEmailSender(emailTemplate, emailProperties.getAsync());
+        }
+
+    }
+
+    /**
+     * 抑制列表配置
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 23:36:50
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "email.suppression", name = "enabled", havingValue = "true")
+    static class SuppressionListConfiguration {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public SuppressionList suppressionList(EmailProperties emailProperties) {
+            return new MappedSuppressionList(emailProperties.getSuppression());
+        }
+
+    }
+
+    /**
+     * 退信处理配置
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 22:58:30
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "email.bounce", name = "enabled", havingValue = "true")
+    static class BounceProcessorConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public SuppressionList memorySuppressionList() {
+            return new MemorySuppressionList();
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public BounceProcessor bounceProcessor(EmailProperties emailProperties, SuppressionList suppressionList,
+                                               EmailTemplate emailTemplate) {
+            return new BounceProcessor(emailProperties, suppressionList, emailTemplate);
+        }
+
+    }
+
+
+
 
 
 
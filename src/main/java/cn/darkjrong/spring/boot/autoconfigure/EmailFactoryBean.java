@@ -1,11 +1,18 @@
 package cn.darkjrong.spring.boot.autoconfigure;
 
 import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.event.EmailListener;
 import cn.darkjrong.email.exception.ExceptionEnum;
+import cn.darkjrong.email.idempotent.IdempotencyStore;
+import cn.darkjrong.email.mx.MxResolver;
+import cn.darkjrong.email.processor.MessageProcessor;
+import cn.darkjrong.email.suppression.SuppressionList;
+import cn.darkjrong.email.trace.SendTracer;
 import cn.hutool.core.lang.Assert;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
@@ -17,7 +24,7 @@ import org.springframework.context.ApplicationContextAware;
  * @author Rong.Jia
  * @date 2021/07/26 13:53:17
  */
-public class EmailFactoryBean implements FactoryBean<EmailTemplate>, InitializingBean, ApplicationContextAware {
+public class EmailFactoryBean implements FactoryBean<EmailTemplate>, InitializingBean, DisposableBean, ApplicationContextAware {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailFactoryBean.class);
 
@@ -71,6 +78,24 @@ public class EmailFactoryBean implements FactoryBean<EmailTemplate>, Initializin
 
 
         emailTemplate = new EmailTemplate(emailProperties);
+
+        if (applicationContext != null) {
+            applicationContext.getBeanProvider(IdempotencyStore.class).ifAvailable(emailTemplate::setIdempotencyStore);
+            applicationContext.getBeanProvider(MxResolver.class).ifAvailable(emailTemplate::setMxResolver);
+            applicationContext.getBeanProvider(SuppressionList.class).ifAvailable(emailTemplate::setSuppressionList);
+            applicationContext.getBeanProvider(SendTracer.class).ifAvailable(emailTemplate::setSendTracer);
+            applicationContext.getBeanProvider(MessageProcessor.class).orderedStream().forEach(emailTemplate::addMessageProcessor);
+            applicationContext.getBeanProvider(EmailListener.class).orderedStream().forEach(emailTemplate::addListener);
+        }
+
+        emailTemplate.prewarm();
+    }
+
+    @Override
+    public void destroy() {
+        if (emailTemplate != null) {
+            emailTemplate.close();
+        }
     }
 
 
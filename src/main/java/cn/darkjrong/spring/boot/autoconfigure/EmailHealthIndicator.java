@@ -0,0 +1,120 @@
+package cn.darkjrong.spring.boot.autoconfigure;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.async.AsyncEmailSender;
+import cn.darkjrong.email.transport.DomainBulkhead;
+import cn.darkjrong.email.transport.SmtpConnectionPool;
+import cn.hutool.core.date.DateUtil;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.util.Map;
+
+/**
+ * 电子邮件健康检查
+ * <p>
+ * 仅使用连接池中的空闲连接执行 NOOP, 不会为探测新建连接; 检查结果在 ttl 内复用,
+ * 探测频率不会放大为邮件服务器的连接压力
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 10:31:26
+ */
+public class EmailHealthIndicator implements HealthIndicator {
+
+    private final EmailTemplate emailTemplate;
+    private final long ttl;
+    private final AsyncEmailSender asyncEmailSender;
+
+    private volatile Health cachedHealth;
+    private volatile long expireTime;
+
+    public EmailHealthIndicator(EmailTemplate emailTemplate, long ttl) {
+        this(emailTemplate, ttl, null);
+    }
+
+    public EmailHealthIndicator(EmailTemplate emailTemplate, long ttl, AsyncEmailSender asyncEmailSender) {
+        this.emailTemplate = emailTemplate;
+        this.ttl = ttl;
+        this.asyncEmailSender = asyncEmailSender;
+    }
+
+    @Override
+    public Health health() {
+
+        Health health = cachedHealth;
+        if (health != null && System.currentTimeMillis() < expireTime) {
+            return health;
+        }
+
+        synchronized (this) {
+            if (cachedHealth == null || System.currentTimeMillis() >= expireTime) {
+                cachedHealth = doHealthCheck();
+                expireTime = System.currentTimeMillis() + ttl;
+            }
+            return cachedHealth;
+        }
+    }
+
+    /**
+     * 执行检查
+     *
+     * @return {@link Health} 检查结果
+     */
+    private Health doHealthCheck() {
+
+        SmtpConnectionPool pool = emailTemplate.getConnectionPool();
+        long lastSuccessTime = emailTemplate.getLastSuccessTime();
+        long lastFailureTime = emailTemplate.getLastFailureTime();
+
+        Boolean connected = pool.checkIdle();
+
+        Health.Builder builder;
+        if (connected != null) {
+            builder = connected ? Health.up() : Health.down();
+        } else if (lastFailureTime > lastSuccessTime) {
+            builder = Health.down();
+        } else if (lastSuccessTime > 0) {
+            builder = Health.up();
+        } else {
+            builder = Health.unknown();
+        }
+
+        builder.withDetail("connectivity", connected == null ? "skipped, no idle connection" : (connected ? "NOOP ok" : "NOOP failed"))
+                .withDetail("active", pool.getActive())
+                .withDetail("idle", pool.getIdle())
+                .withDetail("maxTotal", pool.getMaxTotal())
+                .withDetail("utilisation", (double) pool.getActive() / pool.getMaxTotal())
+                .withDetail("waiting", emailTemplate.getPriorityLanes().getWaiting());
+
+        if (emailTemplate.getPriorityLanes().getLimit() != null) {
+            builder.withDetail("concurrencyLimit", emailTemplate.getPriorityLanes().getLimit().getLimit());
+        }
+        DomainBulkhead domainBulkhead = emailTemplate.getDomainBulkhead();
+        if (domainBulkhead != null) {
+            builder.withDetail("domainInUse", domainBulkhead.getInUse());
+            Map<String, Integer> adaptiveLimits = domainBulkhead.getAdaptiveLimits();
+            if (!adaptiveLimits.isEmpty()) {
+                builder.withDetail("domainLimits", adaptiveLimits);
+            }
+        }
+
+        if (asyncEmailSender != null) {
+            builder.withDetail("queueSize", asyncEmailSender.getQueued())
+                    .withDetail("queueBytes", asyncEmailSender.getQueuedBytes())
+                    .withDetail("inFlightBytes", asyncEmailSender.getInFlightBytes())
+                    .withDetail("spilled", asyncEmailSender.getSpilled())
+                    .withDetail("rejected", asyncEmailSender.getRejected())
+                    .withDetail("dropped", asyncEmailSender.getDropped());
+        }
+
+        if (lastSuccessTime > 0) {
+            builder.withDetail("lastSuccessTime", DateUtil.date(lastSuccessTime).toString());
+        }
+        if (lastFailureTime > 0) {
+            builder.withDetail("lastFailureTime", DateUtil.date(lastFailureTime).toString());
+        }
+
+        return builder.build();
+    }
+
+}
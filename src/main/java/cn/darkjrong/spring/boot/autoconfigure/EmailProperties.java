@@ -1,10 +1,19 @@
 package cn.darkjrong.spring.boot.autoconfigure;
 
+import cn.darkjrong.email.async.OverflowPolicy;
+import cn.darkjrong.email.transport.TlsPolicy;
+import cn.darkjrong.email.attachment.CompressionFormat;
 import cn.hutool.core.util.CharsetUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 电子邮件属性
  *
@@ -96,6 +105,11 @@ public class EmailProperties {
      */
     private Boolean startTlsRequired = Boolean.FALSE;
 
+    /**
+     * 文本正文以 8bit 编码发送, 不再使用 quoted-printable 或 base64; 服务器不支持 8BITMIME 时该次发送改回原编码， 默认：false
+     */
+    private Boolean eightBitMimeEnabled = Boolean.FALSE;
+
     /**
      * pop3
      */
@@ -106,6 +120,96 @@ public class EmailProperties {
      */
     private From from = new From();
 
+    /**
+     * 故障转移
+     */
+    private Failover failover = new Failover();
+
+    /**
+     * 连接池
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * 健康检查
+     */
+    private Health health = new Health();
+
+    /**
+     * 响应式发送
+     */
+    private Reactive reactive = new Reactive();
+
+    /**
+     * 优先级通道
+     */
+    private Lanes lanes = new Lanes();
+
+    /**
+     * 幂等
+     */
+    private Idempotency idempotency = new Idempotency();
+
+    /**
+     * 事务发件箱
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * DKIM 签名
+     */
+    private Dkim dkim = new Dkim();
+
+    /**
+     * 附件压缩
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * 直投 MX
+     */
+    private Direct direct = new Direct();
+
+    /**
+     * 异步发送
+     */
+    private Async async = new Async();
+
+    /**
+     * 发送事件
+     */
+    private Events events = new Events();
+
+    /**
+     * 退信处理
+     */
+    private Bounce bounce = new Bounce();
+
+    /**
+     * 抑制列表
+     */
+    private Suppression suppression = new Suppression();
+
+    /**
+     * 收件人校验
+     */
+    private Validation validation = new Validation();
+
+    /**
+     * 收件域名隔离
+     */
+    private Bulkhead bulkhead = new Bulkhead();
+
+    /**
+     * 自适应并发
+     */
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * 会话记录
+     */
+    private Transcript transcript = new Transcript();
+
     /**
      * pop3
      *
@@ -158,6 +262,607 @@ public class EmailProperties {
 
     }
 
+    /**
+     * 故障转移, 与 host 等价的备用服务器
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 09:12:40
+     */
+    @Data
+    public static class Failover {
+
+        /**
+         * 备用服务器地址, 端口、账号与主服务器一致
+         */
+        private List<String> hosts = new ArrayList<>();
+
+        /**
+         * 对冲延迟(毫秒), 前一个连接在该时间内未建立时并行连接下一个服务器, 默认：200
+         */
+        private Integer hedgeDelay = 200;
+
+    }
+
+    /**
+     * 连接池
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 10:02:11
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * 是否复用连接, 关闭后每次发送结束即断开连接, 默认：true
+         */
+        private Boolean enabled = Boolean.TRUE;
+
+        /**
+         * 最大连接数, 默认：8
+         */
+        private Integer maxTotal = 8;
+
+        /**
+         * 最大空闲连接数, 默认：8
+         */
+        private Integer maxIdle = 8;
+
+        /**
+         * 获取连接最大等待时间(毫秒), 默认：3000
+         */
+        private Long maxWait = 3000L;
+
+        /**
+         * 空闲超时时间(毫秒), 超时的连接不再复用, 应小于服务器的空闲断开时间, 默认：30000
+         */
+        private Long idleTimeout = 30000L;
+
+        /**
+         * 空闲超过该时间(毫秒)的连接借出前先执行 NOOP, 已被服务器断开的连接关闭后改用其他连接, 0 为每次借出都检查, 默认：2000
+         */
+        private Long validateAfter = 2000L;
+
+        /**
+         * 启动时在后台预先建立并认证的连接数, 不阻塞启动, 默认：0
+         */
+        private Integer prewarm = 0;
+
+    }
+
+    /**
+     * 健康检查
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 10:02:11
+     */
+    @Data
+    public static class Health {
+
+        /**
+         * 是否开启, 默认：true
+         */
+        private Boolean enabled = Boolean.TRUE;
+
+        /**
+         * 检查结果缓存时间(毫秒), 缓存期内的探测不会访问邮件服务器, 默认：30000
+         */
+        private Long ttl = 30000L;
+
+    }
+
+    /**
+     * 响应式发送
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 11:16:09
+     */
+    @Data
+    public static class Reactive {
+
+        /**
+         * 同时发送的最大邮件数, 超出的请求不会从上游拉取, 默认：8
+         */
+        private Integer concurrency = 8;
+
+    }
+
+    /**
+     * 优先级通道, 连接总数为 pool.max-total
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 13:08:40
+     */
+    @Data
+    public static class Lanes {
+
+        /**
+         * 为高优先级预留的连接数, 默认：2
+         */
+        private Integer highReserved = 2;
+
+        /**
+         * 低优先级最多使用的连接数, 不设置时可使用全部共享连接
+         */
+        private Integer lowMax;
+
+    }
+
+    /**
+     * 幂等, 仅对设置了幂等键的发送请求生效
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 14:20:13
+     */
+    @Data
+    public static class Idempotency {
+
+        /**
+         * 内存中最多保存的幂等键数, 默认：100000
+         */
+        private Integer capacity = 100000;
+
+        /**
+         * 幂等键有效期(毫秒), 默认：86400000
+         */
+        private Long window = 86400000L;
+
+    }
+
+    /**
+     * 事务发件箱, 表结构见 META-INF/email/outbox-schema.sql
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 15:02:27
+     */
+    @Data
+    public static class Outbox {
+
+        /**
+         * 是否开启, 需要 spring-jdbc 与数据源, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * 是否启动时执行建表脚本, 默认：false
+         */
+        private Boolean initializeSchema = Boolean.FALSE;
+
+        /**
+         * 表名, 默认：email_outbox
+         */
+        private String table = "email_outbox";
+
+        /**
+         * 每批认领的记录数, 默认：100
+         */
+        private Integer batchSize = 100;
+
+        /**
+         * 轮询间隔(毫秒), 默认：1000
+         */
+        private Long pollInterval = 1000L;
+
+        /**
+         * 认领租约(毫秒), 超时未完成的记录可被其他节点重新认领, 默认：60000
+         */
+        private Long lease = 60000L;
+
+        /**
+         * 最大尝试次数, 超出后标记为失败, 默认：5
+         */
+        private Integer maxAttempts = 5;
+
+        /**
+         * 失败重试间隔(毫秒), 默认：30000
+         */
+        private Long retryDelay = 30000L;
+
+        /**
+         * 每个节点同时发送的记录数, 默认：4
+         */
+        private Integer concurrency = 4;
+
+        /**
+         * 是否使用 SELECT ... FOR UPDATE SKIP LOCKED 认领, 数据库支持时(MySQL 8、PostgreSQL 9.5+)开启, 默认：false
+         */
+        private Boolean skipLocked = Boolean.FALSE;
+
+    }
+
+    /**
+     * DKIM 签名, 算法 rsa-sha256, 规范化方式 relaxed/relaxed
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 16:08:21
+     */
+    @Data
+    public static class Dkim {
+
+        /**
+         * 是否开启, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * 签名域名(d=), 与发件人邮箱域名一致
+         */
+        private String domain;
+
+        /**
+         * 选择器(s=), 公钥发布于 {selector}._domainkey.{domain} 的 TXT 记录
+         */
+        private String selector;
+
+        /**
+         * PKCS#8 格式私钥, PEM 内容或文件路径
+         */
+        private String privateKey;
+
+        /**
+         * 签名的邮件头, 邮件中不存在的忽略
+         */
+        private List<String> headers = new ArrayList<>(Arrays.asList("From", "To", "Cc", "Reply-To", "Subject",
+                "Date", "Message-ID", "MIME-Version", "Content-Type", "Content-Transfer-Encoding"));
+
+    }
+
+    /**
+     * 附件压缩, 仅本地文件, 边读取边压缩, 不生成压缩副本
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 17:00:26
+     */
+    @Data
+    public static class Compression {
+
+        /**
+         * 是否开启, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * 压缩格式, 默认：zip
+         */
+        private CompressionFormat format = CompressionFormat.ZIP;
+
+        /**
+         * 压缩阈值(字节), 小于该大小的附件不压缩, 默认：1048576
+         */
+        private Long threshold = 1048576L;
+
+        /**
+         * 允许压缩的内容类型, 支持 text/* 形式
+         */
+        private List<String> contentTypes = new ArrayList<>(Arrays.asList("text/*", "application/json", "application/xml"));
+
+    }
+
+    /**
+     * 直投 MX, 开启后不经过 host 中继, 按收件人域名的 MX 记录直接投递
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 17:48:55
+     */
+    @Data
+    public static class Direct {
+
+        /**
+         * 是否开启, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * MX 服务器端口, 默认：25
+         */
+        private Integer port = 25;
+
+        /**
+         * MX 记录最长缓存时间(毫秒), 默认：300000
+         */
+        private Long ttl = 300000L;
+
+        /**
+         * 每个 MX 服务器的最大连接数, 默认：2
+         */
+        private Integer maxPerMx = 2;
+
+        /**
+         * STARTTLS 策略, opportunistic 时服务器不支持或握手失败则明文投递, 默认：opportunistic
+         */
+        private TlsPolicy tls = TlsPolicy.OPPORTUNISTIC;
+
+        /**
+         * EHLO 声明的主机名, 应与发送 IP 的反向解析一致, 默认：发件人邮箱的域名
+         */
+        private String heloName;
+
+    }
+
+    /**
+     * 异步发送, 排队邮件同时受数量与估算字节数限制
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 20:06:44
+     */
+    @Data
+    public static class Async {
+
+        /**
+         * 是否开启, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * 同时发送的邮件数, 默认：4
+         */
+        private Integer concurrency = 4;
+
+        /**
+         * 最多排队的邮件数, 默认：10000
+         */
+        private Integer maxCount = 10000;
+
+        /**
+         * 排队邮件的最大估算字节数, 附件按 base64 编码后的大小计算, 默认：268435456
+         */
+        private Long maxBytes = 268435456L;
+
+        /**
+         * 队列满时的处理策略, 默认：block
+         */
+        private OverflowPolicy overflow = OverflowPolicy.BLOCK;
+
+        /**
+         * block 策略最长等待时间(毫秒), 超时后拒绝, 默认：3000
+         */
+        private Long blockTimeout = 3000L;
+
+        /**
+         * spill 策略的磁盘目录, 默认：tmp/email-spill
+         */
+        private String spillDirectory = "tmp/email-spill";
+
+    }
+
+    /**
+     * 发送事件, 注册 EmailListener bean 后生效
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 21:26:05
+     */
+    @Data
+    public static class Events {
+
+        /**
+         * 待分发事件的缓冲区大小, 向上取整为 2 的幂, 缓冲区满时丢弃新事件, 默认：8192
+         */
+        private Integer bufferSize = 8192;
+
+    }
+
+    /**
+     * 退信处理, 使用 pop3 配置的服务器与账号轮询退信邮箱
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 22:40:52
+     */
+    @Data
+    public static class Bounce {
+
+        /**
+         * 是否开启, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * pop3 端口, 默认：995
+         */
+        private Integer port = 995;
+
+        /**
+         * 是否使用 SSL, 默认：true
+         */
+        private Boolean sslEnable = Boolean.TRUE;
+
+        /**
+         * 邮箱目录, 默认：INBOX
+         */
+        private String folder = "INBOX";
+
+        /**
+         * 轮询间隔(毫秒), 默认：300000
+         */
+        private Long pollInterval = 300000L;
+
+        /**
+         * 处理后是否删除退信, 默认：false
+         */
+        private Boolean delete = Boolean.FALSE;
+
+        /**
+         * 已处理 UIDL 的保存文件, 默认：tmp/email-bounce.uidl
+         */
+        private String uidlFile = "tmp/email-bounce.uidl";
+
+    }
+
+    /**
+     * 抑制列表, 发送前跳过已抑制的收件人
+     *
+     * @author Rong.Jia
+     * @date 2026/10/18 23:08:14
+     */
+    @Data
+    public static class Suppression {
+
+        /**
+         * 是否开启, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * 数据文件, 增量日志为同名 .log 文件, 默认：tmp/email-suppression.dat
+         */
+        private String file = "tmp/email-suppression.dat";
+
+        /**
+         * 预计地址数, 决定布隆过滤器大小(约 1.2 字节/地址), 默认：1000000
+         */
+        private Long expectedSize = 1000000L;
+
+        /**
+         * 布隆过滤器误判率, 默认：0.01
+         */
+        private Double fpp = 0.01;
+
+        /**
+         * 增量达到该数量后合并到数据文件, 默认：100000
+         */
+        private Integer compactThreshold = 100000;
+
+    }
+
+    /**
+     * 收件人校验, 地址无效的收件人不发送并在发送结果中列出, 其余收件人照常发送
+     *
+     * @author Rong.Jia
+     * @date 2026/10/19 00:02:27
+     */
+    @Data
+    public static class Validation {
+
+        /**
+         * 是否开启, 默认：true
+         */
+        private Boolean enabled = Boolean.TRUE;
+
+        /**
+         * 是否检查域名存在(MX 或地址记录), 默认：false
+         */
+        private Boolean checkDomain = Boolean.FALSE;
+
+        /**
+         * 域名检查结果缓存时间(毫秒), 默认：3600000
+         */
+        private Long domainTtl = 3600000L;
+
+    }
+
+    /**
+     * 收件域名隔离, 限制同时发往每个收件域名的邮件数, 响应缓慢的域名不占用发往其他域名的连接与异步发送线程
+     *
+     * @author Rong.Jia
+     * @date 2026/10/19 00:40:18
+     */
+    @Data
+    public static class Bulkhead {
+
+        /**
+         * 是否开启, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * 每个域名同时发送的最大邮件数, 默认：4
+         */
+        private Integer maxPerDomain = 4;
+
+        /**
+         * 指定域名的最大邮件数, 如 gmail.com: 8, 优先于 maxPerDomain
+         */
+        private Map<String, Integer> limits = new HashMap<>();
+
+        /**
+         * 同步发送等待域名额度的最大时间(毫秒), 默认：3000
+         */
+        private Long maxWait = 3000L;
+
+    }
+
+    /**
+     * 自适应并发, 按发送延迟与限流响应(421、451)调整账号的并发数, 上限为 pool.max-total;
+     * 同时开启 bulkhead 与 direct 时也调整每个收件域名的并发数, 上限为该域名的 bulkhead 限制
+     *
+     * @author Rong.Jia
+     * @date 2026/10/19 01:20:36
+     */
+    @Data
+    public static class Adaptive {
+
+        /**
+         * 是否开启, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * 初始并发数, 默认：4
+         */
+        private Integer initialLimit = 4;
+
+        /**
+         * 最小并发数, 默认：1
+         */
+        private Integer minLimit = 1;
+
+        /**
+         * 限流时的回退比例, 默认：0.5
+         */
+        private Double backoffRatio = 0.5;
+
+        /**
+         * 短期平均延迟超过长期平均延迟的倍数时暂停增加, 默认：2.0
+         */
+        private Double latencyTolerance = 2.0;
+
+    }
+
+    /**
+     * 会话记录, 替代 debug: 每个连接的协议交互写入固定大小的环形缓冲区, 不输出到标准输出;
+     * 仅在发送失败、超过慢发送阈值或被采样时通过 cn.darkjrong.email.transport.Transcript 日志输出
+     *
+     * @author Rong.Jia
+     * @date 2026/10/19 02:46:51
+     */
+    @Data
+    public static class Transcript {
+
+        /**
+         * 是否开启, 默认：false
+         */
+        private Boolean enabled = Boolean.FALSE;
+
+        /**
+         * 每个连接的缓冲区大小(字节), 邮件内容不计入, 默认：16384
+         */
+        private Integer bufferSize = 16384;
+
+        /**
+         * 慢发送阈值(毫秒), 从借出连接到归还, 默认：10000
+         */
+        private Long slowThreshold = 10000L;
+
+        /**
+         * 成功发送的采样比例, 0 到 1, 默认：0
+         */
+        private Double sampleRate = 0D;
+
+    }
+
+    /**
+     * 获取全部服务器地址, 主服务器在前
+     *
+     * @return {@link List} 服务器地址
+     */
+    public List<String> listHosts() {
+        List<String> hosts = new ArrayList<>();
+        hosts.add(host);
+        for (String failoverHost : failover.getHosts()) {
+            if (StrUtil.isNotBlank(failoverHost) && !hosts.contains(failoverHost)) {
+                hosts.add(failoverHost);
+            }
+        }
+        return hosts;
+    }
 
 
     public String getCharset() {
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id             BIGINT AUTO_INCREMENT PRIMARY KEY,
+    payload        BLOB         NOT NULL,
+    status         VARCHAR(16)  NOT NULL,
+    attempts       INT          NOT NULL,
+    owner          VARCHAR(64),
+    available_time BIGINT       NOT NULL,
+    message_id     VARCHAR(255),
+    last_error     VARCHAR(1000),
+    created_time   BIGINT       NOT NULL,
+    updated_time   BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_claim ON email_outbox (status, available_time);
@@ -0,0 +1,66 @@
+package cn.darkjrong.email;
+
+import cn.darkjrong.email.domain.EmailTo;
+import org.apache.commons.mail.EmailException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.internet.InternetAddress;
+
+/**
+ * 收件人地址缓存测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 19:58:10
+ */
+public class AddressCacheTest {
+
+    @Test
+    public void get() throws EmailException {
+
+        AddressCache cache = new AddressCache(16);
+
+        InternetAddress ascii = cache.get(new EmailTo("zhangsan@example.com", "Zhang San"));
+        Assertions.assertEquals("Zhang San <zhangsan@example.com>", ascii.toString());
+        Assertions.assertTrue(cache.contains(new EmailTo("zhangsan@example.com", "Zhang San", "GBK")));
+
+        // 返回副本, 修改不影响缓存
+        ascii.setAddress("lisi@example.com");
+        Assertions.assertEquals("Zhang San <zhangsan@example.com>",
+                cache.get(new EmailTo("zhangsan@example.com", "Zhang San", "GBK")).toString());
+
+        InternetAddress utf8 = cache.get(new EmailTo("zhangsan@example.com", "张三"));
+        InternetAddress gbk = cache.get(new EmailTo("zhangsan@example.com", "张三", "GBK"));
+        Assertions.assertNotSame(utf8, gbk);
+        Assertions.assertEquals("=?UTF-8?B?5byg5LiJ?= <zhangsan@example.com>", utf8.toString());
+        Assertions.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void evict() throws EmailException {
+
+        AddressCache cache = new AddressCache(2);
+        cache.get(new EmailTo("a@example.com"));
+        cache.get(new EmailTo("b@example.com"));
+        cache.get(new EmailTo("a@example.com"));
+        cache.get(new EmailTo("c@example.com"));
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertTrue(cache.contains(new EmailTo("a@example.com")));
+        Assertions.assertFalse(cache.contains(new EmailTo("b@example.com")));
+    }
+
+    @Test
+    public void idn() throws EmailException {
+        AddressCache cache = new AddressCache(16);
+        Assertions.assertEquals("user@xn--bcher-kva.de", cache.get(new EmailTo("user@b\u00fccher.de")).getAddress());
+    }
+
+    @Test
+    public void invalid() {
+        AddressCache cache = new AddressCache(16);
+        Assertions.assertThrows(EmailException.class, () -> cache.get(new EmailTo("not an address")));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+}
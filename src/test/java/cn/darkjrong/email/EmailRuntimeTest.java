@@ -0,0 +1,106 @@
+package cn.darkjrong.email;
+
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.email.transport.FakeSmtpServer;
+import cn.darkjrong.email.transport.SmtpConnectionPool;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.MessagingException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发送运行时测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 04:02:55
+ */
+public class EmailRuntimeTest {
+
+    @Test
+    public void drain() {
+
+        EmailRuntime runtime = new EmailRuntime(properties());
+        Assertions.assertTrue(runtime.retain());
+
+        // 替换后不再被持有, 已持有的发送仍可使用连接池
+        runtime.retire();
+        Assertions.assertFalse(runtime.retain());
+        Assertions.assertEquals(1, runtime.getInFlight());
+        Assertions.assertFalse(closed(runtime.connectionPool));
+
+        runtime.release();
+        Assertions.assertEquals(0, runtime.getInFlight());
+        Assertions.assertTrue(closed(runtime.connectionPool));
+    }
+
+    @Test
+    public void refreshFailed() {
+
+        EmailTemplate emailTemplate = new EmailTemplate(properties());
+        SmtpConnectionPool connectionPool = emailTemplate.getConnectionPool();
+
+        // 新配置无法连接时保留原配置
+        EmailProperties refreshed = properties();
+        refreshed.setPassword("rotated");
+        Assertions.assertThrows(MailException.class, () -> emailTemplate.refresh(refreshed));
+        Assertions.assertSame(connectionPool, emailTemplate.getConnectionPool());
+        Assertions.assertFalse(closed(connectionPool));
+        emailTemplate.close();
+    }
+
+    @Test
+    public void refreshUnlocked() throws Exception {
+
+        EmailTemplate emailTemplate = new EmailTemplate(properties());
+        SmtpConnectionPool connectionPool = emailTemplate.getConnectionPool();
+
+        try (FakeSmtpServer server = new FakeSmtpServer()) {
+            server.setGreetingDelay(1000L);
+            EmailProperties refreshed = properties();
+            refreshed.setPort(server.getPort());
+            refreshed.setSslEnable(Boolean.FALSE);
+            CompletableFuture<Void> refresh = CompletableFuture.runAsync(() -> emailTemplate.refresh(refreshed));
+            while (server.getConnections() == 0) {
+                Thread.sleep(10L);
+            }
+
+            // 建立连接期间不阻塞其他操作, 仍使用原配置
+            CompletableFuture.runAsync(() -> {
+                emailTemplate.getIdempotencyStore();
+                emailTemplate.setMxResolver(null);
+            }).get(500L, TimeUnit.MILLISECONDS);
+            Assertions.assertFalse(refresh.isDone());
+            Assertions.assertSame(connectionPool, emailTemplate.getConnectionPool());
+
+            refresh.get(5L, TimeUnit.SECONDS);
+            Assertions.assertNotSame(connectionPool, emailTemplate.getConnectionPool());
+            Assertions.assertTrue(closed(connectionPool));
+        }
+        emailTemplate.close();
+    }
+
+    private static EmailProperties properties() {
+
+        // 无服务器监听的端口
+        EmailProperties emailProperties = new EmailProperties();
+        emailProperties.setHost("127.0.0.1");
+        emailProperties.setPort(1);
+        emailProperties.setAvoidAuthEnable(Boolean.TRUE);
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+        emailProperties.getPool().setMaxWait(100L);
+        return emailProperties;
+    }
+
+    private static boolean closed(SmtpConnectionPool connectionPool) {
+        try {
+            connectionPool.borrow();
+            return Boolean.FALSE;
+        } catch (MessagingException e) {
+            return "Connection pool is closed".equals(e.getMessage());
+        }
+    }
+
+}
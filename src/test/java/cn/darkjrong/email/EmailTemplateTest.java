@@ -0,0 +1,135 @@
+package cn.darkjrong.email;
+
+import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.event.EmailEvent;
+import cn.darkjrong.email.event.EmailEventType;
+import cn.darkjrong.email.event.EmailListener;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.email.transport.FakeSmtpServer;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 电子邮件模板测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 07:25:14
+ */
+public class EmailTemplateTest {
+
+    @Test
+    public void throttledGreeting() throws Exception {
+
+        // 问候阶段即返回 421 的服务器
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            Thread server = new Thread(() -> {
+                while (!serverSocket.isClosed()) {
+                    try (Socket socket = serverSocket.accept(); OutputStream out = socket.getOutputStream()) {
+                        out.write("421 4.7.0 Too many connections\r\n".getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                    } catch (Exception ignored) {
+                        return;
+                    }
+                }
+            });
+            server.setDaemon(true);
+            server.start();
+
+            EmailProperties emailProperties = new EmailProperties();
+            emailProperties.setHost("127.0.0.1");
+            emailProperties.setPort(serverSocket.getLocalPort());
+            emailProperties.setSslEnable(Boolean.FALSE);
+            emailProperties.setAvoidAuthEnable(Boolean.TRUE);
+            emailProperties.getFrom().setEmail("852203465@qq.com");
+            emailProperties.getAdaptive().setEnabled(Boolean.TRUE);
+
+            EmailTemplate emailTemplate = new EmailTemplate(emailProperties);
+            BlockingQueue<EmailEvent> events = new ArrayBlockingQueue<>(16);
+            emailTemplate.addListener(new EmailListener() {
+                @Override
+                public void onEvent(EmailEvent event) {
+                    events.add(event);
+                }
+            });
+            int limit = emailTemplate.getPriorityLanes().getLimit().getLimit();
+
+            Assertions.assertThrows(MailException.class,
+                    () -> emailTemplate.sendText("subject", "text", new EmailTo("852203465@qq.com")));
+
+            // 连接时的 421 为暂时失败, 并触发自适应并发退避
+            EmailEvent event = events.poll(5, TimeUnit.SECONDS);
+            while (event != null && event.getType() == EmailEventType.SENDING) {
+                event = events.poll(5, TimeUnit.SECONDS);
+            }
+            Assertions.assertNotNull(event);
+            Assertions.assertEquals(EmailEventType.DEFERRED, event.getType());
+            Assertions.assertTrue(emailTemplate.getPriorityLanes().getLimit().getLimit() < limit);
+            emailTemplate.close();
+        }
+    }
+
+    @Test
+    public void prewarm() throws Exception {
+
+        try (FakeSmtpServer server = new FakeSmtpServer()) {
+            server.setGreetingDelay(300L);
+            EmailProperties emailProperties = properties(server.getPort());
+            emailProperties.getPool().setPrewarm(2);
+            EmailTemplate emailTemplate = new EmailTemplate(emailProperties);
+
+            // 在后台建立连接, 不阻塞启动
+            long start = System.currentTimeMillis();
+            emailTemplate.prewarm();
+            Assertions.assertTrue(System.currentTimeMillis() - start < 300L);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (emailTemplate.getConnectionPool().getIdle() < 2 && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            Assertions.assertEquals(2, emailTemplate.getConnectionPool().getIdle());
+            Assertions.assertEquals(0L, emailTemplate.getLastFailureTime());
+            emailTemplate.close();
+        }
+    }
+
+    @Test
+    public void prewarmFailed() throws Exception {
+
+        try (FakeSmtpServer server = new FakeSmtpServer()) {
+            server.setGreeting("554 5.7.1 Access denied");
+            EmailProperties emailProperties = properties(server.getPort());
+            emailProperties.getPool().setPrewarm(2);
+            EmailTemplate emailTemplate = new EmailTemplate(emailProperties);
+            emailTemplate.prewarm();
+
+            // 预热失败记为一次发送失败
+            long deadline = System.currentTimeMillis() + 5000;
+            while (emailTemplate.getLastFailureTime() == 0L && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            Assertions.assertTrue(emailTemplate.getLastFailureTime() > 0L);
+            Assertions.assertEquals(0, emailTemplate.getConnectionPool().getIdle());
+            emailTemplate.close();
+        }
+    }
+
+    private static EmailProperties properties(int port) {
+        EmailProperties emailProperties = new EmailProperties();
+        emailProperties.setHost("127.0.0.1");
+        emailProperties.setPort(port);
+        emailProperties.setSslEnable(Boolean.FALSE);
+        emailProperties.setAvoidAuthEnable(Boolean.TRUE);
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+        return emailProperties;
+    }
+
+}
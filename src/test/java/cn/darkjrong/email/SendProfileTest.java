@@ -0,0 +1,78 @@
+package cn.darkjrong.email;
+
+import cn.darkjrong.email.mx.MxRecord;
+import cn.darkjrong.email.transport.DirectDelivery;
+import cn.darkjrong.email.transport.FakeSmtpServer;
+import cn.darkjrong.email.transport.TlsPolicy;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import com.sun.mail.smtp.SMTPMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import java.util.Collections;
+import java.util.Properties;
+
+/**
+ * 发送配置测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 09:31:52
+ */
+public class SendProfileTest {
+
+    @Test
+    public void bounce() throws Exception {
+
+        EmailProperties emailProperties = properties();
+        SendProfile sendProfile = SendProfile.compile(emailProperties, Session.getInstance(new Properties()));
+        Assertions.assertNull(sendProfile.getBounce());
+        Assertions.assertNull(message(sendProfile).getEnvelopeFrom());
+
+        emailProperties.setBounceEnable(Boolean.TRUE);
+        sendProfile = SendProfile.compile(emailProperties, Session.getInstance(new Properties()));
+        Assertions.assertEquals("bounce@qq.com", sendProfile.getBounce().getAddress());
+        Assertions.assertEquals("bounce@qq.com", message(sendProfile).getEnvelopeFrom());
+    }
+
+    @Test
+    public void directBounce() throws Exception {
+
+        EmailProperties emailProperties = properties();
+        emailProperties.setBounceEnable(Boolean.TRUE);
+        SendProfile sendProfile = SendProfile.compile(emailProperties, Session.getInstance(new Properties()));
+
+        // 直投 MX 的会话不含 mail.smtp.from, 信封发件人来自邮件
+        try (FakeSmtpServer server = new FakeSmtpServer()) {
+            emailProperties.getDirect().setEnabled(Boolean.TRUE);
+            emailProperties.getDirect().setPort(server.getPort());
+            emailProperties.getDirect().setTls(TlsPolicy.NONE);
+            DirectDelivery directDelivery = new DirectDelivery(emailProperties);
+            directDelivery.setMxResolver(domain -> Collections.singletonList(new MxRecord("127.0.0.1", 10, 60000L)));
+            directDelivery.send(message(sendProfile));
+            directDelivery.close();
+
+            Assertions.assertTrue(server.getCommands().contains("MAIL FROM:<bounce@qq.com>"));
+        }
+    }
+
+    private static SMTPMessage message(SendProfile sendProfile) throws MessagingException {
+        SMTPMessage message = new SMTPMessage(sendProfile.getSession());
+        message.setRecipients(MimeMessage.RecipientType.TO, "user@example.com");
+        message.setText("hello");
+        sendProfile.apply(message);
+        message.saveChanges();
+        return message;
+    }
+
+    private static EmailProperties properties() {
+        EmailProperties emailProperties = new EmailProperties();
+        emailProperties.setHost("127.0.0.1");
+        emailProperties.setUsername("bounce@qq.com");
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+        return emailProperties;
+    }
+
+}
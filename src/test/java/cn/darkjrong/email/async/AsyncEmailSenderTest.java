@@ -0,0 +1,256 @@
+package cn.darkjrong.email.async;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.MailType;
+import cn.darkjrong.email.domain.Priority;
+import cn.darkjrong.email.domain.SendResult;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.email.transport.FakeSmtpServer;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.io.FileUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步发送测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 20:41:52
+ */
+public class AsyncEmailSenderTest {
+
+    private BlockingEmailTemplate emailTemplate;
+    private EmailProperties.Async async;
+
+    @BeforeEach
+    public void setUp() {
+
+        EmailProperties emailProperties = new EmailProperties();
+        emailProperties.setHost("localhost");
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+        emailTemplate = new BlockingEmailTemplate(emailProperties);
+
+        async = new EmailProperties.Async();
+        async.setConcurrency(1);
+        async.setMaxCount(3);
+        async.setBlockTimeout(100L);
+        async.setSpillDirectory(FileUtil.getTmpDirPath() + "/email-spill-" + System.nanoTime());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        emailTemplate.gate.countDown();
+        FileUtil.del(async.getSpillDirectory());
+    }
+
+    @Test
+    public void block() throws Exception {
+
+        AsyncEmailSender sender = new AsyncEmailSender(emailTemplate, async);
+        List<CompletableFuture<SendResult>> futures = fill(sender, Priority.NORMAL, 3);
+
+        Assertions.assertEquals(3, sender.getQueued());
+        Assertions.assertTrue(sender.getInFlightBytes() > 0);
+        Assertions.assertThrows(MailException.class, () -> sender.submit(request("overflow", Priority.NORMAL)));
+        Assertions.assertEquals(1, sender.getRejected());
+
+        emailTemplate.gate.countDown();
+        for (CompletableFuture<SendResult> future : futures) {
+            Assertions.assertTrue(future.get(5, TimeUnit.SECONDS).getSuccess());
+        }
+        sender.close();
+        Assertions.assertEquals(0, sender.getQueuedBytes());
+        Assertions.assertEquals(0, sender.getInFlightBytes());
+    }
+
+    @Test
+    public void bytes() throws Exception {
+
+        async.setMaxCount(100);
+        async.setMaxBytes(AsyncEmailSender.estimateSize(request("mail-0", Priority.NORMAL)) * 2);
+        async.setOverflow(OverflowPolicy.REJECT);
+        AsyncEmailSender sender = new AsyncEmailSender(emailTemplate, async);
+
+        fill(sender, Priority.NORMAL, 2);
+        Assertions.assertThrows(MailException.class, () -> sender.submit(request("overflow", Priority.NORMAL)));
+        Assertions.assertEquals(2, sender.getQueued());
+        emailTemplate.gate.countDown();
+        sender.close();
+    }
+
+    @Test
+    public void dropLowest() throws Exception {
+
+        async.setOverflow(OverflowPolicy.DROP_LOWEST);
+        AsyncEmailSender sender = new AsyncEmailSender(emailTemplate, async);
+
+        List<CompletableFuture<SendResult>> low = fill(sender, Priority.LOW, 3);
+        CompletableFuture<SendResult> high = sender.submit(request("high", Priority.HIGH));
+        Assertions.assertFalse(low.get(low.size() - 1).get(1, TimeUnit.SECONDS).getSuccess());
+        Assertions.assertEquals(1, sender.getDropped());
+        Assertions.assertThrows(MailException.class, () -> sender.submit(request("low", Priority.LOW)));
+
+        emailTemplate.gate.countDown();
+        Assertions.assertTrue(high.get(5, TimeUnit.SECONDS).getSuccess());
+        sender.close();
+    }
+
+    @Test
+    public void spill() throws Exception {
+
+        async.setOverflow(OverflowPolicy.SPILL);
+        AsyncEmailSender sender = new AsyncEmailSender(emailTemplate, async);
+
+        fill(sender, Priority.NORMAL, 3);
+        CompletableFuture<SendResult> spilled = sender.submit(request("spilled", Priority.NORMAL));
+        Assertions.assertEquals(1, sender.getSpilled());
+        Assertions.assertEquals(1, FileUtil.ls(async.getSpillDirectory()).length);
+
+        emailTemplate.gate.countDown();
+        Assertions.assertEquals("spilled", spilled.get(5, TimeUnit.SECONDS).getRequest().getSubject());
+        sender.close();
+        Assertions.assertEquals(0, FileUtil.ls(async.getSpillDirectory()).length);
+    }
+
+    @Test
+    public void recover() throws Exception {
+
+        async.setOverflow(OverflowPolicy.SPILL);
+        AsyncEmailSender sender = new AsyncEmailSender(emailTemplate, async);
+        fill(sender, Priority.NORMAL, 3);
+        sender.submit(request("spilled", Priority.NORMAL));
+
+        BlockingEmailTemplate restarted = new BlockingEmailTemplate(emailTemplate.emailProperties);
+        restarted.gate.countDown();
+        AsyncEmailSender recovered = new AsyncEmailSender(restarted, async);
+        Assertions.assertTrue(restarted.sent.await(5, TimeUnit.SECONDS));
+        recovered.close();
+
+        emailTemplate.gate.countDown();
+        sender.close();
+    }
+
+    @Test
+    public void bulkhead() throws Exception {
+
+        emailTemplate.emailProperties.getBulkhead().setEnabled(Boolean.TRUE);
+        emailTemplate.emailProperties.getBulkhead().setMaxPerDomain(1);
+        BlockingEmailTemplate bulkheadTemplate = new BlockingEmailTemplate(emailTemplate.emailProperties);
+        async.setConcurrency(2);
+        AsyncEmailSender sender = new AsyncEmailSender(bulkheadTemplate, async);
+
+        List<CompletableFuture<SendResult>> slow = fill(sender, Priority.NORMAL, 2);
+        MailRequest request = request("fast", Priority.NORMAL);
+        request.setToEmails(Collections.singletonList(new EmailTo("fast@example.com")));
+        Assertions.assertTrue(sender.submit(request).get(5, TimeUnit.SECONDS).getSuccess());
+        Assertions.assertEquals(2, sender.getQueued());
+        Assertions.assertEquals(1, bulkheadTemplate.getDomainBulkhead().getInUse().get("qq.com"));
+
+        bulkheadTemplate.gate.countDown();
+        for (CompletableFuture<SendResult> future : slow) {
+            Assertions.assertTrue(future.get(5, TimeUnit.SECONDS).getSuccess());
+        }
+        sender.close();
+        Assertions.assertTrue(bulkheadTemplate.getDomainBulkhead().getInUse().isEmpty());
+    }
+
+    @Test
+    public void smtp() throws Exception {
+
+        try (FakeSmtpServer server = new FakeSmtpServer()) {
+            EmailProperties emailProperties = new EmailProperties();
+            emailProperties.setHost("127.0.0.1");
+            emailProperties.setPort(server.getPort());
+            emailProperties.setSslEnable(Boolean.FALSE);
+            emailProperties.setAvoidAuthEnable(Boolean.TRUE);
+            emailProperties.getFrom().setEmail("852203465@qq.com");
+            emailProperties.getBulkhead().setEnabled(Boolean.TRUE);
+            emailProperties.getBulkhead().setMaxPerDomain(1);
+            EmailTemplate smtpTemplate = new EmailTemplate(emailProperties);
+            async.setConcurrency(2);
+            async.setMaxCount(20);
+            AsyncEmailSender sender = new AsyncEmailSender(smtpTemplate, async);
+
+            // 经过队列、收件域名隔离与邮件服务器的完整发送
+            List<CompletableFuture<SendResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                MailRequest request = request("mail-" + i, Priority.NORMAL);
+                request.setToEmails(Collections.singletonList(new EmailTo(i % 2 == 0 ? "user@qq.com" : "user@example.com")));
+                futures.add(sender.submit(request));
+            }
+            for (CompletableFuture<SendResult> future : futures) {
+                Assertions.assertTrue(future.get(10, TimeUnit.SECONDS).getSuccess());
+            }
+            sender.close();
+            smtpTemplate.close();
+
+            Assertions.assertEquals(10, server.getMessages());
+            Assertions.assertEquals(0, sender.getQueued());
+            Assertions.assertEquals(0, sender.getInFlightBytes());
+            Assertions.assertTrue(smtpTemplate.getDomainBulkhead().getInUse().isEmpty());
+        }
+    }
+
+    /**
+     * 第一封邮件发送中(阻塞)后, 再提交 queued 封排队
+     */
+    private static List<CompletableFuture<SendResult>> fill(AsyncEmailSender sender, Priority priority, int queued) throws Exception {
+
+        List<CompletableFuture<SendResult>> futures = new ArrayList<>();
+        futures.add(sender.submit(request("mail-0", priority)));
+        while (sender.getInFlightBytes() == 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        for (int i = 1; i <= queued; i++) {
+            futures.add(sender.submit(request("mail-" + i, priority)));
+        }
+        return futures;
+    }
+
+    private static MailRequest request(String subject, Priority priority) {
+        MailRequest request = new MailRequest(MailType.TEXT, subject, "This is a test mail ... :-)",
+                Collections.singletonList(new EmailTo("852203465@qq.com")));
+        request.setPriority(priority);
+        return request;
+    }
+
+    /**
+     * 发往 example.com 以外的邮件发送阻塞到放行, 不连接邮件服务器
+     */
+    private static class BlockingEmailTemplate extends EmailTemplate {
+
+        private final EmailProperties emailProperties;
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final CountDownLatch sent = new CountDownLatch(1);
+
+        BlockingEmailTemplate(EmailProperties emailProperties) {
+            super(emailProperties);
+            this.emailProperties = emailProperties;
+        }
+
+        @Override
+        public SendResult send(MailRequest request) {
+            try {
+                if (!request.getToEmails().get(0).getMail().endsWith("@example.com")) {
+                    gate.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.countDown();
+            return SendResult.success(request, "<" + request.getSubject() + "@localhost>");
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package cn.darkjrong.email.attachment;
+
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.activation.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 附件压缩测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 17:36:52
+ */
+public class AttachmentCompressorTest {
+
+    private File file;
+    private byte[] content;
+
+    @BeforeEach
+    public void before() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            builder.append(i).append(",order-").append(i % 97).append(",2026-10-18,").append(i * 31 % 1000).append('\n');
+        }
+        file = File.createTempFile("export", ".csv");
+        FileUtil.writeUtf8String(builder.toString(), file);
+        content = FileUtil.readBytes(file);
+    }
+
+    @AfterEach
+    public void after() {
+        FileUtil.del(file);
+    }
+
+    @Test
+    public void gzip() throws IOException {
+
+        DataSource dataSource = new AttachmentCompressor(compression(CompressionFormat.GZIP)).compress(file, null);
+
+        Assertions.assertNotNull(dataSource);
+        Assertions.assertEquals(file.getName() + ".gz", dataSource.getName());
+        try (InputStream inputStream = new GZIPInputStream(dataSource.getInputStream())) {
+            Assertions.assertArrayEquals(content, IoUtil.readBytes(inputStream));
+        }
+        try (InputStream inputStream = dataSource.getInputStream()) {
+            Assertions.assertTrue(IoUtil.readBytes(inputStream).length < content.length / 3);
+        }
+    }
+
+    @Test
+    public void zip() throws IOException {
+
+        DataSource dataSource = new AttachmentCompressor(compression(CompressionFormat.ZIP)).compress(file, null);
+
+        Assertions.assertNotNull(dataSource);
+        try (ZipInputStream inputStream = new ZipInputStream(dataSource.getInputStream())) {
+            ZipEntry entry = inputStream.getNextEntry();
+            Assertions.assertEquals(file.getName(), entry.getName());
+            Assertions.assertArrayEquals(content, IoUtil.readBytes(inputStream, Boolean.FALSE));
+            Assertions.assertNull(inputStream.getNextEntry());
+        }
+    }
+
+    @Test
+    public void closeEarly() throws IOException {
+
+        // 未读完即关闭, 压缩器与源文件同时关闭
+        for (CompressionFormat format : CompressionFormat.values()) {
+            InputStream inputStream = new AttachmentCompressor(compression(format)).compress(file, null).getInputStream();
+            Assertions.assertTrue(inputStream.read(new byte[16]) > 0);
+            inputStream.close();
+            inputStream.close();
+        }
+        Assertions.assertTrue(file.delete());
+    }
+
+    @Test
+    public void accept() {
+
+        EmailProperties.Compression compression = compression(CompressionFormat.ZIP);
+        Assertions.assertNull(new AttachmentCompressor(compression).compress(file, Boolean.FALSE));
+
+        compression.setThreshold(content.length + 1L);
+        Assertions.assertNull(new AttachmentCompressor(compression).compress(file, null));
+        Assertions.assertNotNull(new AttachmentCompressor(compression).compress(file, Boolean.TRUE));
+
+        compression.setThreshold(0L);
+        compression.getContentTypes().remove("text/*");
+        Assertions.assertNull(new AttachmentCompressor(compression).compress(file, null));
+    }
+
+    private EmailProperties.Compression compression(CompressionFormat format) {
+        EmailProperties.Compression compression = new EmailProperties.Compression();
+        compression.setEnabled(Boolean.TRUE);
+        compression.setFormat(format);
+        compression.setThreshold(1024L);
+        return compression;
+    }
+
+}
@@ -0,0 +1,256 @@
+package cn.darkjrong.email.bounce;
+
+import cn.darkjrong.email.suppression.SuppressionList;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.io.FileUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 退信处理测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 09:12:44
+ */
+public class BounceProcessorTest {
+
+    private EmailProperties emailProperties;
+    private FakePop3Server server;
+    private final Set<String> suppressed = ConcurrentHashMap.newKeySet();
+    private final SuppressionList suppressionList = new SuppressionList() {
+        @Override
+        public boolean contains(String address) {
+            return suppressed.contains(address);
+        }
+
+        @Override
+        public void add(String address) {
+            suppressed.add(address);
+        }
+    };
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        emailProperties = new EmailProperties();
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+        emailProperties.getPop3().setPopHost("127.0.0.1");
+        emailProperties.getPop3().setPopUsername("bounce");
+        emailProperties.getPop3().setPopPassword("secret");
+        emailProperties.getBounce().setSslEnable(Boolean.FALSE);
+        emailProperties.getBounce().setUidlFile(FileUtil.getTmpDirPath() + "/email-bounce-" + System.nanoTime() + ".uidl");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.close();
+        }
+        FileUtil.del(emailProperties.getBounce().getUidlFile());
+    }
+
+    @Test
+    public void poll() throws Exception {
+
+        String suffix = BounceProcessor.messageIdSuffix(emailProperties);
+        server = new FakePop3Server();
+        server.add("uidl-1", dsn("gone@example.org", "<1.1.1.JavaMail." + suffix));
+        // 其他系统发送的邮件的退信
+        server.add("uidl-2", dsn("other@example.org", "<origin-2@elsewhere.example>"));
+        // 无法读取
+        server.add("uidl-3", null);
+        server.add("uidl-4", dsn("late@example.org", "<4.4.4.JavaMail." + suffix));
+        emailProperties.getBounce().setPort(server.getPort());
+
+        BounceProcessor processor = new BounceProcessor(emailProperties, suppressionList, null);
+        Assertions.assertEquals(3, processor.poll());
+        Assertions.assertEquals(2, suppressed.size());
+        Assertions.assertTrue(suppressed.contains("gone@example.org"));
+        Assertions.assertTrue(suppressed.contains("late@example.org"));
+
+        // 无法读取的邮件同样记录为已处理, 不再下载
+        Assertions.assertEquals(4, new UidlStore(new File(emailProperties.getBounce().getUidlFile())).size());
+        Assertions.assertEquals(0, processor.poll());
+        Assertions.assertEquals(4, server.getRetrieved());
+    }
+
+    @Test
+    public void resume() throws Exception {
+
+        String suffix = BounceProcessor.messageIdSuffix(emailProperties);
+        server = new FakePop3Server();
+        server.add("uidl-1", dsn("gone@example.org", "<1.1.1.JavaMail." + suffix));
+        emailProperties.getBounce().setPort(server.getPort());
+
+        BounceProcessor processor = new BounceProcessor(emailProperties, suppressionList, null);
+        Assertions.assertEquals(1, processor.poll());
+
+        // 重启后只下载新邮件, 已删除邮件的 UIDL 不再保留
+        server.remove("uidl-1");
+        server.add("uidl-2", dsn("full@example.org", "<2.2.2.JavaMail." + suffix));
+        processor = new BounceProcessor(emailProperties, suppressionList, null);
+        Assertions.assertEquals(1, processor.poll());
+        Assertions.assertEquals(2, server.getRetrieved());
+        Assertions.assertTrue(suppressed.contains("full@example.org"));
+        Assertions.assertEquals(1, new UidlStore(new File(emailProperties.getBounce().getUidlFile())).size());
+    }
+
+    @Test
+    public void messageIdSuffix() throws Exception {
+
+        // 与发送时生成的 Message-ID 一致
+        Properties properties = new Properties();
+        properties.setProperty("mail.from", emailProperties.getFrom().getEmail());
+        MimeMessage message = new MimeMessage(Session.getInstance(properties));
+        message.setText("hello");
+        message.saveChanges();
+        Assertions.assertTrue(message.getMessageID().endsWith(BounceProcessor.messageIdSuffix(emailProperties)));
+    }
+
+    private static String dsn(String recipient, String messageId) {
+        return "From: Mail Delivery System <MAILER-DAEMON@mx.example.com>\r\n"
+                + "Subject: Undelivered Mail Returned to Sender\r\n"
+                + "MIME-Version: 1.0\r\n"
+                + "Content-Type: multipart/report; report-type=delivery-status; boundary=\"B1\"\r\n"
+                + "\r\n"
+                + "--B1\r\n"
+                + "Content-Type: message/delivery-status\r\n"
+                + "\r\n"
+                + "Reporting-MTA: dns; mx.example.com\r\n"
+                + "\r\n"
+                + "Final-Recipient: rfc822; " + recipient + "\r\n"
+                + "Action: failed\r\n"
+                + "Status: 5.1.1\r\n"
+                + "\r\n"
+                + "--B1\r\n"
+                + "Content-Type: text/rfc822-headers\r\n"
+                + "\r\n"
+                + "From: 852203465@qq.com\r\n"
+                + "Message-ID: " + messageId + "\r\n"
+                + "\r\n"
+                + "--B1--\r\n";
+    }
+
+    /**
+     * 测试用 POP3 服务器, 仅监听本机; 内容为 null 的邮件 RETR 返回错误
+     */
+    private static class FakePop3Server implements Closeable {
+
+        private final ServerSocket serverSocket;
+        private final List<String[]> messages = new CopyOnWriteArrayList<>();
+        private volatile int retrieved;
+
+        FakePop3Server() throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::accept, "fake-pop3-" + serverSocket.getLocalPort());
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        int getRetrieved() {
+            return retrieved;
+        }
+
+        void add(String uidl, String content) {
+            messages.add(new String[]{uidl, content});
+        }
+
+        void remove(String uidl) {
+            messages.removeIf(message -> message[0].equals(uidl));
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    handle(socket);
+                } catch (IOException e) {
+                    // 连接被断开
+                }
+            }
+        }
+
+        private void handle(Socket socket) throws IOException {
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            OutputStream out = socket.getOutputStream();
+            // 会话期间邮件列表不变
+            List<String[]> snapshot = new ArrayList<>(messages);
+            write(out, "+OK fake POP3");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] command = line.split(" ");
+                switch (command[0].toUpperCase()) {
+                    case "STAT":
+                        write(out, "+OK " + snapshot.size() + " " + snapshot.size() * 1000);
+                        break;
+                    case "LIST":
+                    case "UIDL":
+                        StringBuilder response = new StringBuilder("+OK");
+                        for (int i = 0; i < snapshot.size(); i++) {
+                            response.append("\r\n").append(i + 1).append(' ')
+                                    .append("LIST".equalsIgnoreCase(command[0]) ? "1000" : snapshot.get(i)[0]);
+                        }
+                        write(out, response.append("\r\n.").toString());
+                        break;
+                    case "RETR":
+                    case "TOP":
+                        String content = snapshot.get(Integer.parseInt(command[1]) - 1)[1];
+                        boolean retr = "RETR".equalsIgnoreCase(command[0]);
+                        if (retr) {
+                            retrieved++;
+                        }
+                        if (content == null) {
+                            write(out, "-ERR unable to read message");
+                        } else {
+                            // TOP 只返回邮件头
+                            write(out, "+OK\r\n" + (retr ? content : content.substring(0, content.indexOf("\r\n\r\n") + 4)) + ".");
+                        }
+                        break;
+                    case "CAPA":
+                        write(out, "-ERR not supported");
+                        break;
+                    case "QUIT":
+                        write(out, "+OK bye");
+                        return;
+                    default:
+                        write(out, "+OK");
+                }
+            }
+        }
+
+        private static void write(OutputStream out, String response) throws IOException {
+            out.write((response + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package cn.darkjrong.email.bounce;
+
+import cn.hutool.core.io.FileUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DSN 解析测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 23:06:42
+ */
+public class DsnParserTest {
+
+    private static final String DSN = "Return-Path: <>\r\n"
+            + "From: Mail Delivery System <MAILER-DAEMON@mx.example.com>\r\n"
+            + "Subject: Undelivered Mail Returned to Sender\r\n"
+            + "Message-ID: <bounce-1@mx.example.com>\r\n"
+            + "MIME-Version: 1.0\r\n"
+            + "Content-Type: multipart/report; report-type=delivery-status;\r\n"
+            + "\tboundary=\"B1\"\r\n"
+            + "\r\n"
+            + "This is a MIME-encapsulated message.\r\n"
+            + "\r\n"
+            + "--B1\r\n"
+            + "Content-Type: text/plain; charset=us-ascii\r\n"
+            + "\r\n"
+            + "I'm sorry to have to inform you that your message could not be delivered.\r\n"
+            + "Final-Recipient: rfc822; fake@example.org\r\n"
+            + "\r\n"
+            + "--B1\r\n"
+            + "Content-Type: message/delivery-status\r\n"
+            + "\r\n"
+            + "Reporting-MTA: dns; mx.example.com\r\n"
+            + "Arrival-Date: Sun, 18 Oct 2026 22:00:00 +0800\r\n"
+            + "\r\n"
+            + "Final-Recipient: rfc822; Gone@Example.org\r\n"
+            + "Original-Recipient: rfc822;gone@example.org\r\n"
+            + "Action: failed\r\n"
+            + "Status: 5.1.1\r\n"
+            + "Diagnostic-Code: smtp; 550 5.1.1 <gone@example.org>: Recipient address\r\n"
+            + "    rejected: User unknown\r\n"
+            + "\r\n"
+            + "Final-Recipient: rfc822; full@example.org\r\n"
+            + "Action: failed\r\n"
+            + "Status: 4.2.2\r\n"
+            + "\r\n"
+            + "Final-Recipient: rfc822; slow@example.org\r\n"
+            + "Action: delayed\r\n"
+            + "Status: 4.4.1\r\n"
+            + "\r\n"
+            + "--B1\r\n"
+            + "Content-Type: text/rfc822-headers\r\n"
+            + "\r\n"
+            + "From: a@example.com\r\n"
+            + "Message-ID: <origin-1@example.com>\r\n"
+            + "Subject: hello\r\n"
+            + "\r\n"
+            + "--B1--\r\n";
+
+    @Test
+    public void parse() {
+
+        DsnParser parser = new DsnParser();
+        byte[] bytes = DSN.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < bytes.length; i += 7) {
+            parser.write(bytes, i, Math.min(7, bytes.length - i));
+        }
+        parser.close();
+
+        List<Bounce> bounces = parser.getBounces();
+        Assertions.assertEquals(3, bounces.size());
+        Assertions.assertEquals("<origin-1@example.com>", parser.getMessageId());
+
+        Bounce gone = bounces.get(0);
+        Assertions.assertEquals("gone@example.org", gone.getRecipient());
+        Assertions.assertEquals("5.1.1", gone.getStatus());
+        Assertions.assertTrue(gone.getDiagnostic().endsWith("rejected: User unknown"));
+        Assertions.assertEquals("<origin-1@example.com>", gone.getMessageId());
+        Assertions.assertTrue(gone.isHard());
+
+        Assertions.assertFalse(bounces.get(1).isHard());
+        Assertions.assertEquals("delayed", bounces.get(2).getAction());
+    }
+
+    @Test
+    public void notDsn() {
+        DsnParser parser = new DsnParser();
+        byte[] bytes = "Subject: hi\nContent-Type: text/plain\n\nFinal-Recipient: rfc822; a@b.c\nAction: failed\nStatus: 5.0.0\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        parser.write(bytes, 0, bytes.length);
+        parser.close();
+        Assertions.assertTrue(parser.getBounces().isEmpty());
+    }
+
+    @Test
+    public void uidl() {
+
+        File file = new File(FileUtil.getTmpDirPath(), "email-bounce-" + System.nanoTime() + ".uidl");
+        UidlStore uidlStore = new UidlStore(file);
+        uidlStore.retain(Arrays.asList("UID-1", "UID-2", "UID-3"));
+        uidlStore.save();
+        Assertions.assertEquals(24, file.length());
+
+        UidlStore reloaded = new UidlStore(file);
+        Assertions.assertTrue(reloaded.contains("UID-2"));
+        Assertions.assertFalse(reloaded.contains("UID-4"));
+
+        reloaded.retain(Arrays.asList("UID-3", "UID-4"));
+        Assertions.assertFalse(reloaded.contains("UID-1"));
+        Assertions.assertTrue(reloaded.contains("UID-4"));
+        FileUtil.del(file);
+    }
+
+}
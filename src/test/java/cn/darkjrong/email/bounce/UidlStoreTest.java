@@ -0,0 +1,73 @@
+package cn.darkjrong.email.bounce;
+
+import cn.hutool.core.io.FileUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * 已处理的 UIDL 集合测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 09:05:21
+ */
+public class UidlStoreTest {
+
+    @Test
+    public void retain() {
+
+        UidlStore store = new UidlStore(file());
+        Assertions.assertEquals(0, store.size());
+        Assertions.assertFalse(store.contains("uidl-1"));
+
+        store.retain(Arrays.asList("uidl-2", "uidl-1", "uidl-3"));
+        Assertions.assertEquals(3, store.size());
+        Assertions.assertTrue(store.contains("uidl-1"));
+        Assertions.assertTrue(store.contains("uidl-3"));
+        Assertions.assertFalse(store.contains("uidl-4"));
+
+        // 仅保留服务器上仍存在的 UIDL
+        store.retain(Arrays.asList("uidl-3", "uidl-4"));
+        Assertions.assertFalse(store.contains("uidl-1"));
+        Assertions.assertTrue(store.contains("uidl-4"));
+    }
+
+    @Test
+    public void save() {
+
+        File directory = new File(FileUtil.getTmpDirPath(), "email-bounce-" + System.nanoTime());
+        File file = file();
+        UidlStore store = new UidlStore(file);
+        store.retain(Arrays.asList("uidl-1", "uidl-2"));
+        store.save();
+        Assertions.assertEquals(2L * Long.BYTES, file.length());
+        Assertions.assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        UidlStore loaded = new UidlStore(file);
+        Assertions.assertEquals(2, loaded.size());
+        Assertions.assertTrue(loaded.contains("uidl-1"));
+        Assertions.assertTrue(loaded.contains("uidl-2"));
+        FileUtil.del(directory);
+    }
+
+    @Test
+    public void truncated() {
+
+        File file = file();
+        UidlStore store = new UidlStore(file);
+        store.retain(Arrays.asList("uidl-1", "uidl-2"));
+        store.save();
+
+        // 不完整的记录忽略
+        FileUtil.writeBytes(Arrays.copyOf(FileUtil.readBytes(file), Long.BYTES + 3), file);
+        Assertions.assertEquals(1, new UidlStore(file).size());
+        FileUtil.del(file);
+    }
+
+    private static File file() {
+        return new File(FileUtil.getTmpDirPath(), "email-bounce-" + System.nanoTime() + ".uidl");
+    }
+
+}
@@ -0,0 +1,106 @@
+package cn.darkjrong.email.event;
+
+import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.MailType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * 事件分发测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 21:40:18
+ */
+public class EmailEventDispatcherTest {
+
+    @Test
+    public void order() throws Exception {
+
+        EmailEventDispatcher dispatcher = new EmailEventDispatcher(1024);
+        Map<String, List<EmailEvent>> received = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(4 * 10000);
+        dispatcher.addListener(new EmailListener() {
+            @Override
+            public void onSent(EmailEvent event) {
+                throw new IllegalStateException("listener failure");
+            }
+        });
+        dispatcher.addListener(new EmailListener() {
+            @Override
+            public void onEvent(EmailEvent event) {
+                received.computeIfAbsent(event.getRequest().getSubject(), subject -> new ArrayList<>()).add(event);
+                latch.countDown();
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            MailRequest request = request("producer-" + i);
+            executor.execute(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    while (!dispatcher.publish(EmailEvent.sent(request, String.valueOf(j)))) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        Assertions.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        for (List<EmailEvent> events : received.values()) {
+            for (int j = 0; j < events.size(); j++) {
+                Assertions.assertEquals(String.valueOf(j), events.get(j).getMessageId());
+            }
+        }
+        dispatcher.close();
+    }
+
+    @Test
+    public void full() throws Exception {
+
+        EmailEventDispatcher dispatcher = new EmailEventDispatcher(4);
+        Assertions.assertFalse(dispatcher.publish(EmailEvent.of(EmailEventType.QUEUED, request("none"))));
+
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(5);
+        dispatcher.addListener(new EmailListener() {
+            @Override
+            public void onSending(EmailEvent event) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.countDown();
+            }
+        });
+
+        int published = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            if (dispatcher.publish(EmailEvent.of(EmailEventType.SENDING, request("mail-" + i)))) {
+                published++;
+            }
+        }
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertTrue(published <= 5);
+        Assertions.assertEquals(100 - published, dispatcher.getDropped());
+
+        gate.countDown();
+        dispatcher.close();
+        Assertions.assertEquals(0, dispatcher.getPending());
+    }
+
+    private static MailRequest request(String subject) {
+        return new MailRequest(MailType.TEXT, subject, "This is a test mail ... :-)",
+                Collections.singletonList(new EmailTo("852203465@qq.com")));
+    }
+
+}
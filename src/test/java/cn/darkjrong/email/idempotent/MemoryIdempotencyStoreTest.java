@@ -0,0 +1,79 @@
+package cn.darkjrong.email.idempotent;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 内存幂等键存储测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 14:36:02
+ */
+public class MemoryIdempotencyStoreTest {
+
+    @Test
+    public void putIfAbsent() {
+
+        MemoryIdempotencyStore store = new MemoryIdempotencyStore(16, 60000L);
+
+        Assertions.assertNull(store.putIfAbsent("order-1", "<1@localhost>"));
+        Assertions.assertEquals("<1@localhost>", store.putIfAbsent("order-1", "<2@localhost>"));
+        Assertions.assertEquals("<1@localhost>", store.get("order-1"));
+        Assertions.assertNull(store.get("order-2"));
+    }
+
+    @Test
+    public void remove() {
+
+        MemoryIdempotencyStore store = new MemoryIdempotencyStore(16, 60000L);
+        store.putIfAbsent("order-1", "<1@localhost>");
+        store.remove("order-1");
+
+        Assertions.assertNull(store.get("order-1"));
+        Assertions.assertNull(store.putIfAbsent("order-1", "<2@localhost>"));
+        Assertions.assertEquals("<2@localhost>", store.get("order-1"));
+    }
+
+    @Test
+    public void evictOldest() {
+
+        MemoryIdempotencyStore store = new MemoryIdempotencyStore(100, 60000L);
+        for (int i = 0; i < 1000; i++) {
+            store.putIfAbsent("order-" + i, "<" + i + "@localhost>");
+            if (i % 3 == 0) {
+                store.remove("order-" + i);
+            }
+        }
+
+        Assertions.assertEquals(100, store.size());
+        Assertions.assertNull(store.get("order-0"));
+        Assertions.assertNull(store.get("order-899"));
+        Assertions.assertEquals("<998@localhost>", store.get("order-998"));
+        Assertions.assertNull(store.get("order-999"));
+    }
+
+    @Test
+    public void expire() throws InterruptedException {
+
+        MemoryIdempotencyStore store = new MemoryIdempotencyStore(16, 50L);
+        store.putIfAbsent("order-1", "<1@localhost>");
+        Thread.sleep(100L);
+
+        Assertions.assertNull(store.get("order-1"));
+        Assertions.assertEquals(0, store.size());
+    }
+
+    @Test
+    public void capacity() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MemoryIdempotencyStore(0, 60000L));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MemoryIdempotencyStore(-1, 60000L));
+
+        MemoryIdempotencyStore store = new MemoryIdempotencyStore(1, 60000L);
+        store.putIfAbsent("order-1", "<1@localhost>");
+        store.putIfAbsent("order-2", "<2@localhost>");
+        Assertions.assertNull(store.get("order-1"));
+        Assertions.assertEquals("<2@localhost>", store.get("order-2"));
+    }
+
+}
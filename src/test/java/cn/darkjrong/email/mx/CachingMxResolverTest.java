@@ -0,0 +1,65 @@
+package cn.darkjrong.email.mx;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.MessagingException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存 MX 记录解析器测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 18:40:15
+ */
+public class CachingMxResolverTest {
+
+    @Test
+    public void cache() throws MessagingException {
+
+        AtomicInteger lookups = new AtomicInteger();
+        CachingMxResolver resolver = new CachingMxResolver(domain -> {
+            lookups.incrementAndGet();
+            return Arrays.asList(new MxRecord("mx1." + domain, 10, 60000L), new MxRecord("mx2." + domain, 20, 60000L));
+        }, 60000L);
+
+        Assertions.assertEquals("mx1.example.com", resolver.resolve("example.com").get(0).getHost());
+        resolver.resolve("example.com");
+        resolver.resolve("example.org");
+
+        Assertions.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void ttl() throws MessagingException, InterruptedException {
+
+        AtomicInteger lookups = new AtomicInteger();
+        CachingMxResolver resolver = new CachingMxResolver(domain -> {
+            lookups.incrementAndGet();
+            return Arrays.asList(new MxRecord("mx1." + domain, 10, 60000L), new MxRecord("mx2." + domain, 20, 50L));
+        }, 60000L);
+
+        resolver.resolve("example.com");
+        resolver.resolve("example.com");
+        Thread.sleep(100L);
+        resolver.resolve("example.com");
+
+        Assertions.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void failure() {
+
+        AtomicInteger lookups = new AtomicInteger();
+        CachingMxResolver resolver = new CachingMxResolver(domain -> {
+            lookups.incrementAndGet();
+            throw new MessagingException("Domain " + domain + " does not exist");
+        }, 60000L);
+
+        Assertions.assertThrows(MessagingException.class, () -> resolver.resolve("example.invalid"));
+        Assertions.assertThrows(MessagingException.class, () -> resolver.resolve("example.invalid"));
+        Assertions.assertEquals(2, lookups.get());
+    }
+
+}
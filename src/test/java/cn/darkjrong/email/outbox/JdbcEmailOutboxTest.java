@@ -0,0 +1,211 @@
+package cn.darkjrong.email.outbox;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.MailType;
+import cn.darkjrong.email.domain.SendResult;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JDBC 事务发件箱测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 15:46:19
+ */
+public class JdbcEmailOutboxTest {
+
+    private DriverManagerDataSource dataSource;
+    private CountingEmailTemplate emailTemplate;
+    private EmailProperties.Outbox outbox;
+
+    @BeforeEach
+    public void setUp() {
+
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("DROP TABLE IF EXISTS email_outbox");
+        new ResourceDatabasePopulator(new ClassPathResource("META-INF/email/outbox-schema.sql")).execute(dataSource);
+
+        EmailProperties emailProperties = new EmailProperties();
+        emailProperties.setHost("localhost");
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+        emailTemplate = new CountingEmailTemplate(emailProperties);
+
+        outbox = new EmailProperties.Outbox();
+        outbox.setBatchSize(20);
+    }
+
+    @Test
+    public void rollback() {
+
+        JdbcEmailOutbox emailOutbox = new JdbcEmailOutbox(emailTemplate, dataSource, outbox);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            emailOutbox.enqueue(request("rollback"));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> emailOutbox.enqueue(request("commit")));
+
+        Assertions.assertEquals(1, emailOutbox.poll());
+        Assertions.assertNull(emailTemplate.sent.get("rollback"));
+        Assertions.assertEquals(1, emailTemplate.sent.get("commit").get());
+        emailOutbox.close();
+    }
+
+    @Test
+    public void multipleNodes() throws Exception {
+
+        JdbcEmailOutbox node1 = new JdbcEmailOutbox(emailTemplate, dataSource, outbox);
+        JdbcEmailOutbox node2 = new JdbcEmailOutbox(emailTemplate, dataSource, outbox);
+        node1.start();
+        node2.start();
+
+        for (int i = 0; i < 500; i++) {
+            node1.enqueue(request("mail-" + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> poller1 = executor.submit(() -> drain(node1));
+        Future<?> poller2 = executor.submit(() -> drain(node2));
+        poller1.get(30, TimeUnit.SECONDS);
+        poller2.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // 后台轮询可能仍在发送, 全部标记为已发送后再检查
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (sent(jdbcTemplate) < 500 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        node1.close();
+        node2.close();
+
+        Assertions.assertEquals(500, sent(jdbcTemplate));
+        Assertions.assertEquals(500, emailTemplate.sent.size());
+        emailTemplate.sent.values().forEach(count -> Assertions.assertEquals(1, count.get()));
+    }
+
+    @Test
+    public void leaseExpired() throws Exception {
+
+        outbox.setLease(200L);
+        outbox.setConcurrency(1);
+        JdbcEmailOutbox node1 = new JdbcEmailOutbox(emailTemplate, dataSource, outbox);
+        JdbcEmailOutbox node2 = new JdbcEmailOutbox(emailTemplate, dataSource, outbox);
+        node1.enqueue(request("slow"));
+        node1.enqueue(request("queued"));
+
+        // node1 第一次发送 slow 超过租约后失败, queued 排在其后等待
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Integer> poller1 = executor.submit(node1::poll);
+        Assertions.assertTrue(emailTemplate.started.await(5, TimeUnit.SECONDS));
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        // 租约过期后 node2 重新认领并发送
+        Assertions.assertEquals(2, node2.poll());
+        emailTemplate.release.countDown();
+        Assertions.assertEquals(2, poller1.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // slow 已由 node1 发出一次(至少一次), queued 因租约已失效不再由 node1 发送, node1 的失败不覆盖已发送状态
+        Assertions.assertEquals(2, emailTemplate.sent.get("slow").get());
+        Assertions.assertEquals(1, emailTemplate.sent.get("queued").get());
+        Assertions.assertEquals(2, new JdbcTemplate(dataSource)
+                .queryForObject("SELECT COUNT(*) FROM email_outbox WHERE status = 'SENT'", Integer.class));
+
+        node1.close();
+        node2.close();
+    }
+
+    @Test
+    public void leaseExpiredSent() throws Exception {
+
+        outbox.setLease(200L);
+        emailTemplate.failBlocked = Boolean.FALSE;
+        JdbcEmailOutbox node1 = new JdbcEmailOutbox(emailTemplate, dataSource, outbox);
+        JdbcEmailOutbox node2 = new JdbcEmailOutbox(emailTemplate, dataSource, outbox);
+        node1.enqueue(request("slow"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Integer> poller1 = executor.submit(node1::poll);
+        Assertions.assertTrue(emailTemplate.started.await(5, TimeUnit.SECONDS));
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        // 租约已过期但未被重新认领, node1 发送成功后仍记为已发送, 不会再被认领
+        emailTemplate.release.countDown();
+        Assertions.assertEquals(1, poller1.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        Assertions.assertEquals(0, node2.poll());
+        Assertions.assertEquals(1, emailTemplate.sent.get("slow").get());
+        Assertions.assertEquals("<slow@localhost>", new JdbcTemplate(dataSource)
+                .queryForObject("SELECT message_id FROM email_outbox WHERE status = 'SENT'", String.class));
+
+        node1.close();
+        node2.close();
+    }
+
+    private static void drain(JdbcEmailOutbox emailOutbox) {
+        int idle = 0;
+        while (idle < 3) {
+            idle = emailOutbox.poll() == 0 ? idle + 1 : 0;
+        }
+    }
+
+    private static int sent(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox WHERE status = 'SENT'", Integer.class);
+    }
+
+    private static MailRequest request(String subject) {
+        return new MailRequest(MailType.TEXT, subject, "This is a test mail ... :-)",
+                Collections.singletonList(new EmailTo("852203465@qq.com")));
+    }
+
+    /**
+     * 记录发送次数, 不连接邮件服务器; 主题为 slow 的第一次发送阻塞到 release
+     */
+    private static class CountingEmailTemplate extends EmailTemplate {
+
+        private final Map<String, AtomicInteger> sent = new ConcurrentHashMap<>();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean failBlocked = Boolean.TRUE;
+
+        CountingEmailTemplate(EmailProperties emailProperties) {
+            super(emailProperties);
+        }
+
+        @Override
+        public SendResult send(MailRequest request) {
+            int count = sent.computeIfAbsent(request.getSubject(), subject -> new AtomicInteger()).incrementAndGet();
+            if ("slow".equals(request.getSubject()) && count == 1) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failBlocked) {
+                    throw new IllegalStateException("slow send failed");
+                }
+            }
+            return SendResult.success(request, "<" + request.getSubject() + "@localhost>");
+        }
+    }
+
+}
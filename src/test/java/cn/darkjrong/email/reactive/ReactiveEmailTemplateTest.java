@@ -0,0 +1,163 @@
+package cn.darkjrong.email.reactive;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.MailType;
+import cn.darkjrong.email.domain.SendResult;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 响应式电子邮件操作类测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 10:02:17
+ */
+public class ReactiveEmailTemplateTest {
+
+    private CountingEmailTemplate emailTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        EmailProperties emailProperties = new EmailProperties();
+        emailProperties.setHost("localhost");
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+        emailTemplate = new CountingEmailTemplate(emailProperties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        emailTemplate.close();
+    }
+
+    @Test
+    public void concurrency() {
+
+        ReactiveEmailTemplate reactiveEmailTemplate = new ReactiveEmailTemplate(emailTemplate, 2);
+        List<SendResult> results = reactiveEmailTemplate.send(Flux.range(0, 10).map(i -> request("mail-" + i)))
+                .collectList().block(Duration.ofSeconds(10));
+
+        // 同时发送的邮件数不超过 concurrency
+        Assertions.assertEquals(10, results.size());
+        Assertions.assertEquals(2, emailTemplate.maxInFlight.get());
+        reactiveEmailTemplate.close();
+    }
+
+    @Test
+    public void backpressure() throws Exception {
+
+        ReactiveEmailTemplate reactiveEmailTemplate = new ReactiveEmailTemplate(emailTemplate, 2);
+        AtomicLong requested = new AtomicLong();
+        Flux<MailRequest> requests = Flux.range(0, 100)
+                .doOnRequest(requested::addAndGet)
+                .map(i -> request("mail-" + i));
+
+        List<SendResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        BaseSubscriber<SendResult> subscriber = new BaseSubscriber<SendResult>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(SendResult value) {
+                results.add(value);
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                completed.countDown();
+            }
+        };
+        reactiveEmailTemplate.send(requests).subscribe(subscriber);
+
+        // 下游只请求 1 个结果时, 上游最多拉取 concurrency 个在途请求加 1 个补充请求
+        TimeUnit.MILLISECONDS.sleep(300);
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertTrue(requested.get() <= 3, "requested " + requested.get());
+        Assertions.assertTrue(emailTemplate.sent.get() <= 3, "sent " + emailTemplate.sent.get());
+
+        subscriber.request(Long.MAX_VALUE);
+        Assertions.assertTrue(completed.await(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(100, results.size());
+        Assertions.assertEquals(100, emailTemplate.sent.get());
+        reactiveEmailTemplate.close();
+    }
+
+    @Test
+    public void failure() {
+
+        ReactiveEmailTemplate reactiveEmailTemplate = new ReactiveEmailTemplate(emailTemplate, 2);
+
+        // 发送异常转为失败结果, 不中断请求流
+        List<SendResult> results = reactiveEmailTemplate.send(Flux.just(request("fail"), request("mail")))
+                .collectList().block(Duration.ofSeconds(10));
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals(1, results.stream().filter(result -> !result.getSuccess()).count());
+
+        SendResult result = reactiveEmailTemplate.send(request("fail")).block(Duration.ofSeconds(10));
+        Assertions.assertFalse(result.getSuccess());
+        reactiveEmailTemplate.close();
+    }
+
+    @Test
+    public void invalidConcurrency() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ReactiveEmailTemplate(emailTemplate, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ReactiveEmailTemplate(emailTemplate, -1));
+    }
+
+    private static MailRequest request(String subject) {
+        return new MailRequest(MailType.TEXT, subject, "This is a test mail ... :-)",
+                Collections.singletonList(new EmailTo("852203465@qq.com")));
+    }
+
+    /**
+     * 记录发送数与同时发送的最大邮件数, 不连接邮件服务器; 主题为 fail 时抛出 MailException
+     */
+    private static class CountingEmailTemplate extends EmailTemplate {
+
+        private final AtomicInteger sent = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        CountingEmailTemplate(EmailProperties emailProperties) {
+            super(emailProperties);
+        }
+
+        @Override
+        public SendResult send(MailRequest request) {
+            sent.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            if ("fail".equals(request.getSubject())) {
+                throw new MailException("Send failed");
+            }
+            return SendResult.success(request, "<" + request.getSubject() + "@localhost>");
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package cn.darkjrong.email.suppression;
+
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import cn.hutool.core.io.FileUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存映射抑制列表测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/18 23:44:05
+ */
+public class MappedSuppressionListTest {
+
+    private File directory;
+    private EmailProperties.Suppression suppression;
+
+    @BeforeEach
+    public void setUp() {
+        directory = new File(FileUtil.getTmpDirPath(), "email-suppression-" + System.nanoTime());
+        suppression = new EmailProperties.Suppression();
+        suppression.setFile(new File(directory, "suppression.dat").getPath());
+        suppression.setExpectedSize(10000L);
+        suppression.setCompactThreshold(100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        FileUtil.del(directory);
+    }
+
+    @Test
+    public void journal() {
+
+        MappedSuppressionList suppressionList = new MappedSuppressionList(suppression);
+        suppressionList.add(" Gone@Example.org ");
+        Assertions.assertTrue(suppressionList.contains("gone@example.org"));
+        Assertions.assertFalse(suppressionList.contains("alive@example.org"));
+        suppressionList.close();
+
+        MappedSuppressionList reloaded = new MappedSuppressionList(suppression);
+        Assertions.assertTrue(reloaded.contains("GONE@example.org"));
+        Assertions.assertEquals(1, reloaded.size());
+        reloaded.close();
+    }
+
+    @Test
+    public void compact() {
+
+        MappedSuppressionList suppressionList = new MappedSuppressionList(suppression);
+        List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            addresses.add("user" + i + "@example.org");
+        }
+        suppressionList.addAll(addresses);
+        for (int i = 0; i < 250; i++) {
+            suppressionList.add("bounce" + i + "@example.org");
+        }
+        Assertions.assertEquals(5250, suppressionList.size());
+        Assertions.assertEquals(5200 * Long.BYTES, new File(suppression.getFile()).length());
+        suppressionList.close();
+
+        MappedSuppressionList reloaded = new MappedSuppressionList(suppression);
+        Assertions.assertEquals(5250, reloaded.size());
+        for (int i = 0; i < 5000; i++) {
+            Assertions.assertTrue(reloaded.contains("user" + i + "@example.org"));
+        }
+        for (int i = 0; i < 250; i++) {
+            Assertions.assertTrue(reloaded.contains("bounce" + i + "@example.org"));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 5000; i++) {
+            if (reloaded.contains("other" + i + "@example.org")) {
+                falsePositives++;
+            }
+        }
+        Assertions.assertEquals(0, falsePositives);
+        reloaded.close();
+    }
+
+}
@@ -0,0 +1,148 @@
+package cn.darkjrong.email.trace;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.async.AsyncEmailSender;
+import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.MailType;
+import cn.darkjrong.email.domain.SendResult;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发送追踪测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 02:21:37
+ */
+public class SendTracerTest {
+
+    private EmailProperties emailProperties;
+    private EmailTemplate emailTemplate;
+    private RecordingTracer tracer;
+
+    @BeforeEach
+    public void setUp() {
+
+        // 无服务器监听的端口, 发送在 CONNECT 阶段失败
+        emailProperties = new EmailProperties();
+        emailProperties.setHost("127.0.0.1");
+        emailProperties.setPort(1);
+        emailProperties.setAvoidAuthEnable(Boolean.TRUE);
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+        emailProperties.getPool().setEnabled(Boolean.FALSE);
+
+        emailTemplate = new EmailTemplate(emailProperties);
+        tracer = new RecordingTracer();
+        emailTemplate.setSendTracer(tracer);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        emailTemplate.close();
+    }
+
+    @Test
+    public void phases() {
+
+        Assertions.assertThrows(MailException.class, () -> emailTemplate.send(request()));
+
+        Assertions.assertEquals(1, tracer.spans.size());
+        RecordingSpan span = tracer.spans.get(0);
+        Assertions.assertEquals(Arrays.asList(SendPhase.WAIT, SendPhase.VALIDATE, SendPhase.BUILD, SendPhase.CONNECT), span.phases);
+        Assertions.assertTrue(span.attributes.get(0).startsWith("email.message_id=<"));
+        Assertions.assertNotNull(span.error);
+        Assertions.assertTrue(span.ended);
+    }
+
+    @Test
+    public void async() throws Exception {
+
+        AsyncEmailSender sender = new AsyncEmailSender(emailTemplate, emailProperties.getAsync());
+        SendResult result = sender.submit(request()).get(5, TimeUnit.SECONDS);
+        sender.close();
+
+        Assertions.assertFalse(result.getSuccess());
+        Assertions.assertEquals(1, tracer.spans.size());
+        Assertions.assertEquals("context-" + result.getRequest().getSubject(), tracer.spans.get(0).parent);
+        Assertions.assertNull(RecordingTracer.CURRENT.get());
+    }
+
+    private static MailRequest request() {
+        return new MailRequest(MailType.TEXT, "subject", "This is a test mail ... :-)",
+                Collections.singletonList(new EmailTo("852203465@qq.com")));
+    }
+
+    /**
+     * 以线程变量作为上下文的追踪, 记录全部发送
+     */
+    private static class RecordingTracer implements SendTracer {
+
+        private static final ThreadLocal<Object> CURRENT = new ThreadLocal<>();
+
+        private final List<RecordingSpan> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public SendSpan start(MailRequest request) {
+            RecordingSpan span = new RecordingSpan(CURRENT.get());
+            spans.add(span);
+            return span;
+        }
+
+        @Override
+        public Object enqueue(MailRequest request) {
+            return "context-" + request.getSubject();
+        }
+
+        @Override
+        public Scope dequeue(Object context) {
+            Object previous = CURRENT.get();
+            CURRENT.set(context);
+            return () -> CURRENT.set(previous);
+        }
+    }
+
+    private static class RecordingSpan implements SendSpan {
+
+        private final Object parent;
+        private final List<SendPhase> phases = new CopyOnWriteArrayList<>();
+        private final List<String> attributes = new CopyOnWriteArrayList<>();
+        private volatile Throwable error;
+        private volatile boolean ended;
+
+        RecordingSpan(Object parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public void phase(SendPhase phase) {
+            phases.add(phase);
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {
+            attributes.add(key + "=" + value);
+        }
+
+        @Override
+        public void error(Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void end() {
+            this.ended = Boolean.TRUE;
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.email.domain.Priority;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应并发限制测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 01:41:09
+ */
+public class AimdLimitTest {
+
+    @Test
+    public void increase() {
+
+        AimdLimit limit = new AimdLimit(new EmailProperties.Adaptive(), 8);
+        Assertions.assertEquals(4, limit.getLimit());
+
+        // 约每成功 limit 封增加 1
+        for (int i = 0; i < 5; i++) {
+            limit.onSuccess(100L);
+        }
+        Assertions.assertEquals(5, limit.getLimit());
+        for (int i = 0; i < 100; i++) {
+            limit.onSuccess(100L);
+        }
+        Assertions.assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    public void latency() {
+
+        AimdLimit limit = new AimdLimit(new EmailProperties.Adaptive(), 64);
+        for (int i = 0; i < 20; i++) {
+            limit.onSuccess(100L);
+        }
+        int stable = limit.getLimit();
+
+        // 延迟升高到长期平均的 2 倍以上后不再增加
+        for (int i = 0; i < 20; i++) {
+            limit.onSuccess(1000L);
+        }
+        Assertions.assertTrue(limit.getLimit() - stable <= 1);
+        int saturated = limit.getLimit();
+        for (int i = 0; i < 10; i++) {
+            limit.onSuccess(1000L);
+        }
+        Assertions.assertEquals(saturated, limit.getLimit());
+    }
+
+    @Test
+    public void throttled() throws Exception {
+
+        AimdLimit limit = new AimdLimit(new EmailProperties.Adaptive(), 8);
+        for (int i = 0; i < 100; i++) {
+            limit.onSuccess(20L);
+        }
+        Assertions.assertEquals(8, limit.getLimit());
+
+        // 同一平均延迟内的多次限流只回退一次
+        limit.onThrottled();
+        limit.onThrottled();
+        Assertions.assertEquals(4, limit.getLimit());
+
+        TimeUnit.MILLISECONDS.sleep(50);
+        limit.onThrottled();
+        Assertions.assertEquals(2, limit.getLimit());
+        TimeUnit.MILLISECONDS.sleep(50);
+        limit.onThrottled();
+        TimeUnit.MILLISECONDS.sleep(50);
+        limit.onThrottled();
+        Assertions.assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    public void lanes() throws Exception {
+
+        EmailProperties.Adaptive adaptive = new EmailProperties.Adaptive();
+        adaptive.setInitialLimit(2);
+        EmailProperties.Lanes lanes = new EmailProperties.Lanes();
+        lanes.setHighReserved(0);
+        PriorityLanes priorityLanes = new PriorityLanes(8, lanes, 50L, new AimdLimit(adaptive, 8));
+
+        PriorityLanes.Permit first = priorityLanes.acquire(Priority.NORMAL);
+        priorityLanes.acquire(Priority.NORMAL);
+        Assertions.assertThrows(Exception.class, () -> priorityLanes.acquire(Priority.NORMAL));
+
+        priorityLanes.release(first);
+        Assertions.assertNotNull(priorityLanes.acquire(Priority.NORMAL));
+    }
+
+}
@@ -0,0 +1,133 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.email.mx.MxRecord;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import com.sun.mail.smtp.SMTPMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 直投 MX 测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 09:10:33
+ */
+public class DirectDeliveryTest {
+
+    private FakeSmtpServer server;
+    private EmailProperties emailProperties;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeSmtpServer("STARTTLS");
+        emailProperties = new EmailProperties();
+        emailProperties.setHost("127.0.0.1");
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+        emailProperties.getDirect().setEnabled(Boolean.TRUE);
+        emailProperties.getDirect().setPort(server.getPort());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void opportunistic() throws Exception {
+
+        DirectDelivery directDelivery = directDelivery();
+        directDelivery.send(message());
+
+        // STARTTLS 握手失败后明文重新连接
+        Assertions.assertEquals(1, server.getMessages());
+        Assertions.assertEquals(2, server.getConnections());
+        directDelivery.close();
+    }
+
+    @Test
+    public void required() throws Exception {
+
+        emailProperties.getDirect().setTls(TlsPolicy.REQUIRED);
+        DirectDelivery directDelivery = directDelivery();
+
+        Assertions.assertThrows(MessagingException.class, () -> directDelivery.send(message()));
+        Assertions.assertEquals(0, server.getMessages());
+        directDelivery.close();
+    }
+
+    @Test
+    public void none() throws Exception {
+
+        emailProperties.getDirect().setTls(TlsPolicy.NONE);
+        DirectDelivery directDelivery = directDelivery();
+        directDelivery.send(message());
+
+        Assertions.assertEquals(1, server.getMessages());
+        Assertions.assertFalse(server.getCommands().contains("STARTTLS"));
+        directDelivery.close();
+    }
+
+    @Test
+    public void heloName() throws Exception {
+
+        emailProperties.getDirect().setTls(TlsPolicy.NONE);
+        DirectDelivery directDelivery = directDelivery();
+        directDelivery.send(message());
+        directDelivery.close();
+
+        // 默认声明发件人邮箱的域名
+        Assertions.assertTrue(server.getCommands().contains("EHLO qq.com"));
+
+        emailProperties.getDirect().setHeloName("mail.example.com");
+        directDelivery = directDelivery();
+        directDelivery.send(message());
+        directDelivery.close();
+        Assertions.assertTrue(server.getCommands().contains("EHLO mail.example.com"));
+    }
+
+    @Test
+    public void evictPool() throws Exception {
+
+        emailProperties.getDirect().setTls(TlsPolicy.NONE);
+        emailProperties.getPool().setIdleTimeout(50L);
+        DirectDelivery directDelivery = directDelivery();
+        directDelivery.send(message());
+        Assertions.assertEquals(1, directDelivery.getPools());
+
+        // 连接空闲超时关闭后移除连接池, 再次投递时重新创建
+        long deadline = System.currentTimeMillis() + 2000;
+        while (directDelivery.getPools() > 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        Assertions.assertEquals(0, directDelivery.getPools());
+
+        directDelivery.send(message());
+        Assertions.assertEquals(2, server.getMessages());
+        directDelivery.close();
+    }
+
+    private DirectDelivery directDelivery() {
+        DirectDelivery directDelivery = new DirectDelivery(emailProperties);
+        directDelivery.setMxResolver(domain -> Collections.singletonList(new MxRecord("127.0.0.1", 10, 60000L)));
+        return directDelivery;
+    }
+
+    private static MimeMessage message() throws MessagingException {
+        SMTPMessage message = new SMTPMessage(Session.getInstance(new Properties()));
+        message.setFrom("852203465@qq.com");
+        message.setRecipients(MimeMessage.RecipientType.TO, "user@example.com");
+        message.setText("hello");
+        message.saveChanges();
+        return message;
+    }
+
+}
@@ -0,0 +1,69 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.domain.MailRequest;
+import cn.darkjrong.email.domain.MailType;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 收件域名隔离测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 01:02:44
+ */
+public class DomainBulkheadTest {
+
+    @Test
+    public void domains() {
+
+        MailRequest request = new MailRequest(MailType.TEXT, "subject", "message",
+                Arrays.asList(new EmailTo("a@QQ.com"), new EmailTo("b@qq.com"), new EmailTo("c@163.com")));
+        request.setBccEmails(Collections.singletonList(new EmailTo("d@example.com")));
+
+        Assertions.assertEquals(Arrays.asList("163.com", "example.com", "qq.com"), DomainBulkhead.domains(request));
+    }
+
+    @Test
+    public void acquire() throws Exception {
+
+        EmailProperties.Bulkhead properties = new EmailProperties.Bulkhead();
+        properties.setMaxPerDomain(1);
+        properties.setMaxWait(50L);
+        properties.getLimits().put("QQ.com", 2);
+        DomainBulkhead bulkhead = new DomainBulkhead(properties);
+
+        List<String> slow = Collections.singletonList("163.com");
+        DomainBulkhead.Permit permit = bulkhead.acquire(slow);
+        DomainBulkhead.Permit nested = bulkhead.acquire(slow);
+        Assertions.assertEquals(1, bulkhead.getInUse().get("163.com"));
+        bulkhead.release(nested);
+
+        inOtherThread(() -> {
+            Assertions.assertNull(bulkhead.tryAcquire(slow));
+            Assertions.assertNull(bulkhead.tryAcquire(Arrays.asList("163.com", "qq.com")));
+            Assertions.assertThrows(MailException.class, () -> bulkhead.acquire(slow));
+            Assertions.assertNotNull(bulkhead.tryAcquire(Collections.singletonList("qq.com")));
+        });
+        inOtherThread(() -> Assertions.assertNotNull(bulkhead.tryAcquire(Collections.singletonList("qq.com"))));
+        inOtherThread(() -> Assertions.assertNull(bulkhead.tryAcquire(Collections.singletonList("qq.com"))));
+        Assertions.assertEquals(2, bulkhead.getInUse().get("qq.com"));
+
+        bulkhead.release(permit);
+        Assertions.assertNull(bulkhead.getInUse().get("163.com"));
+    }
+
+    private static void inOtherThread(Runnable runnable) throws Exception {
+        FutureTask<Void> task = new FutureTask<>(runnable, null);
+        new Thread(task).start();
+        task.get();
+    }
+
+}
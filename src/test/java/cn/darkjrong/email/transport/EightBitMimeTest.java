@@ -0,0 +1,130 @@
+package cn.darkjrong.email.transport;
+
+import cn.hutool.core.util.StrUtil;
+import com.sun.mail.smtp.SMTPMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.mail.Part;
+import javax.mail.Session;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMultipart;
+import javax.mail.internet.MimePart;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 8BITMIME 测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 05:36:20
+ */
+public class EightBitMimeTest {
+
+    @Test
+    public void apply() throws Exception {
+
+        MimeBodyPart text = new MimeBodyPart();
+        text.setText("你好, 世界", "UTF-8");
+        MimeBodyPart ascii = new MimeBodyPart();
+        ascii.setText("hello", "UTF-8");
+        MimeBodyPart longLine = new MimeBodyPart();
+        longLine.setText(StrUtil.repeat("长", 400), "UTF-8");
+        MimeBodyPart attachment = new MimeBodyPart();
+        attachment.setText("附件", "UTF-8");
+        attachment.setDisposition(Part.ATTACHMENT);
+
+        SMTPMessage smtpMessage = new SMTPMessage(Session.getInstance(new Properties()));
+        smtpMessage.setContent(new MimeMultipart(text, ascii, longLine, attachment));
+        smtpMessage.setMailExtension("SIZE=100");
+
+        Assertions.assertTrue(EightBitMime.apply(smtpMessage));
+        smtpMessage.saveChanges();
+
+        Assertions.assertEquals("8bit", text.getEncoding());
+        Assertions.assertEquals("7bit", ascii.getEncoding());
+        // 单行超过 998 字节, 附件保持原编码
+        Assertions.assertNotEquals("8bit", longLine.getEncoding());
+        Assertions.assertNotEquals("8bit", attachment.getEncoding());
+        Assertions.assertEquals("SIZE=100 BODY=8BITMIME", smtpMessage.getMailExtension());
+    }
+
+    @Test
+    public void attachmentNotRead() throws Exception {
+
+        MimeBodyPart attachment = new MimeBodyPart();
+        attachment.setDataHandler(new DataHandler(new DataSource() {
+            @Override
+            public InputStream getInputStream() {
+                throw new AssertionError("attachment read");
+            }
+
+            @Override
+            public OutputStream getOutputStream() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String getContentType() {
+                return "text/plain; charset=UTF-8";
+            }
+
+            @Override
+            public String getName() {
+                return "a.txt";
+            }
+        }));
+        attachment.setDisposition(Part.ATTACHMENT);
+
+        SMTPMessage smtpMessage = new SMTPMessage(Session.getInstance(new Properties()));
+        smtpMessage.setContent(new MimeMultipart(attachment));
+
+        Assertions.assertFalse(EightBitMime.apply(smtpMessage));
+    }
+
+    @Test
+    public void downgrade() throws Exception {
+
+        MimeBodyPart text = new MimeBodyPart();
+        text.setText("你好, 世界", "UTF-8");
+        SMTPMessage smtpMessage = new SMTPMessage(Session.getInstance(new Properties()));
+        smtpMessage.setContent(new MimeMultipart(text));
+        Assertions.assertTrue(EightBitMime.apply(smtpMessage));
+        smtpMessage.saveChanges();
+        smtpMessage.setMailExtension("SIZE=100 BODY=8BITMIME");
+        String messageId = smtpMessage.getMessageID();
+
+        String mailExtension = smtpMessage.getMailExtension();
+        List<MimePart> parts = EightBitMime.downgrade(smtpMessage);
+        Assertions.assertEquals(1, parts.size());
+        Assertions.assertNotEquals("8bit", text.getEncoding());
+        Assertions.assertFalse(EightBitMime.isEightBit(smtpMessage));
+        Assertions.assertEquals("", smtpMessage.getMailExtension());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        smtpMessage.writeTo(out);
+        for (byte b : out.toByteArray()) {
+            Assertions.assertEquals(0, b & 0x80);
+        }
+
+        EightBitMime.restore(smtpMessage, parts, mailExtension);
+        Assertions.assertEquals("8bit", text.getEncoding());
+        Assertions.assertEquals("SIZE=100 BODY=8BITMIME", smtpMessage.getMailExtension());
+        Assertions.assertEquals(messageId, smtpMessage.getMessageID());
+    }
+
+    @Test
+    public void ascii() throws Exception {
+
+        SMTPMessage smtpMessage = new SMTPMessage(Session.getInstance(new Properties()));
+        smtpMessage.setText("hello", "UTF-8");
+
+        Assertions.assertFalse(EightBitMime.apply(smtpMessage));
+        Assertions.assertNull(smtpMessage.getMailExtension());
+    }
+
+}
@@ -0,0 +1,171 @@
+package cn.darkjrong.email.transport;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用 SMTP 服务器, 仅监听本机, 接受所有邮件; 声明 STARTTLS 时握手失败
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 07:48:20
+ */
+public class FakeSmtpServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final String[] extensions;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final List<String> commands = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger messages = new AtomicInteger();
+    private volatile long greetingDelay;
+    private volatile String greeting = "220 fake ESMTP";
+
+    /**
+     * @param extensions EHLO 声明的扩展, 如 "SIZE 1000"
+     */
+    public FakeSmtpServer(String... extensions) throws IOException {
+        this.serverSocket = new ServerSocket(0);
+        this.extensions = extensions;
+        Thread acceptor = new Thread(this::accept, "fake-smtp-" + serverSocket.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 建立的连接数
+     */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * 接收的邮件数
+     */
+    public int getMessages() {
+        return messages.get();
+    }
+
+    public List<String> getCommands() {
+        return commands;
+    }
+
+    /**
+     * 连接后延迟发送问候
+     */
+    public void setGreetingDelay(long greetingDelay) {
+        this.greetingDelay = greetingDelay;
+    }
+
+    public void setGreeting(String greeting) {
+        this.greeting = greeting;
+    }
+
+    /**
+     * 断开所有已建立的连接, 模拟服务器关闭空闲连接
+     */
+    public void dropAll() {
+        for (Socket socket : sockets) {
+            close(socket);
+        }
+        sockets.clear();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                sockets.add(socket);
+                Thread handler = new Thread(() -> handle(socket));
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.ISO_8859_1))) {
+            OutputStream out = s.getOutputStream();
+            if (greetingDelay > 0) {
+                Thread.sleep(greetingDelay);
+            }
+            write(out, greeting);
+            if (!greeting.startsWith("220")) {
+                return;
+            }
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                commands.add(line);
+                if (command.startsWith("EHLO")) {
+                    StringBuilder response = new StringBuilder("250-fake");
+                    for (String extension : extensions) {
+                        response.append("\r\n250-").append(extension);
+                    }
+                    write(out, response.append("\r\n250 HELP").toString());
+                } else if (command.equals("DATA")) {
+                    write(out, "354 go ahead");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        // 丢弃邮件内容
+                    }
+                    messages.incrementAndGet();
+                    write(out, "250 queued");
+                } else if (command.equals("STARTTLS")) {
+                    // 不支持 TLS, 握手时断开
+                    write(out, "220 ready");
+                    return;
+                } else if (command.equals("QUIT")) {
+                    write(out, "221 bye");
+                    return;
+                } else {
+                    write(out, "250 ok");
+                }
+            }
+        } catch (IOException e) {
+            // 连接被断开
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    private static void write(OutputStream out, String response) throws IOException {
+        out.write((response + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // ignore
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropAll();
+    }
+
+}
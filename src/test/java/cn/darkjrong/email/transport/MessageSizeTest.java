@@ -0,0 +1,42 @@
+package cn.darkjrong.email.transport;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.Message;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.ByteArrayOutputStream;
+import java.util.Properties;
+
+/**
+ * 邮件大小测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 04:52:16
+ */
+public class MessageSizeTest {
+
+    @Test
+    public void size() throws Exception {
+
+        MimeMessage mimeMessage = new MimeMessage(Session.getInstance(new Properties()));
+        mimeMessage.setFrom(new InternetAddress("from@example.com"));
+        mimeMessage.setRecipient(Message.RecipientType.TO, new InternetAddress("to@example.com"));
+        mimeMessage.setRecipient(Message.RecipientType.BCC, new InternetAddress("hidden@example.com"));
+        mimeMessage.setSubject("size");
+        mimeMessage.setText("first\nsecond\r\nthird");
+        mimeMessage.saveChanges();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mimeMessage.writeTo(out);
+        String written = out.toString("US-ASCII");
+        Assertions.assertTrue(written.contains("Bcc: hidden@example.com\r\n"));
+
+        // 不含 Bcc, 正文中单独的 LF 按 CRLF 计算
+        long expected = written.length() - "Bcc: hidden@example.com\r\n".length() + 1;
+        Assertions.assertEquals(expected, MessageSize.of(mimeMessage));
+    }
+
+}
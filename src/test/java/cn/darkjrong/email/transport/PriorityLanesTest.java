@@ -0,0 +1,130 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.email.domain.Priority;
+import cn.darkjrong.email.exception.MailException;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 优先级通道测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 09:40:16
+ */
+public class PriorityLanesTest {
+
+    @Test
+    public void reserved() throws Exception {
+
+        PriorityLanes lanes = lanes(4, 2, null, 50L);
+        lanes.acquire(Priority.NORMAL);
+        lanes.acquire(Priority.LOW);
+
+        // 共享连接用尽后仅高优先级可使用预留连接
+        Assertions.assertThrows(MailException.class, () -> lanes.acquire(Priority.NORMAL));
+        lanes.acquire(Priority.HIGH);
+        lanes.acquire(Priority.HIGH);
+        Assertions.assertThrows(MailException.class, () -> lanes.acquire(Priority.HIGH));
+        Assertions.assertEquals(2, lanes.getInUse().get(Priority.HIGH));
+    }
+
+    @Test
+    public void priorityOrder() throws Exception {
+
+        PriorityLanes lanes = lanes(1, 0, null, 5000L);
+        PriorityLanes.Permit permit = lanes.acquire(Priority.NORMAL);
+
+        CompletableFuture<PriorityLanes.Permit> low = acquireAsync(lanes, Priority.LOW);
+        awaitWaiting(lanes, Priority.LOW);
+        CompletableFuture<PriorityLanes.Permit> high = acquireAsync(lanes, Priority.HIGH);
+        awaitWaiting(lanes, Priority.HIGH);
+
+        // 后到的高优先级先获得共享连接
+        lanes.release(permit);
+        PriorityLanes.Permit highPermit = high.get(1L, TimeUnit.SECONDS);
+        Assertions.assertFalse(low.isDone());
+        lanes.release(highPermit);
+        Assertions.assertNotNull(low.get(1L, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, lanes.getInUse().get(Priority.LOW));
+        Assertions.assertEquals(0, lanes.getInUse().get(Priority.HIGH));
+    }
+
+    @Test
+    public void lowMax() throws Exception {
+
+        PriorityLanes lanes = lanes(4, 1, 1, 50L);
+        lanes.acquire(Priority.LOW);
+        Assertions.assertThrows(MailException.class, () -> lanes.acquire(Priority.LOW));
+        lanes.acquire(Priority.NORMAL);
+        lanes.acquire(Priority.NORMAL);
+    }
+
+    @Test
+    public void reservedBeyondLimit() throws Exception {
+
+        EmailProperties.Adaptive adaptive = new EmailProperties.Adaptive();
+        adaptive.setInitialLimit(4);
+        AimdLimit limit = new AimdLimit(adaptive, 6);
+        EmailProperties.Lanes properties = new EmailProperties.Lanes();
+        properties.setHighReserved(2);
+        PriorityLanes lanes = new PriorityLanes(6, properties, 50L, limit);
+
+        // 自适应限制只约束共享连接, 低优先级占满后高优先级仍可使用预留连接
+        lanes.acquire(Priority.LOW);
+        lanes.acquire(Priority.LOW);
+        Assertions.assertThrows(MailException.class, () -> lanes.acquire(Priority.LOW));
+        lanes.acquire(Priority.HIGH);
+        lanes.acquire(Priority.HIGH);
+        Assertions.assertThrows(MailException.class, () -> lanes.acquire(Priority.HIGH));
+        Assertions.assertEquals(2, lanes.getInUse().get(Priority.HIGH));
+    }
+
+    @Test
+    public void timeout() throws Exception {
+
+        PriorityLanes lanes = lanes(1, 0, null, 100L);
+        PriorityLanes.Permit permit = lanes.acquire(Priority.HIGH);
+
+        long start = System.currentTimeMillis();
+        MailException exception = Assertions.assertThrows(MailException.class, () -> lanes.acquire(Priority.NORMAL));
+        Assertions.assertTrue(System.currentTimeMillis() - start >= 100L);
+        Assertions.assertTrue(exception.getMessage().contains("NORMAL"));
+        Assertions.assertEquals(0, lanes.getWaiting().get(Priority.NORMAL));
+
+        // 超时的等待不影响之后的分配
+        lanes.release(permit);
+        Assertions.assertNotNull(lanes.acquire(Priority.NORMAL));
+    }
+
+    private static PriorityLanes lanes(int total, int highReserved, Integer lowMax, long maxWait) {
+        EmailProperties.Lanes properties = new EmailProperties.Lanes();
+        properties.setHighReserved(highReserved);
+        properties.setLowMax(lowMax);
+        return new PriorityLanes(total, properties, maxWait);
+    }
+
+    private static CompletableFuture<PriorityLanes.Permit> acquireAsync(PriorityLanes lanes, Priority priority) {
+        CompletableFuture<PriorityLanes.Permit> future = new CompletableFuture<>();
+        new Thread(() -> {
+            try {
+                future.complete(lanes.acquire(priority));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }).start();
+        return future;
+    }
+
+    private static void awaitWaiting(PriorityLanes lanes, Priority priority) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (lanes.getWaiting().get(priority) == 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        Assertions.assertEquals(1, lanes.getWaiting().get(priority));
+    }
+
+}
@@ -0,0 +1,194 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import com.sun.mail.smtp.SMTPMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * SMTP 连接池测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 08:02:37
+ */
+public class SmtpConnectionPoolTest {
+
+    private FakeSmtpServer server;
+    private EmailProperties emailProperties;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeSmtpServer();
+        emailProperties = new EmailProperties();
+        emailProperties.setHost("127.0.0.1");
+        emailProperties.setPort(server.getPort());
+        emailProperties.setSslEnable(Boolean.FALSE);
+        emailProperties.setAvoidAuthEnable(Boolean.TRUE);
+        emailProperties.getFrom().setEmail("852203465@qq.com");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void reuse() throws Exception {
+
+        SmtpConnectionPool pool = pool();
+        PooledConnection connection = pool.borrow();
+        Assertions.assertEquals(1, pool.getActive());
+        pool.release(connection, Boolean.TRUE);
+        Assertions.assertEquals(0, pool.getActive());
+        Assertions.assertEquals(1, pool.getIdle());
+
+        Assertions.assertSame(connection, pool.borrow());
+        Assertions.assertEquals(1, server.getConnections());
+        pool.close();
+    }
+
+    @Test
+    public void brokenIdle() throws Exception {
+
+        emailProperties.getPool().setValidateAfter(0L);
+        SmtpConnectionPool pool = pool();
+        PooledConnection connection = pool.borrow();
+        pool.release(connection, Boolean.TRUE);
+
+        // 服务器断开空闲连接, 借出时 NOOP 失败并新建连接
+        server.dropAll();
+        PooledConnection reconnected = pool.borrow();
+        Assertions.assertNotSame(connection, reconnected);
+        Assertions.assertEquals(2, server.getConnections());
+
+        reconnected.sendMessage(message(), message().getAllRecipients());
+        Assertions.assertEquals(1, server.getMessages());
+        pool.release(reconnected, Boolean.TRUE);
+        pool.close();
+    }
+
+    @Test
+    public void validateAfter() throws Exception {
+
+        emailProperties.getPool().setValidateAfter(60000L);
+        SmtpConnectionPool pool = pool();
+        pool.release(pool.borrow(), Boolean.TRUE);
+        pool.release(pool.borrow(), Boolean.TRUE);
+
+        // 刚归还的连接不执行 NOOP
+        Assertions.assertFalse(server.getCommands().contains("NOOP"));
+        pool.close();
+    }
+
+    @Test
+    public void idleTimeout() throws Exception {
+
+        emailProperties.getPool().setIdleTimeout(0L);
+        SmtpConnectionPool pool = pool();
+        PooledConnection connection = pool.borrow();
+        pool.release(connection, Boolean.TRUE);
+        Thread.sleep(5);
+
+        Assertions.assertNotSame(connection, pool.borrow());
+        Assertions.assertEquals(2, server.getConnections());
+        pool.close();
+    }
+
+    @Test
+    public void maxTotal() throws Exception {
+
+        emailProperties.getPool().setMaxTotal(1);
+        emailProperties.getPool().setMaxWait(100L);
+        SmtpConnectionPool pool = pool();
+        PooledConnection connection = pool.borrow();
+
+        MessagingException e = Assertions.assertThrows(MessagingException.class, pool::borrow);
+        Assertions.assertTrue(e.getMessage().startsWith("Timeout waiting for idle connection"));
+        Assertions.assertEquals(1, pool.getActive());
+
+        // 失败的连接不再复用
+        pool.release(connection, Boolean.FALSE);
+        Assertions.assertEquals(0, pool.getIdle());
+        pool.close();
+        Assertions.assertThrows(MessagingException.class, pool::borrow);
+    }
+
+    @Test
+    public void checkIdle() throws Exception {
+
+        SmtpConnectionPool pool = pool();
+        Assertions.assertNull(pool.checkIdle());
+        Assertions.assertEquals(0, server.getConnections());
+
+        pool.release(pool.borrow(), Boolean.TRUE);
+        Assertions.assertEquals(Boolean.TRUE, pool.checkIdle());
+        Assertions.assertEquals(1, pool.getIdle());
+
+        server.dropAll();
+        Assertions.assertEquals(Boolean.FALSE, pool.checkIdle());
+        Assertions.assertEquals(0, pool.getIdle());
+        pool.close();
+    }
+
+    @Test
+    public void prewarm() throws Exception {
+
+        SmtpConnectionPool pool = pool();
+        Assertions.assertEquals(3, pool.prewarm(3));
+        Assertions.assertEquals(3, pool.getIdle());
+        Assertions.assertEquals(0, pool.getActive());
+
+        // 已有空闲连接时只补足差额, 借出时不再建立连接
+        Assertions.assertEquals(1, pool.prewarm(4));
+        pool.borrow();
+        Assertions.assertEquals(4, server.getConnections());
+        pool.close();
+    }
+
+    @Test
+    public void prewarmMaxIdle() throws Exception {
+
+        emailProperties.getPool().setMaxIdle(2);
+        SmtpConnectionPool pool = pool();
+        Assertions.assertEquals(2, pool.prewarm(5));
+        Assertions.assertEquals(2, pool.getIdle());
+        Assertions.assertEquals(2, server.getConnections());
+        pool.close();
+    }
+
+    @Test
+    public void prewarmFailed() throws Exception {
+
+        server.setGreeting("421 4.7.0 Too many connections");
+        emailProperties.getPool().setMaxTotal(1);
+        emailProperties.getPool().setMaxWait(100L);
+        SmtpConnectionPool pool = pool();
+        Assertions.assertThrows(MessagingException.class, () -> pool.prewarm(2));
+        Assertions.assertEquals(0, pool.getIdle());
+
+        // 失败后归还许可
+        server.setGreeting("220 fake ESMTP");
+        pool.release(pool.borrow(), Boolean.TRUE);
+        Assertions.assertEquals(1, pool.getIdle());
+        pool.close();
+    }
+
+    private SmtpConnectionPool pool() {
+        return new SmtpConnectionPool(new SmtpConnector(emailProperties), emailProperties.getPool());
+    }
+
+    private MimeMessage message() throws MessagingException {
+        SMTPMessage message = new SMTPMessage(new SmtpConnector(emailProperties).getSession());
+        message.setFrom("852203465@qq.com");
+        message.setRecipients(MimeMessage.RecipientType.TO, "852203465@qq.com");
+        message.setText("hello");
+        message.saveChanges();
+        return message;
+    }
+
+}
@@ -0,0 +1,233 @@
+package cn.darkjrong.email.transport;
+
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SMTP 连接器测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 08:31:45
+ */
+public class SmtpConnectorTest {
+
+    @Test
+    public void hedgeDelay() throws Exception {
+
+        // a 超过对冲延迟仍未建立, 并行连接 b, 保留 b 并关闭之后建立的 a(阻塞的套接字连接不响应中断)
+        StubConnector connector = new StubConnector(50, "a", "b");
+        connector.delays.put("a", 300L);
+        connector.uninterruptible = Boolean.TRUE;
+        connector.delays.put("b", 10L);
+
+        StubTransport transport = (StubTransport) connector.connect();
+        Assertions.assertEquals("b", transport.host);
+        Assertions.assertEquals(Arrays.asList("a", "b"), connector.started);
+
+        Assertions.assertTrue(connector.closed.await(2, TimeUnit.SECONDS));
+        Assertions.assertEquals("a", connector.transports.get("a").host);
+        Assertions.assertFalse(connector.transports.get("a").isConnected());
+        Assertions.assertTrue(transport.isConnected());
+    }
+
+    @Test
+    public void firstWins() throws Exception {
+
+        // a 在对冲延迟内建立, 不连接 b
+        StubConnector connector = new StubConnector(200, "a", "b");
+        connector.delays.put("a", 10L);
+
+        Assertions.assertEquals("a", ((StubTransport) connector.connect()).host);
+        Assertions.assertEquals(Arrays.asList("a"), connector.started);
+    }
+
+    @Test
+    public void failFast() throws Exception {
+
+        // a 立即失败时不等待对冲延迟
+        StubConnector connector = new StubConnector(10000, "a", "b");
+        connector.failures.put("a", "a down");
+
+        long start = System.currentTimeMillis();
+        Assertions.assertEquals("b", ((StubTransport) connector.connect()).host);
+        Assertions.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void allFailed() {
+
+        StubConnector connector = new StubConnector(10, "a", "b", "c");
+        connector.failures.put("a", "a down");
+        connector.failures.put("b", "b down");
+        connector.failures.put("c", "c down");
+
+        MessagingException e = Assertions.assertThrows(MessagingException.class, connector::connect);
+        Assertions.assertEquals(3, connector.started.size());
+        Assertions.assertEquals(2, e.getSuppressed().length);
+        List<String> messages = new CopyOnWriteArrayList<>();
+        messages.add(e.getMessage());
+        for (Throwable suppressed : e.getSuppressed()) {
+            messages.add(suppressed.getMessage());
+        }
+        Assertions.assertTrue(messages.containsAll(Arrays.asList("a down", "b down", "c down")));
+    }
+
+    @Test
+    public void interrupted() throws Exception {
+
+        StubConnector connector = new StubConnector(50, "a", "b", "c");
+        connector.delays.put("a", 10000L);
+        connector.delays.put("b", 10000L);
+        connector.delays.put("c", 10000L);
+
+        AtomicReference<MessagingException> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                connector.connect();
+            } catch (MessagingException e) {
+                failure.set(e);
+            }
+        });
+        caller.start();
+        Thread.sleep(80);
+        caller.interrupt();
+        caller.join(2000);
+
+        // 告知已尝试的服务器, 仍在进行的尝试被中断
+        Assertions.assertNotNull(failure.get());
+        Assertions.assertTrue(failure.get().getMessage().contains("tried [a, b]"), failure.get().getMessage());
+        Assertions.assertTrue(connector.interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void sessionKey() {
+
+        // 相同账号配置共用会话, 密码不同时使用不同的会话
+        Session session = new SmtpConnector(properties("smtp.qq.com")).getSession();
+        Assertions.assertSame(session, new SmtpConnector(properties("smtp.qq.com")).getSession());
+
+        EmailProperties rotated = properties("smtp.qq.com");
+        rotated.setPassword("rotated");
+        Assertions.assertNotSame(session, new SmtpConnector(rotated).getSession());
+
+        EmailProperties avoidAuth = properties("smtp.qq.com");
+        avoidAuth.setAvoidAuthEnable(Boolean.TRUE);
+        Assertions.assertNotSame(session, new SmtpConnector(avoidAuth).getSession());
+    }
+
+    @Test
+    public void sessionEviction() {
+
+        Session session = new SmtpConnector(properties("lru.example.com")).getSession();
+        Session eldest = new SmtpConnector(properties("lru-0.example.com")).getSession();
+        for (int i = 1; i < SmtpConnector.MAX_SESSIONS - 1; i++) {
+            new SmtpConnector(properties("lru-" + i + ".example.com")).getSession();
+        }
+
+        // 超出容量时只淘汰最久未使用的会话
+        Assertions.assertSame(session, new SmtpConnector(properties("lru.example.com")).getSession());
+        new SmtpConnector(properties("lru-new.example.com")).getSession();
+        Assertions.assertSame(session, new SmtpConnector(properties("lru.example.com")).getSession());
+        Assertions.assertNotSame(eldest, new SmtpConnector(properties("lru-0.example.com")).getSession());
+    }
+
+    private static EmailProperties properties(String host, String... failoverHosts) {
+        EmailProperties emailProperties = new EmailProperties();
+        emailProperties.setHost(host);
+        emailProperties.setUsername("852203465@qq.com");
+        emailProperties.setPassword("password");
+        emailProperties.getFailover().getHosts().addAll(Arrays.asList(failoverHosts));
+        return emailProperties;
+    }
+
+    /**
+     * 按服务器模拟连接耗时与失败, 不访问网络
+     */
+    private static class StubConnector extends SmtpConnector {
+
+        private final Map<String, Long> delays = new ConcurrentHashMap<>();
+        private final Map<String, String> failures = new ConcurrentHashMap<>();
+        private final Map<String, StubTransport> transports = new ConcurrentHashMap<>();
+        private final List<String> started = new CopyOnWriteArrayList<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(2);
+        private volatile boolean uninterruptible = Boolean.FALSE;
+
+        StubConnector(int hedgeDelay, String host, String... failoverHosts) {
+            super(hedged(hedgeDelay, properties(host, failoverHosts)));
+        }
+
+        private static EmailProperties hedged(int hedgeDelay, EmailProperties emailProperties) {
+            emailProperties.getFailover().setHedgeDelay(hedgeDelay);
+            return emailProperties;
+        }
+
+        @Override
+        Transport connect(String host, Transcript transcript) throws MessagingException {
+            started.add(host);
+            long deadline = System.currentTimeMillis() + delays.getOrDefault(host, 0L);
+            for (long wait; (wait = deadline - System.currentTimeMillis()) > 0; ) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    if (!uninterruptible) {
+                        interrupted.countDown();
+                        throw new MessagingException("Interrupted connecting to " + host, e);
+                    }
+                }
+            }
+            if (failures.containsKey(host)) {
+                throw new MessagingException(failures.get(host));
+            }
+            StubTransport transport = new StubTransport(getSession(), host, closed);
+            transports.put(host, transport);
+            return transport;
+        }
+    }
+
+    private static class StubTransport extends Transport {
+
+        private final String host;
+        private final CountDownLatch closed;
+        private volatile boolean connected = Boolean.TRUE;
+
+        StubTransport(Session session, String host, CountDownLatch closed) {
+            super(session, null);
+            this.host = host;
+            this.closed = closed;
+        }
+
+        @Override
+        public void sendMessage(Message message, Address[] addresses) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public void close() {
+            connected = Boolean.FALSE;
+            closed.countDown();
+        }
+    }
+
+}
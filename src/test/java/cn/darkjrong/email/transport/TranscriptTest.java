@@ -0,0 +1,56 @@
+package cn.darkjrong.email.transport;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 会话记录测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 03:12:26
+ */
+public class TranscriptTest {
+
+    @Test
+    public void content() {
+
+        Transcript transcript = new Transcript(1024);
+        PrintStream out = new PrintStream(transcript, Boolean.TRUE);
+        out.print("MAIL FROM:<a@example.com>\r\n250 OK\r\nDATA\r\n354 Start mail input\r\n");
+        out.print("Subject: test\r\n\r\nbody\r\n..stuffed\r\n.\r\n");
+        out.print("250 OK queued\r\n");
+
+        String dump = transcript.dump();
+        Assertions.assertTrue(dump.startsWith("MAIL FROM:<a@example.com>\r\n250 OK\r\nDATA\r\n354 Start mail input\r\n"));
+        Assertions.assertTrue(dump.contains("[34 bytes of message content]\r\n.\r\n250 OK queued"));
+        Assertions.assertFalse(dump.contains("body"));
+    }
+
+    @Test
+    public void rejected() {
+
+        // DATA 被拒绝时不进入邮件内容
+        Transcript transcript = new Transcript(1024);
+        byte[] bytes = "DATA\r\n554 No valid recipients\r\nRSET\r\n250 OK\r\n".getBytes(StandardCharsets.US_ASCII);
+        transcript.write(bytes, 0, bytes.length);
+        Assertions.assertEquals("DATA\r\n554 No valid recipients\r\nRSET\r\n250 OK\r\n", transcript.dump());
+    }
+
+    @Test
+    public void mark() {
+
+        Transcript transcript = new Transcript(16);
+        byte[] bytes = "EHLO localhost\r\n".getBytes(StandardCharsets.US_ASCII);
+        transcript.write(bytes, 0, bytes.length);
+        transcript.mark();
+        Assertions.assertEquals("", transcript.dump());
+
+        bytes = "NOOP\r\n250 OK\r\nQUIT\r\n".getBytes(StandardCharsets.US_ASCII);
+        transcript.write(bytes, 0, bytes.length);
+        Assertions.assertEquals("[4 bytes truncated]\n\r\n250 OK\r\nQUIT\r\n", transcript.dump());
+    }
+
+}
@@ -0,0 +1,111 @@
+package cn.darkjrong.email.validation;
+
+import cn.darkjrong.email.mx.DomainNotFoundException;
+import cn.darkjrong.email.mx.MxRecord;
+import cn.darkjrong.spring.boot.autoconfigure.EmailProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.MessagingException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 收件人校验测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 00:20:44
+ */
+public class RecipientValidatorTest {
+
+    @Test
+    public void valid() {
+        String[] addresses = {"852203465@qq.com", " first.last@example.com ", "user+tag@sub.example.co",
+                "\"john doe\"@example.com", "o'brien@example.ie", "a@xn--fiqs8s.cn",
+                "user@[192.168.1.1]", "user@[IPv6:2001:db8::1]", "x@a-b.example.com",
+                "user@例子.中国", "user@bücher.de"};
+        for (String address : addresses) {
+            Assertions.assertTrue(AddressScanner.isValid(address), address);
+        }
+    }
+
+    @Test
+    public void invalid() {
+        String[] addresses = {"", "plainaddress", "@example.com", "user@", "user@localhost", ".user@example.com",
+                "user.@example.com", "us..er@example.com", "user@example..com", "user@-example.com",
+                "user@example-.com", "user@example.com.", "us er@example.com", "user@exa mple.com",
+                "user@@example.com", "\"unterminated@example.com", "user@[300.1.1]", "user@[1.2.3.4",
+                "user@example.com>", "<user@example.com>", "user,other@example.com", "用户@example.com", "用户@例子.中国", "user@bü cher.de"};
+        for (String address : addresses) {
+            Assertions.assertFalse(AddressScanner.isValid(address), address);
+        }
+        StringBuilder local = new StringBuilder();
+        for (int i = 0; i < 65; i++) {
+            local.append('a');
+        }
+        Assertions.assertFalse(AddressScanner.isValid(local + "@example.com"));
+        Assertions.assertTrue(AddressScanner.isValid(local.substring(1) + "@example.com"));
+    }
+
+    @Test
+    public void checkDomain() {
+
+        EmailProperties.Validation validation = new EmailProperties.Validation();
+        validation.setCheckDomain(Boolean.TRUE);
+        RecipientValidator validator = new RecipientValidator(validation);
+
+        Map<String, AtomicInteger> lookups = new ConcurrentHashMap<>();
+        validator.setMxResolver(domain -> {
+            lookups.computeIfAbsent(domain, key -> new AtomicInteger()).incrementAndGet();
+            if ("gone.example".equals(domain)) {
+                throw new DomainNotFoundException("Domain " + domain + " does not exist");
+            }
+            if ("flaky.example".equals(domain)) {
+                throw new MessagingException("MX lookup failed for " + domain);
+            }
+            return Collections.singletonList(new MxRecord("mx." + domain, 10, 60000L));
+        });
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(validator.isValid("user" + i + "@Example.com"));
+            Assertions.assertFalse(validator.isValid("user" + i + "@gone.example"));
+            Assertions.assertTrue(validator.isValid("user" + i + "@flaky.example"));
+        }
+        Assertions.assertTrue(validator.isValid("user@[10.0.0.1]"));
+
+        Assertions.assertEquals(1, lookups.get("example.com").get());
+        Assertions.assertEquals(1, lookups.get("gone.example").get());
+        Assertions.assertEquals(3, lookups.get("flaky.example").get());
+        Assertions.assertEquals(3, lookups.size());
+    }
+
+    @Test
+    public void domainEviction() {
+
+        EmailProperties.Validation validation = new EmailProperties.Validation();
+        validation.setCheckDomain(Boolean.TRUE);
+        RecipientValidator validator = new RecipientValidator(validation);
+
+        Map<String, AtomicInteger> lookups = new ConcurrentHashMap<>();
+        validator.setMxResolver(domain -> {
+            lookups.computeIfAbsent(domain, key -> new AtomicInteger()).incrementAndGet();
+            return Collections.singletonList(new MxRecord("mx." + domain, 10, 60000L));
+        });
+
+        validator.isValid("user@hot.example");
+        for (int i = 1; i < RecipientValidator.MAX_DOMAINS; i++) {
+            validator.isValid("user@d" + i + ".example");
+        }
+
+        // 超出容量时只淘汰最久未使用的域名
+        validator.isValid("user@hot.example");
+        validator.isValid("user@new.example");
+        validator.isValid("user@hot.example");
+        validator.isValid("user@d1.example");
+        Assertions.assertEquals(1, lookups.get("hot.example").get());
+        Assertions.assertEquals(2, lookups.get("d1.example").get());
+    }
+
+}
@@ -0,0 +1,56 @@
+package cn.darkjrong.spring.boot.autoconfigure;
+
+import cn.darkjrong.email.EmailTemplate;
+import cn.darkjrong.email.domain.EmailTo;
+import cn.darkjrong.email.transport.FakeSmtpServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * 电子邮件健康检查测试类
+ *
+ * @author Rong.Jia
+ * @date 2026/10/19 08:10:54
+ */
+public class EmailHealthIndicatorTest {
+
+    @Test
+    public void health() throws Exception {
+
+        try (FakeSmtpServer server = new FakeSmtpServer()) {
+
+            EmailProperties emailProperties = new EmailProperties();
+            emailProperties.setHost("127.0.0.1");
+            emailProperties.setPort(server.getPort());
+            emailProperties.setSslEnable(Boolean.FALSE);
+            emailProperties.setAvoidAuthEnable(Boolean.TRUE);
+            emailProperties.getFrom().setEmail("852203465@qq.com");
+            EmailTemplate emailTemplate = new EmailTemplate(emailProperties);
+
+            // 没有空闲连接时不新建连接
+            Health health = new EmailHealthIndicator(emailTemplate, 0L).health();
+            Assertions.assertEquals(Status.UNKNOWN, health.getStatus());
+            Assertions.assertEquals(0, server.getConnections());
+
+            emailTemplate.sendText("subject", "text", new EmailTo("852203465@qq.com"));
+            EmailHealthIndicator indicator = new EmailHealthIndicator(emailTemplate, 60000L);
+            health = indicator.health();
+            Assertions.assertEquals(Status.UP, health.getStatus());
+            Assertions.assertEquals("NOOP ok", health.getDetails().get("connectivity"));
+            Assertions.assertEquals(1, health.getDetails().get("idle"));
+
+            // 缓存期内不再访问服务器
+            server.dropAll();
+            Assertions.assertSame(health, indicator.health());
+
+            health = new EmailHealthIndicator(emailTemplate, 0L).health();
+            Assertions.assertEquals(Status.DOWN, health.getStatus());
+            Assertions.assertEquals("NOOP failed", health.getDetails().get("connectivity"));
+            Assertions.assertEquals(1, server.getConnections());
+            emailTemplate.close();
+        }
+    }
+
+}